@@ -0,0 +1,82 @@
+package com.f9n.altibase.exporter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import io.prometheus.metrics.expositionformats.ExpositionFormatWriter;
+import io.prometheus.metrics.expositionformats.ExpositionFormats;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Exposition of one scrape's snapshots ({@code tables} objects): the library's text and protobuf writers as used
+ * by {@code /metrics}, and the streaming path (scrape encoded straight into the sink).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EncodingBenchmark {
+
+    private static final String TEXT = "text/plain; version=0.0.4; charset=utf-8";
+    private static final String PROTOBUF = "application/vnd.google.protobuf; proto=io.prometheus.client.MetricFamily; encoding=delimited";
+
+    @Param({"10", "1000", "100000"})
+    public int tables;
+
+    private AltibaseCollector collector;
+    private MetricSnapshots snapshots;
+    private ExpositionFormatWriter textWriter;
+    private ExpositionFormatWriter protobufWriter;
+    /** Reused like the server's response buffer. */
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 20);
+
+    @Setup
+    public void setup() throws SQLException {
+        collector = new AltibaseCollector(StandInDriver.install("bench").generate("SYS_TABLES_", tables).connect(), Set.of(), "bench");
+        snapshots = collector.collect();
+        ExpositionFormats formats = ExpositionFormats.init();
+        textWriter = formats.findWriter(TEXT);
+        protobufWriter = formats.findWriter(PROTOBUF);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        StandInDriver.uninstall();
+    }
+
+    @Benchmark
+    public int encodeText() throws IOException {
+        buffer.reset();
+        textWriter.write(buffer, snapshots);
+        return buffer.size();
+    }
+
+    @Benchmark
+    public int encodeProtobuf() throws IOException {
+        buffer.reset();
+        protobufWriter.write(buffer, snapshots);
+        return buffer.size();
+    }
+
+    /** Scrape plus text encoding in streaming mode (includes the scrape, unlike the two above). */
+    @Benchmark
+    public List<MetricSnapshot> streamText() throws IOException {
+        try (ExpositionSink sink = new ExpositionSink(OutputStream.nullOutputStream(), TextEncoder.Format.TEXT, false)) {
+            return collector.stream(sink);
+        }
+    }
+}
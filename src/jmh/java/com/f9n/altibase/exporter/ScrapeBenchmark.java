@@ -0,0 +1,78 @@
+package com.f9n.altibase.exporter;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import io.prometheus.metrics.model.snapshots.Labels;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Scrape hot paths against the {@link StandInDriver} (no latency): full scrape dispatch, label construction, snapshot
+ * building and a custom query, for {@code tables} objects (rows of the per-table queries / the custom query).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ScrapeBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int tables;
+
+    private AltibaseCollector collector;
+    private CustomQueryCollector customQueries;
+    private String[] names;
+
+    @Setup
+    public void setup() throws SQLException {
+        collector = new AltibaseCollector(StandInDriver.install("bench").generate("SYS_TABLES_", tables).connect(), Set.of(), "bench");
+        customQueries = new CustomQueryCollector(StandInDriver.install("bench_rows").defaultRows(tables).connect(),
+                List.of(new CustomQueryCollector.QueryDef("bench_rows", "Synthetic rows.", "SELECT NAME, VALUE FROM BENCH", null)));
+        names = new String[tables];
+        for (int i = 0; i < tables; i++) names[i] = "TABLE_" + i;
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        StandInDriver.uninstall();
+    }
+
+    /** One full scrape: dispatch of every method, row reading, snapshot building and exporter status. */
+    @Benchmark
+    public MetricSnapshots collect() {
+        return collector.collect();
+    }
+
+    @Benchmark
+    public void labels(Blackhole bh) {
+        for (String name : names) bh.consume(Labels.of("schema", "APP", "table_name", name, "tablespace", "SYS_TBS_MEM_DATA"));
+    }
+
+    /** Gauge points of one per-table family into snapshots (labels built per row, as scrape methods do). */
+    @Benchmark
+    public List<MetricSnapshot> buildSnapshots() {
+        AltibaseCollector.ScrapeContext ctx = new AltibaseCollector.ScrapeContext();
+        for (int i = 0; i < names.length; i++) {
+            ctx.addGauge("table_size_bytes", Labels.of("schema", "APP", "table_name", names[i], "tablespace", "SYS_TBS_MEM_DATA"), i);
+        }
+        return ctx.buildSnapshots();
+    }
+
+    /** {@code CustomQueryCollector.runQuery} over {@code tables} rows plus the per-query stats families. */
+    @Benchmark
+    public MetricSnapshots customQuery() {
+        return customQueries.collect();
+    }
+}
@@ -1,18 +1,34 @@
 package com.f9n.altibase.exporter;
 
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import io.prometheus.metrics.model.registry.MultiCollector;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
 import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
 import io.prometheus.metrics.model.snapshots.InfoSnapshot;
 import io.prometheus.metrics.model.snapshots.Labels;
@@ -24,17 +40,180 @@ import org.slf4j.LoggerFactory;
 public final class AltibaseCollector implements MultiCollector {
 
     private static final Logger log = LoggerFactory.getLogger(AltibaseCollector.class);
-    private final Connection conn;
+    /** Default refresh interval for catalog-derived (nearly static) scrapes. */
+    private static final int CATALOG_INTERVAL_SECONDS = 300;
+    private static final int DEFAULT_MAX_WAITERS = 10;
+    /** Oldest result served to requests that overlap a streamed scrape; older ones wait for a fresh scrape. */
+    private static final long STREAM_OVERLAP_MAX_AGE_NANOS = 60_000_000_000L;
+    /** Circuit breaker backoff cap, as a multiple of the base backoff. */
+    private static final int MAX_BACKOFF_MULTIPLIER = 16;
+    /** Main connection, validated before each scrape; null while the database is unreachable (up = 0). */
+    private final ConnectionManager connections;
+    /** When non-null, scrape methods run concurrently on virtual threads, each on a pooled connection. */
+    private final ConnectionPool pool;
     private final Set<String> disabledMetrics;
     private final String exporterVersion;
+    /** Per-metric-key interval overrides (ALTIBASE_METRIC_INTERVALS); win over {@link ScrapeMetric#intervalSeconds()}. */
+    private final Map<String, Integer> metricIntervals;
+    /** Statement.setQueryTimeout for every scrape statement; 0 = driver default (none). */
+    private final int queryTimeoutSeconds;
+    /** Global scrape deadline; 0 = none. */
+    private final long scrapeTimeoutNanos;
+    /** Replicated sequence tables ($SEQ) whose LAST_SYNC_SEQ is read per UNION ALL statement. */
+    private final int sequenceBatchSize;
+    /** Cap on replicated sequences exported per scrape. */
+    private final int sequenceMax;
+    /** Export cumulative V$ columns as counters (through {@link #deltas}) instead of raw gauges. */
+    private final boolean cumulativeCounters;
+    /** Also export {@code <key>_per_second} rates of cumulative columns. */
+    private final boolean cumulativeRates;
+    /** Previous samples of cumulative columns; null when neither counters nor rates are enabled. */
+    private final DeltaEngine deltas;
+    /** Series cap for per-object metrics; null when unlimited. */
+    private final SeriesBudget budget;
+    /** Streaming mode: encoders of the scrape-level families (status, foreign keys); guarded by {@link #scrapeLock}. */
+    private final Map<String, TextEncoder> streamEncoders = new LinkedHashMap<>();
+    /** Callers that may wait on an in-flight scrape before the last good result is served instead. */
+    private final int maxWaiters;
+    private final Object flightLock = new Object();
+    /** Scrape in flight, null when idle; guarded by {@link #flightLock}. */
+    private Flight inFlight;
+    /**
+     * Result of the last completed scrape, failed methods included (its {@code last_scrape_success} and
+     * {@code scrape_duration_seconds} describe it); served to callers past {@link #maxWaiters}.
+     */
+    private volatile MetricSnapshots lastResult;
+    private volatile long lastResultNanos;
+    /** Held by the scrape running on this collector (buffered or streamed); a stream only ever tries it. */
+    private final ReentrantLock scrapeLock = new ReentrantLock();
+    /** True while {@link #stream} holds {@link #scrapeLock}. */
+    private volatile boolean streaming;
+    private final AtomicLong coalesced = new AtomicLong();
+    /** Per scrape method: duration histogram, samples, errors by SQLState, allocated bytes. */
+    private final ScrapeStats stats = ScrapeStats.forScrapeMethods();
+    private final AtomicLong servedStale = new AtomicLong();
+    /** Streaming mode: encoded bytes of slow-changing families; guarded by {@link #scrapeLock}. */
+    private final FamilyCache familyCache = new FamilyCache();
+    /** Enabled scrape methods bound to this collector's config, in SCRAPE_INVOKERS order. */
+    private final BoundScrape[] scrapes;
     private volatile String lastVersion = "unknown";
+    /** SQL variants pinned by {@link SchemaProbe}; null until probed (or after invalidation). */
+    private volatile SchemaProbe.Capabilities capabilities;
+    /** Last fused scalar query; rebuilt when the set of due scalar members changes. */
+    private volatile FusedQuery fused;
+    /**
+     * Scalar SQL that fails inside a fused SELECT although its method may succeed alone (e.g. a subquery returning
+     * several rows); isolated by bisecting a failed fused query, queried individually until the next reconnect.
+     */
+    private final Set<String> unfusable = ConcurrentHashMap.newKeySet();
+
+    private record CachedSlice(ScrapeContext slice, long expiresAtNanos) {}
+
+    /** A scrape in flight; {@code shared} views are handed to the callers waiting on it. */
+    private static final class Flight {
+        final CompletableFuture<MetricSnapshots> result;
+        final boolean shared;
+        /** Callers waiting on this flight; guarded by {@link #flightLock}. */
+        int waiters;
+
+        Flight() {
+            this(new CompletableFuture<>(), false);
+        }
+
+        private Flight(CompletableFuture<MetricSnapshots> result, boolean shared) {
+            this.result = result;
+            this.shared = shared;
+        }
+
+        Flight shared() {
+            return new Flight(result, true);
+        }
+    }
+
+    /** One SELECT of scalar subqueries over {@code members} (column i+1 = members.get(i)). */
+    private record FusedQuery(List<String> members, String sql) {
+        static FusedQuery of(List<String> members) {
+            StringBuilder sql = new StringBuilder("SELECT ");
+            for (int i = 0; i < members.size(); i++) {
+                if (i > 0) sql.append(", ");
+                sql.append('(').append(members.get(i)).append(')');
+            }
+            return new FusedQuery(List.copyOf(members), sql.append(" FROM DUAL").toString());
+        }
+    }
+
+    /** Direct call into one {@code @ScrapeMetric} method; built once per method with LambdaMetafactory. */
+    @FunctionalInterface
+    interface ScrapeInvoker {
+        void scrape(AltibaseCollector collector, ScrapeContext ctx) throws SQLException;
+    }
+
+    /** Static dispatch table entry: method name, annotation and its direct invoker. */
+    record ScrapeDescriptor(String name, ScrapeMetric meta, ScrapeInvoker invoker) {}
+
+    /**
+     * A scrape method bound to this collector: keys, interval and circuit breaker resolved once at construction
+     * (disabled methods are never bound), plus its slow-tier cache slot.
+     */
+    private static final class BoundScrape {
+        final String name;
+        final String primaryKey;
+        final boolean catchSchemaError;
+        final long intervalNanos;
+        final CircuitBreaker breaker;
+        final ScrapeInvoker invoker;
+        final String[] scalars;
+        /** Metric keys declared by the method; their families are complete when it returns. */
+        final Set<String> keys;
+        /** Streaming mode: the method's encoders, reset before each run and replayed while its slice is cached. */
+        final Map<String, TextEncoder> encoders = new LinkedHashMap<>();
+        volatile CachedSlice cached;
+        /** Set when the last run failed; keeps the method's scalars out of the fused query until it succeeds alone. */
+        volatile boolean failedLast;
+
+        BoundScrape(ScrapeDescriptor d, int intervalSeconds, CircuitBreaker breaker) {
+            this.name = d.name();
+            this.primaryKey = d.meta().value().length > 0 ? d.meta().value()[0] : d.name();
+            this.catchSchemaError = d.meta().catchSchemaError();
+            this.intervalNanos = Math.max(0, intervalSeconds) * 1_000_000_000L;
+            this.breaker = breaker;
+            this.invoker = d.invoker();
+            this.scalars = d.meta().scalars();
+            this.keys = Set.of(d.meta().value());
+        }
+    }
 
     static final class ScrapeContext {
         private final Statement statement;
+        /** Scalar values prefetched by the fused query, keyed by member SQL. */
+        private final Map<String, Long> scalars;
         private final Map<String, List<GaugeSnapshot.GaugeDataPointSnapshot>> points = new LinkedHashMap<>();
+        private final List<DeltaEngine.Sample> cumulative = new ArrayList<>();
+        /** Streaming mode: per-key encoders that gauges are written into instead of {@link #points}; null = buffered. */
+        private final Map<String, TextEncoder> encoders;
+        /** Streaming mode: keys this budget limits stay in {@link #points} until {@link #foldAndEncode()}. */
+        private final SeriesBudget budget;
+        /** Streaming mode: first value of each unlabeled gauge, for {@link #gaugeValue}. */
+        private final Map<String, Double> unlabeled;
+        /** Streaming mode: series folded by the budget in {@link #foldAndEncode()}, per key. */
+        private Map<String, Integer> dropped = Map.of();
+        /** Gauge samples added to this context (cumulative samples are counted by their list). */
+        private int samples;
+
+        ScrapeContext(Statement statement, Map<String, Long> scalars, Map<String, TextEncoder> encoders, SeriesBudget budget) {
+            this.statement = statement;
+            this.scalars = scalars;
+            this.encoders = encoders;
+            this.budget = budget;
+            this.unlabeled = encoders != null ? new HashMap<>() : null;
+        }
+
+        ScrapeContext(Statement statement, Map<String, Long> scalars) {
+            this(statement, scalars, null, null);
+        }
 
         ScrapeContext(Statement statement) {
-            this.statement = statement;
+            this(statement, Map.of());
         }
 
         ScrapeContext() {
@@ -45,15 +224,107 @@ public final class AltibaseCollector implements MultiCollector {
             return statement;
         }
 
+        Long scalar(String sql) {
+            return scalars.get(sql);
+        }
+
         void addGauge(String key, double value) {
             addGauge(key, Labels.EMPTY, value);
         }
 
         void addGauge(String key, Labels labels, double value) {
+            samples++;
+            if (encoders != null && (budget == null || !budget.limits(key))) {
+                encoders.computeIfAbsent(key, k -> new TextEncoder(AltibaseMetricDefs.name(k))).sample(labels, value);
+                if (labels.size() == 0) unlabeled.putIfAbsent(key, value);
+                return;
+            }
             points.computeIfAbsent(key, k -> new ArrayList<>())
                     .add(new GaugeSnapshot.GaugeDataPointSnapshot(value, labels, null));
         }
 
+        /** Sample of a cumulative V$ column; becomes a counter/rate or, without the delta engine, a raw gauge. */
+        void addCumulative(String key, Labels labels, double value) {
+            cumulative.add(new DeltaEngine.Sample(key, labels, value, System.nanoTime()));
+        }
+
+        List<DeltaEngine.Sample> cumulative() {
+            return cumulative;
+        }
+
+        /** Samples produced into this context: gauges plus cumulative samples. */
+        int samples() {
+            return samples + cumulative.size();
+        }
+
+        /** Exports the cumulative samples as raw gauges (legacy mode). */
+        void addCumulativeAsGauges() {
+            for (DeltaEngine.Sample sample : cumulative) addGauge(sample.key(), sample.labels(), sample.raw());
+        }
+
+        /** First value recorded for an unlabeled gauge key; NaN if absent. */
+        double gaugeValue(String key) {
+            List<GaugeSnapshot.GaugeDataPointSnapshot> list = points.get(key);
+            if (list != null && !list.isEmpty()) return list.get(0).getValue();
+            Double v = unlabeled != null ? unlabeled.get(key) : null;
+            return v != null ? v : Double.NaN;
+        }
+
+        boolean streaming() {
+            return encoders != null;
+        }
+
+        /** Streaming mode: folds the points held back for the budget and encodes them like the other gauges. */
+        void foldAndEncode() {
+            if (points.isEmpty()) return;
+            if (budget != null) dropped = budget.enforce(points);
+            for (Map.Entry<String, List<GaugeSnapshot.GaugeDataPointSnapshot>> e : points.entrySet()) {
+                TextEncoder enc = encoders.computeIfAbsent(e.getKey(), k -> new TextEncoder(AltibaseMetricDefs.name(k)));
+                for (GaugeSnapshot.GaugeDataPointSnapshot p : e.getValue()) enc.sample(p.getLabels(), p.getValue());
+            }
+            points.clear();
+        }
+
+        /**
+         * Streaming mode: writes the families a method declared ({@code owned}) to the sink, through {@code cache}
+         * if non-null; samples of other keys are appended to this context's encoders and written at the end.
+         */
+        void stream(ScrapeContext slice, Set<String> owned, ExpositionSink sink, FamilyCache cache) throws IOException {
+            for (Map.Entry<String, TextEncoder> e : slice.encoders.entrySet()) {
+                TextEncoder enc = e.getValue();
+                if (enc.samples() == 0) continue;
+                if (owned.contains(e.getKey())) {
+                    if (cache != null) cache.write(sink, e.getKey(), enc, AltibaseMetricDefs.help(e.getKey()));
+                    else enc.writeTo(sink, AltibaseMetricDefs.help(e.getKey()), sink.format());
+                } else encoders.computeIfAbsent(e.getKey(), k -> new TextEncoder(enc.name())).append(enc);
+            }
+            for (Map.Entry<String, Integer> e : slice.dropped.entrySet()) {
+                addGauge("exporter_series_dropped", Labels.of("metric", e.getKey()), e.getValue());
+            }
+            slice.unlabeled.forEach(unlabeled::putIfAbsent);
+            cumulative.addAll(slice.cumulative);
+        }
+
+        /** Streaming mode: writes this context's remaining families. */
+        void writeEncoded(ExpositionSink sink) throws IOException {
+            for (Map.Entry<String, TextEncoder> e : encoders.entrySet()) e.getValue().writeTo(sink, AltibaseMetricDefs.help(e.getKey()), sink.format());
+        }
+
+        /** Applies the series budget to the merged points and records the folded-series count per budgeted key. */
+        void enforce(SeriesBudget budget) {
+            for (Map.Entry<String, Integer> e : budget.enforce(points).entrySet()) {
+                addGauge("exporter_series_dropped", Labels.of("metric", e.getKey()), e.getValue());
+            }
+        }
+
+        /** Appends another context's points (per key, in order); used to merge per-method slices. */
+        void merge(ScrapeContext slice) {
+            for (Map.Entry<String, List<GaugeSnapshot.GaugeDataPointSnapshot>> e : slice.points.entrySet()) {
+                points.computeIfAbsent(e.getKey(), k -> new ArrayList<>()).addAll(e.getValue());
+            }
+            cumulative.addAll(slice.cumulative);
+        }
+
         List<MetricSnapshot> buildSnapshots() {
             List<MetricSnapshot> out = new ArrayList<>();
             for (Map.Entry<String, List<GaugeSnapshot.GaugeDataPointSnapshot>> e : points.entrySet()) {
@@ -69,33 +340,271 @@ public final class AltibaseCollector implements MultiCollector {
     }
 
     public AltibaseCollector(Connection conn, Set<String> disabledMetrics, String exporterVersion) {
-        this.conn = conn;
-        this.disabledMetrics = Set.copyOf(disabledMetrics != null ? disabledMetrics : Set.of());
-        this.exporterVersion = exporterVersion != null ? exporterVersion : "0.0.0";
+        this(ConnectionManager.fixed(conn), null, disabledMetrics, exporterVersion, Map.of(), 0, 0, 0, 0, 20, 100, false, false, 0, Map.of(), DEFAULT_MAX_WAITERS);
     }
 
+    public AltibaseCollector(Connection conn, ConnectionPool pool, ExporterConfig config) {
+        this(ConnectionManager.fixed(conn), pool, config);
+    }
+
+    public AltibaseCollector(ConnectionManager connections, ConnectionPool pool, ExporterConfig config) {
+        this(connections, pool, config.disabledMetrics(), config.exporterVersion(), config.metricIntervals(),
+                config.queryTimeoutSeconds(), config.scrapeTimeoutSeconds(), config.breakerFailures(), config.breakerBackoffSeconds(),
+                config.sequenceBatchSize(), config.sequenceMax(), config.cumulativeCounters(), config.cumulativeRates(),
+                config.seriesBudget(), config.seriesBudgets(), config.scrapeMaxWaiters());
+    }
+
+    private AltibaseCollector(ConnectionManager connections, ConnectionPool pool, Set<String> disabledMetrics, String exporterVersion,
+                              Map<String, Integer> metricIntervals, int queryTimeoutSeconds, int scrapeTimeoutSeconds,
+                              int breakerFailures, int breakerBackoffSeconds, int sequenceBatchSize, int sequenceMax,
+                              boolean cumulativeCounters, boolean cumulativeRates, int seriesBudget, Map<String, Integer> seriesBudgets,
+                              int maxWaiters) {
+        this.connections = connections;
+        this.pool = pool;
+        this.disabledMetrics = Set.copyOf(disabledMetrics != null ? disabledMetrics : Set.of());
+        this.exporterVersion = exporterVersion != null ? exporterVersion : "0.0.0";
+        this.metricIntervals = Map.copyOf(metricIntervals != null ? metricIntervals : Map.of());
+        this.queryTimeoutSeconds = Math.max(0, queryTimeoutSeconds);
+        this.scrapeTimeoutNanos = Math.max(0, scrapeTimeoutSeconds) * 1_000_000_000L;
+        this.sequenceBatchSize = Math.max(1, sequenceBatchSize);
+        this.sequenceMax = Math.max(0, sequenceMax);
+        this.cumulativeCounters = cumulativeCounters;
+        this.cumulativeRates = cumulativeRates;
+        this.maxWaiters = Math.max(0, maxWaiters);
+        this.deltas = cumulativeCounters || cumulativeRates ? new DeltaEngine() : null;
+        SeriesBudget budget = new SeriesBudget(seriesBudget, seriesBudgets);
+        this.budget = budget.isActive() ? budget : null;
+        long base = Math.max(1, breakerBackoffSeconds) * 1_000_000_000L;
+        List<BoundScrape> bound = new ArrayList<>();
+        for (ScrapeDescriptor d : SCRAPE_INVOKERS) {
+            if (shouldSkipScrape(d.meta())) continue;
+            CircuitBreaker breaker = breakerFailures > 0 ? new CircuitBreaker(breakerFailures, base, base * MAX_BACKOFF_MULTIPLIER) : null;
+            bound.add(new BoundScrape(d, intervalSeconds(d.meta()), breaker));
+        }
+        this.scrapes = bound.toArray(new BoundScrape[0]);
+    }
+
+    /**
+     * Single-flight scrape: the first caller runs it; callers arriving while it is in flight wait for and share
+     * its result instead of opening more statements on the connection. Beyond {@code maxWaiters} waiting callers,
+     * the last completed result is returned immediately (if there is one). While a streamed scrape runs, callers
+     * get the last completed result if it is recent, instead of queueing behind the stream's client.
+     */
     @Override
     public MetricSnapshots collect() {
+        Flight flight;
+        synchronized (flightLock) {
+            flight = inFlight;
+            if (flight == null && streaming && lastResult != null
+                    && System.nanoTime() - lastResultNanos < STREAM_OVERLAP_MAX_AGE_NANOS) {
+                servedStale.incrementAndGet();
+                return lastResult;
+            } else if (flight == null) {
+                flight = inFlight = new Flight();
+            } else if (flight.waiters >= maxWaiters && lastResult != null) {
+                servedStale.incrementAndGet();
+                return lastResult;
+            } else {
+                flight.waiters++;
+                coalesced.incrementAndGet();
+                flight = flight.shared();
+            }
+        }
+        if (flight.shared) return flight.result.join();
+        try {
+            MetricSnapshots result = scrapeOnce();
+            flight.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (flightLock) {
+                inFlight = null;
+            }
+        }
+    }
+
+    /** Runs one scrape; excludes {@link #stream} so the connection never has two scrapes' statements open. */
+    private MetricSnapshots scrapeOnce() {
+        scrapeLock.lock();
+        try {
+            return scrapeLocked();
+        } finally {
+            scrapeLock.unlock();
+        }
+    }
+
+    private MetricSnapshots scrapeLocked() {
+        ScrapeContext ctx;
+        try {
+            ctx = scrapeDatabase(null);
+        } catch (IOException e) {
+            throw new AssertionError("buffered scrape has no sink", e);
+        }
+        if (budget != null) ctx.enforce(budget);
+        List<MetricSnapshot> snapshots = new ArrayList<>(ctx.buildSnapshots());
+        snapshots.addAll(tailSnapshots(ctx, true));
+        MetricSnapshots result = new MetricSnapshots(snapshots);
+        lastResultNanos = System.nanoTime();
+        lastResult = result;
+        return result;
+    }
+
+    /**
+     * Database part shared by {@link #scrapeLocked} and {@link #streamLocked}: acquires the connection, runs the
+     * scrape methods (in parallel on the pool, else serially, streaming to {@code sink} if not null) and adds the
+     * scrape status gauges. An unreachable database or a failed setup yields {@code up}/success 0 and an empty
+     * context; only sink errors propagate.
+     */
+    private ScrapeContext scrapeDatabase(ExpositionSink sink) throws IOException {
         long start = System.nanoTime();
+        long deadline = scrapeTimeoutNanos > 0 ? start + scrapeTimeoutNanos : 0;
+        if (sink != null) {
+            for (TextEncoder e : streamEncoders.values()) e.reset();
+        }
         ScrapeContext ctx = null;
         int success = 0;
-        try (Statement stmt = conn.createStatement()) {
-            ctx = new ScrapeContext(stmt);
-            scrape(ctx);
-            success = 1;
+        int up = 0;
+        ReentrantLock statementLock = pool == null ? connections.statementLock() : null;
+        if (statementLock != null) statementLock.lock();
+        try {
+            Connection conn = connections.acquire();
+            if (conn == null) {
+                log.warn("Scrape skipped: database unreachable, reconnecting in background");
+            } else if (pool != null) {
+                up = 1;
+                ctx = new ScrapeContext(null, prepareOnPooledConnection());
+                success = scrapeParallel(ctx, deadline) ? 1 : 0;
+            } else {
+                up = 1;
+                try (Statement stmt = createStatement(conn)) {
+                    ctx = new ScrapeContext(stmt, prepare(stmt), sink != null ? streamEncoders : null, sink != null ? budget : null);
+                    success = scrape(ctx, sink, deadline) ? 1 : 0;
+                }
+            }
+        } catch (IOException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Scrape failed: {}", e.getMessage(), e);
+        } finally {
+            if (statementLock != null) statementLock.unlock();
         }
         if (ctx == null) {
-            ctx = new ScrapeContext();
+            ctx = sink != null ? new ScrapeContext(null, Map.of(), streamEncoders, budget) : new ScrapeContext();
+        }
+        addScrapeStatus(ctx, start, up, success);
+        return ctx;
+    }
+
+    /** Callers that shared an in-flight scrape's result. */
+    long coalesced() {
+        return coalesced.get();
+    }
+
+    /** Callers served the last completed result because too many were already waiting. */
+    long servedStale() {
+        return servedStale.get();
+    }
+
+    /**
+     * Streaming form of {@link #collect()} for /metrics with a serial scrape (no pool): each method's gauge
+     * families are encoded into the method's reused buffers as rows are read and written to the sink as soon
+     * as the method returns, so no snapshot objects are built for them and heap stays bounded by the largest
+     * method's output instead of the whole scrape. Families of interval-cached methods and the info families go
+     * through the {@link FamilyCache}. Returns the remaining counter families for the caller to write after the
+     * streamed ones, or null without writing anything when another scrape (streamed or buffered) is running: the
+     * caller then serves {@link #collect()}, which shares that scrape or the last completed result, instead of
+     * running one more scrape or waiting on another client's socket.
+     */
+    List<MetricSnapshot> stream(ExpositionSink sink) throws IOException {
+        if (pool != null) throw new IllegalStateException("streaming requires a serial scrape (no connection pool)");
+        if (!scrapeLock.tryLock()) return null;
+        streaming = true;
+        try {
+            return streamLocked(sink);
+        } finally {
+            streaming = false;
+            scrapeLock.unlock();
+        }
+    }
+
+    private List<MetricSnapshot> streamLocked(ExpositionSink sink) throws IOException {
+        ScrapeContext ctx = scrapeDatabase(sink);
+        ctx.foldAndEncode();
+        ctx.writeEncoded(sink);
+        streamInfo(sink);
+        List<MetricSnapshot> snapshots = tailSnapshots(ctx, false);
+        snapshots.add(CounterSnapshot.builder()
+                .name(AltibaseMetricDefs.name("exporter_family_cache_lookups"))
+                .help(AltibaseMetricDefs.help("exporter_family_cache_lookups"))
+                .dataPoint(new CounterSnapshot.CounterDataPointSnapshot(familyCache.hits(), Labels.of("result", "hit"), null, 0))
+                .dataPoint(new CounterSnapshot.CounterDataPointSnapshot(familyCache.misses(), Labels.of("result", "miss"), null, 0))
+                .build());
+        return snapshots;
+    }
+
+    /** Streams the build, version and schema capability info families through the family cache. */
+    private void streamInfo(ExpositionSink sink) throws IOException {
+        TextEncoder build = TextEncoder.info("altibase_exporter_build");
+        build.sample(Labels.of("version", exporterVersion), 1);
+        familyCache.write(sink, "exporter_build_info", build, AltibaseMetricDefs.help("exporter_build_info"));
+        TextEncoder version = TextEncoder.info("altibase_version");
+        version.sample(Labels.of("version", lastVersion), 1);
+        familyCache.write(sink, "version", version, AltibaseMetricDefs.help("version"));
+        SchemaProbe.Capabilities caps = capabilities;
+        if (caps != null) {
+            TextEncoder capability = TextEncoder.info("altibase_schema_capability");
+            for (Map.Entry<String, String> e : SchemaProbe.describe(caps).entrySet()) {
+                capability.sample(Labels.of("capability", e.getKey(), "variant", e.getValue()), 1);
+            }
+            familyCache.write(sink, "schema_capability_info", capability, AltibaseMetricDefs.help("schema_capability_info"));
         }
+    }
+
+    /** Scrape status gauges (up, success, durations, breaker state); cumulative samples as gauges in legacy mode. */
+    private void addScrapeStatus(ScrapeContext ctx, long start, int up, int success) {
         double duration = (System.nanoTime() - start) / 1e9;
+        ctx.addGauge("up", up);
         ctx.addGauge("exporter_last_scrape_success", success);
+        double connectSeconds = connections.lastConnectSeconds();
+        if (!Double.isNaN(connectSeconds)) ctx.addGauge("exporter_connect_duration_seconds", connectSeconds);
         ctx.addGauge("scrape_duration_seconds", duration);
+        addBreakerState(ctx);
         if (success == 1) {
             log.info("Scrape completed: duration_seconds={} version={}", String.format("%.3f", duration), lastVersion);
         }
-        List<MetricSnapshot> snapshots = new ArrayList<>(ctx.buildSnapshots());
+        if (!cumulativeCounters) ctx.addCumulativeAsGauges();
+    }
+
+    /** Non-gauge families: delta engine counters and rates, reconnects and (if {@code info}) build/version/capability info. */
+    private List<MetricSnapshot> tailSnapshots(ScrapeContext ctx, boolean info) {
+        List<MetricSnapshot> snapshots = new ArrayList<>();
+        if (deltas != null) {
+            snapshots.addAll(deltas.apply(ctx.cumulative(), ctx.gaugeValue("instance_working_time_seconds"), cumulativeCounters, cumulativeRates));
+            snapshots.add(CounterSnapshot.builder()
+                    .name(AltibaseMetricDefs.name("exporter_counter_resets"))
+                    .help(AltibaseMetricDefs.help("exporter_counter_resets"))
+                    .dataPoint(new CounterSnapshot.CounterDataPointSnapshot(deltas.resets(), Labels.EMPTY, null, 0))
+                    .build());
+        }
+        snapshots.add(CounterSnapshot.builder()
+                .name(AltibaseMetricDefs.name("exporter_reconnects"))
+                .help(AltibaseMetricDefs.help("exporter_reconnects"))
+                .dataPoint(new CounterSnapshot.CounterDataPointSnapshot(connections.reconnects(), Labels.EMPTY, null, 0))
+                .build());
+        snapshots.addAll(stats.snapshots());
+        snapshots.add(CounterSnapshot.builder()
+                .name(AltibaseMetricDefs.name("exporter_scrapes_coalesced"))
+                .help(AltibaseMetricDefs.help("exporter_scrapes_coalesced"))
+                .dataPoint(new CounterSnapshot.CounterDataPointSnapshot(coalesced.get(), Labels.EMPTY, null, 0))
+                .build());
+        snapshots.add(CounterSnapshot.builder()
+                .name(AltibaseMetricDefs.name("exporter_scrapes_served_stale"))
+                .help(AltibaseMetricDefs.help("exporter_scrapes_served_stale"))
+                .dataPoint(new CounterSnapshot.CounterDataPointSnapshot(servedStale.get(), Labels.EMPTY, null, 0))
+                .build());
+        if (!info) return snapshots;
         snapshots.add(InfoSnapshot.builder()
                 .name("altibase_exporter_build")
                 .help(AltibaseMetricDefs.help("exporter_build_info"))
@@ -106,12 +615,24 @@ public final class AltibaseCollector implements MultiCollector {
                 .help(AltibaseMetricDefs.help("version"))
                 .dataPoint(new InfoSnapshot.InfoDataPointSnapshot(Labels.of("version", lastVersion)))
                 .build());
-        return new MetricSnapshots(snapshots);
+        SchemaProbe.Capabilities caps = capabilities;
+        if (caps != null) {
+            InfoSnapshot.Builder b = InfoSnapshot.builder()
+                    .name("altibase_schema_capability")
+                    .help(AltibaseMetricDefs.help("schema_capability_info"));
+            for (Map.Entry<String, String> e : SchemaProbe.describe(caps).entrySet()) {
+                b.dataPoint(new InfoSnapshot.InfoDataPointSnapshot(Labels.of("capability", e.getKey(), "variant", e.getValue())));
+            }
+            snapshots.add(b.build());
+        }
+        return snapshots;
     }
 
     @Override
     public List<String> getPrometheusNames() {
-        return AltibaseMetricDefs.allKeys().stream().map(AltibaseMetricDefs::name).toList();
+        List<String> names = new ArrayList<>(AltibaseMetricDefs.allKeys().stream().map(AltibaseMetricDefs::name).toList());
+        names.addAll(stats.names());
+        return names;
     }
 
     boolean isDisabled(String key) {
@@ -126,42 +647,337 @@ public final class AltibaseCollector implements MultiCollector {
         return true;
     }
 
-    private static final List<Method> SCRAPE_METHODS = discoverScrapeMethods();
+    private static final List<ScrapeDescriptor> SCRAPE_INVOKERS = buildDispatchTable();
 
-    private static List<Method> discoverScrapeMethods() {
-        List<Method> list = new ArrayList<>();
+    /**
+     * Discovers {@code @ScrapeMetric} methods once (sorted by name) and turns each into a {@link ScrapeInvoker}
+     * via LambdaMetafactory, so scrapes call methods directly instead of through {@code Method.invoke}.
+     */
+    private static List<ScrapeDescriptor> buildDispatchTable() {
+        List<Method> methods = new ArrayList<>();
         for (Method m : AltibaseCollector.class.getDeclaredMethods()) {
             if (m.getAnnotation(ScrapeMetric.class) == null) continue;
             if (m.getParameterCount() != 1 || m.getParameterTypes()[0] != ScrapeContext.class) continue;
-            list.add(m);
+            methods.add(m);
+        }
+        methods.sort(Comparator.comparing(Method::getName));
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodType invokerType = MethodType.methodType(void.class, AltibaseCollector.class, ScrapeContext.class);
+        List<ScrapeDescriptor> table = new ArrayList<>(methods.size());
+        for (Method m : methods) {
+            try {
+                MethodHandle target = lookup.unreflect(m);
+                CallSite site = LambdaMetafactory.metafactory(lookup, "scrape", MethodType.methodType(ScrapeInvoker.class),
+                        invokerType, target, invokerType);
+                ScrapeInvoker invoker = (ScrapeInvoker) site.getTarget().invokeExact();
+                table.add(new ScrapeDescriptor(m.getName(), m.getAnnotation(ScrapeMetric.class), invoker));
+            } catch (Throwable t) {
+                throw new ExceptionInInitializerError("Cannot build scrape invoker for " + m.getName() + ": " + t);
+            }
+        }
+        return List.copyOf(table);
+    }
+
+    /** Interval for a scrape method: first override found for any of its keys, else the annotation default. */
+    int intervalSeconds(ScrapeMetric a) {
+        for (String key : a.value()) {
+            Integer override = metricIntervals.get(key);
+            if (override != null) return override;
+        }
+        return a.intervalSeconds();
+    }
+
+    /** Returns the cached slice of a slow-tier method if it has not expired yet. */
+    private static ScrapeContext cachedSlice(BoundScrape scrape) {
+        CachedSlice cached = scrape.cached;
+        if (cached == null || System.nanoTime() - cached.expiresAtNanos() >= 0) return null;
+        return cached.slice();
+    }
+
+    private static void cacheSlice(BoundScrape scrape, ScrapeContext slice) {
+        if (scrape.intervalNanos > 0) scrape.cached = new CachedSlice(slice, System.nanoTime() + scrape.intervalNanos);
+    }
+
+    /** Drops the pinned SQL variants so the next scrape re-probes (reconnect, server version change). */
+    void invalidateSchemaCapabilities() {
+        capabilities = null;
+        unfusable.clear();
+    }
+
+    /** Probes schema capabilities on the given statement if not pinned yet; failures are retried next scrape. */
+    private void ensureCapabilities(Statement stmt) {
+        if (capabilities != null) return;
+        try {
+            capabilities = SchemaProbe.probe(stmt);
+        } catch (SQLException e) {
+            log.warn("Schema capability probe failed, retrying next scrape: {}", e.getMessage());
+        }
+    }
+
+    /** Per-scrape preparation on the scrape statement: schema probe (if needed) and fused scalar prefetch. */
+    private Map<String, Long> prepare(Statement stmt) {
+        ensureCapabilities(stmt);
+        return fuseScalars(stmt);
+    }
+
+    private Map<String, Long> prepareOnPooledConnection() {
+        Connection c;
+        try {
+            c = pool.borrow();
+        } catch (SQLException e) {
+            log.warn("Scrape preparation skipped, no pooled connection: {}", e.getMessage());
+            return Map.of();
+        }
+        try (Statement stmt = createStatement(c)) {
+            return prepare(stmt);
+        } catch (SQLException e) {
+            log.warn("Scrape preparation skipped: {}", e.getMessage());
+            return Map.of();
+        } finally {
+            pool.release(c);
+        }
+    }
+
+    /**
+     * Runs the scalar queries of every method due this scrape (not cached, breaker closed, no failure last time)
+     * as one SELECT of scalar subqueries. When the fused query fails, its members are bisected in the same scrape:
+     * halves that succeed still provide their values, and a member failing on its own inside a fused SELECT is
+     * marked {@link #unfusable}, so a failing fused query is not sent again. A timeout or connection error only
+     * falls back to individual queries for this scrape.
+     */
+    private Map<String, Long> fuseScalars(Statement stmt) {
+        Set<String> due = new LinkedHashSet<>();
+        for (BoundScrape scrape : scrapes) {
+            if (scrape.scalars.length == 0 || scrape.failedLast || cachedSlice(scrape) != null || !breakerAllows(scrape)) continue;
+            for (String sql : scrape.scalars) {
+                if (!unfusable.contains(sql)) due.add(sql);
+            }
+        }
+        if (due.size() < 2) return Map.of();
+        List<String> members = List.copyOf(due);
+        FusedQuery q = fused;
+        if (q == null || !q.members().equals(members)) fused = q = FusedQuery.of(members);
+        Map<String, Long> values = new HashMap<>(members.size() * 2);
+        try {
+            runFused(stmt, q, values);
+        } catch (SQLException e) {
+            if (transientFailure(e)) {
+                log.warn("Fused scalar query failed, falling back to individual queries: members={} error={}", members.size(), e.getMessage());
+                return Map.of();
+            }
+            log.warn("Fused scalar query failed, isolating failing members: members={} error={}", members.size(), e.getMessage());
+            bisect(stmt, members, values);
         }
-        list.sort(Comparator.comparing(Method::getName));
-        return Collections.unmodifiableList(list);
+        return values;
     }
 
-    private void scrape(ScrapeContext ctx) throws SQLException {
-        for (Method method : SCRAPE_METHODS) {
-            ScrapeMetric a = method.getAnnotation(ScrapeMetric.class);
-            if (shouldSkipScrape(a)) continue;
+    private static void runFused(Statement stmt, FusedQuery q, Map<String, Long> into) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(q.sql())) {
+            if (!rs.next()) return;
+            for (int i = 0; i < q.members().size(); i++) into.put(q.members().get(i), rs.getLong(i + 1));
+        }
+    }
+
+    /** Splits {@code members} (whose fused query failed) until the failing ones are single; fuses the rest. */
+    private void bisect(Statement stmt, List<String> members, Map<String, Long> into) {
+        if (members.size() == 1) {
+            unfusable.add(members.get(0));
+            log.warn("Scalar query left out of the fused query: sql={}", members.get(0));
+            return;
+        }
+        int mid = members.size() / 2;
+        for (List<String> half : List.of(members.subList(0, mid), members.subList(mid, members.size()))) {
             try {
-                method.setAccessible(true);
-                method.invoke(this, ctx);
-            } catch (IllegalAccessException e) {
-                throw new IllegalStateException("Cannot invoke " + method.getName(), e);
-            } catch (InvocationTargetException e) {
-                Throwable cause = e.getCause();
-                if (a.catchSchemaError() && cause instanceof SQLException) {
-                    log.warn("{} scrape skipped (schema may differ across Altibase versions): {}", method.getName(), cause.getMessage());
+                runFused(stmt, FusedQuery.of(half), into);
+            } catch (SQLException e) {
+                if (transientFailure(e)) return;
+                bisect(stmt, half, into);
+            }
+        }
+    }
+
+    /** Timeout or connection failure: says nothing about the SQL itself. */
+    private static boolean transientFailure(SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLTimeoutException || e instanceof SQLTransientException || e instanceof SQLRecoverableException
+                || (state != null && state.startsWith("08"));
+    }
+
+    /** Pinned variant for a capability; null = no variant works on this server (scrape is skipped). */
+    private SchemaProbe.Variant variant(String capability) throws SQLException {
+        SchemaProbe.Capabilities caps = capabilities;
+        if (caps == null) throw new SQLException("Schema capabilities not probed yet: " + capability);
+        return caps.get(capability);
+    }
+
+    private Statement createStatement(Connection c) throws SQLException {
+        Statement stmt = c.createStatement();
+        if (queryTimeoutSeconds > 0) stmt.setQueryTimeout(queryTimeoutSeconds);
+        return stmt;
+    }
+
+    private static boolean pastDeadline(long deadline) {
+        return deadline != 0 && System.nanoTime() - deadline >= 0;
+    }
+
+    /** False while the method's circuit breaker is open (method skipped this scrape). */
+    private static boolean breakerAllows(BoundScrape scrape) {
+        return scrape.breaker == null || scrape.breaker.allowRequest(System.nanoTime());
+    }
+
+    private void addBreakerState(ScrapeContext ctx) {
+        long now = System.nanoTime();
+        for (BoundScrape scrape : scrapes) {
+            if (scrape.breaker == null) continue;
+            Labels labels = Labels.of("metric", scrape.primaryKey);
+            ctx.addGauge("exporter_circuit_breaker_open", labels, scrape.breaker.isOpen(now) ? 1 : 0);
+            ctx.addGauge("exporter_scrape_consecutive_failures", labels, scrape.breaker.consecutiveFailures());
+        }
+    }
+
+    /**
+     * Runs enabled scrape methods one after another on the shared statement. A failing method is logged and
+     * counted by its circuit breaker; the remaining methods still run. Methods not started before the deadline
+     * are skipped. Returns false if any method failed (schema errors excluded) or the deadline was hit.
+     * <p>
+     * Without a sink each method's slice is merged into {@code ctx}. With one, each method runs into its own
+     * encoders and its families are written to the sink when it returns; a cached slice is reused only if it was
+     * produced by the same mode, so a streamed slice is replayed from its encoders.
+     */
+    private boolean scrape(ScrapeContext ctx, ExpositionSink sink, long deadline) throws IOException {
+        boolean streamed = sink != null;
+        boolean ok = true;
+        int skippedByDeadline = 0;
+        for (BoundScrape scrape : scrapes) {
+            ScrapeContext slice = cachedSlice(scrape);
+            if (slice == null || slice.streaming() != streamed) {
+                if (pastDeadline(deadline)) {
+                    skippedByDeadline++;
+                    continue;
+                }
+                if (!breakerAllows(scrape)) continue;
+                if (streamed) {
+                    for (TextEncoder e : scrape.encoders.values()) e.reset();
+                    slice = new ScrapeContext(ctx.statement(), ctx.scalars, scrape.encoders, budget);
                 } else {
-                    throw cause != null ? (SQLException) cause : new SQLException(e);
+                    slice = new ScrapeContext(ctx.statement(), ctx.scalars);
                 }
+                ok &= runScrape(scrape, slice);
+                if (streamed) slice.foldAndEncode();
+            }
+            if (streamed) {
+                ctx.stream(slice, scrape.keys, sink, scrape.intervalNanos > 0 ? familyCache : null);
+            } else {
+                ctx.merge(slice);
             }
         }
+        return withinDeadline("skipped_methods", skippedByDeadline) && ok;
+    }
+
+    /** Logs a deadline overrun that cost {@code methods} scrape methods; true if there was none. */
+    private boolean withinDeadline(String what, int methods) {
+        if (methods == 0) return true;
+        log.warn("Scrape deadline exceeded: timeout_seconds={} {}={}", scrapeTimeoutNanos / 1_000_000_000L, what, methods);
+        return false;
+    }
+
+    /** Slice produced by one scrape method and whether the method succeeded. */
+    private record SliceResult(ScrapeContext slice, boolean ok) {}
+
+    /**
+     * Runs every enabled scrape method on its own virtual thread and pooled connection (pool size bounds
+     * concurrency). Each method writes to its own slice; slices are merged in dispatch-table order so output
+     * is deterministic. Cached slow-tier slices are merged in place without touching the database. Methods
+     * still running at the deadline are interrupted and left out of this scrape.
+     */
+    private boolean scrapeParallel(ScrapeContext ctx, long deadline) throws SQLException {
+        boolean ok = true;
+        int timedOut = 0;
+        List<Future<SliceResult>> futures = new ArrayList<>(scrapes.length);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (BoundScrape scrape : scrapes) {
+                ScrapeContext cached = cachedSlice(scrape);
+                if (cached != null && !cached.streaming()) {
+                    futures.add(CompletableFuture.completedFuture(new SliceResult(cached, true)));
+                } else if (breakerAllows(scrape)) {
+                    futures.add(executor.submit(() -> scrapeOnPooledConnection(scrape, ctx.scalars)));
+                }
+            }
+            for (Future<SliceResult> f : futures) {
+                try {
+                    SliceResult r = deadline == 0 ? f.get() : f.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    ctx.merge(r.slice());
+                    ok &= r.ok();
+                } catch (TimeoutException e) {
+                    f.cancel(true);
+                    timedOut++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Parallel scrape interrupted", e);
+                } catch (ExecutionException e) {
+                    log.error("Scrape task failed: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage(), e.getCause());
+                    ok = false;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return withinDeadline("interrupted_methods", timedOut) && ok;
+    }
+
+    private SliceResult scrapeOnPooledConnection(BoundScrape scrape, Map<String, Long> scalars) throws SQLException {
+        Connection c = pool.borrow();
+        try (Statement stmt = createStatement(c)) {
+            ScrapeContext slice = new ScrapeContext(stmt, scalars);
+            boolean ok = runScrape(scrape, slice);
+            return new SliceResult(slice, ok);
+        } finally {
+            pool.release(c);
+        }
     }
 
-    @ScrapeMetric("instance_working_time_seconds")
+    /**
+     * Runs one scrape method into its slice, updating its circuit breaker and the slow-tier cache. Returns false
+     * on failure; schema mismatches (missing table, view or column) of catchSchemaError methods are logged and
+     * counted neither as scrape failure nor by the breaker (an unsupported view is not an outage to back off from).
+     * Any other error of those methods, e.g. a dropped connection or a cancelled query, is a failure.
+     * Runtime exceptions from a method are failures of that method only.
+     */
+    private boolean runScrape(BoundScrape scrape, ScrapeContext slice) {
+        long start = System.nanoTime();
+        long allocated = ScrapeStats.allocatedBytes();
+        try {
+            scrape.invoker.scrape(this, slice);
+            stats.record(scrape.primaryKey, start, allocated, slice.samples(), null);
+            scrape.failedLast = false;
+            if (scrape.breaker != null) scrape.breaker.recordSuccess();
+            cacheSlice(scrape, slice);
+            return true;
+        } catch (SQLException e) {
+            stats.record(scrape.primaryKey, start, allocated, slice.samples(), e);
+            scrape.failedLast = true;
+            if (scrape.catchSchemaError && SchemaProbe.isSchemaMismatch(e) && !transientFailure(e)) {
+                log.warn("{} scrape skipped (schema may differ across Altibase versions): {}", scrape.name, e.getMessage());
+                return true;
+            }
+            if (scrape.breaker != null) scrape.breaker.recordFailure(System.nanoTime());
+            log.error("{} scrape failed: {}", scrape.name, e.getMessage(), e);
+            return false;
+        } catch (RuntimeException e) {
+            stats.record(scrape.primaryKey, start, allocated, slice.samples(), e);
+            scrape.failedLast = true;
+            if (scrape.breaker != null) scrape.breaker.recordFailure(System.nanoTime());
+            log.error("{} scrape failed: {}", scrape.name, e.toString(), e);
+            return false;
+        }
+    }
+
+    private static final String SQL_WORKING_TIME = "SELECT WORKING_TIME_SEC FROM V$INSTANCE";
+
+    @ScrapeMetric(value = "instance_working_time_seconds", scalars = SQL_WORKING_TIME)
     private void scrapeInstanceWorkingTime(ScrapeContext ctx) throws SQLException {
-        long workingTime = queryLong(ctx, "SELECT WORKING_TIME_SEC FROM V$INSTANCE");
+        long workingTime = queryLong(ctx, SQL_WORKING_TIME);
         ctx.addGauge("instance_working_time_seconds", workingTime);
     }
 
@@ -193,18 +1009,24 @@ public final class AltibaseCollector implements MultiCollector {
         }
     }
 
-    @ScrapeMetric("sessions")
+    private static final String SQL_SESSIONS_TOTAL = "SELECT COUNT(*) FROM V$SESSION";
+    private static final String SQL_SESSIONS_ACTIVE = "SELECT COUNT(*) FROM V$SESSION WHERE ACTIVE_FLAG = 1";
+
+    @ScrapeMetric(value = "sessions", scalars = {SQL_SESSIONS_TOTAL, SQL_SESSIONS_ACTIVE})
     private void scrapeSessions(ScrapeContext ctx) throws SQLException {
-        long totalSessions = queryLong(ctx, "SELECT COUNT(*) FROM V$SESSION");
-        long activeSessions = queryLong(ctx, "SELECT COUNT(*) FROM V$SESSION WHERE ACTIVE_FLAG = 1");
+        long totalSessions = queryLong(ctx, SQL_SESSIONS_TOTAL);
+        long activeSessions = queryLong(ctx, SQL_SESSIONS_ACTIVE);
         ctx.addGauge("sessions", Labels.of("status", "total"), totalSessions);
         ctx.addGauge("sessions", Labels.of("status", "active"), activeSessions);
     }
 
-    @ScrapeMetric("statements")
+    private static final String SQL_STATEMENTS_TOTAL = "SELECT COUNT(*) FROM V$STATEMENT";
+    private static final String SQL_STATEMENTS_ACTIVE = "SELECT COUNT(*) FROM V$STATEMENT WHERE EXECUTE_FLAG = 1";
+
+    @ScrapeMetric(value = "statements", scalars = {SQL_STATEMENTS_TOTAL, SQL_STATEMENTS_ACTIVE})
     private void scrapeStatements(ScrapeContext ctx) throws SQLException {
-        long totalStatements = queryLong(ctx, "SELECT COUNT(*) FROM V$STATEMENT");
-        long activeStatements = queryLong(ctx, "SELECT COUNT(*) FROM V$STATEMENT WHERE EXECUTE_FLAG = 1");
+        long totalStatements = queryLong(ctx, SQL_STATEMENTS_TOTAL);
+        long activeStatements = queryLong(ctx, SQL_STATEMENTS_ACTIVE);
         ctx.addGauge("statements", Labels.of("status", "total"), totalStatements);
         ctx.addGauge("statements", Labels.of("status", "active"), activeStatements);
     }
@@ -260,7 +1082,7 @@ public final class AltibaseCollector implements MultiCollector {
         try (ResultSet rs = ctx.statement().executeQuery("SELECT HIT_RATIO, VICTIM_FAILS FROM V$BUFFPOOL_STAT")) {
             if (rs.next()) {
                 if (!isDisabled("buffer_pool_hit_ratio")) ctx.addGauge("buffer_pool_hit_ratio", rs.getDouble(1));
-                if (!isDisabled("buffer_pool_victim_fails")) ctx.addGauge("buffer_pool_victim_fails", rs.getDouble(2));
+                if (!isDisabled("buffer_pool_victim_fails")) ctx.addCumulative("buffer_pool_victim_fails", Labels.EMPTY, rs.getDouble(2));
             }
         }
     }
@@ -277,21 +1099,27 @@ public final class AltibaseCollector implements MultiCollector {
         }
     }
 
-    @ScrapeMetric("lf_prepare_wait_count")
+    private static final String SQL_LF_PREPARE_WAIT = "SELECT LF_PREPARE_WAIT_COUNT FROM V$LFG";
+
+    @ScrapeMetric(value = "lf_prepare_wait_count", scalars = SQL_LF_PREPARE_WAIT)
     private void scrapeLfPrepareWait(ScrapeContext ctx) throws SQLException {
-        long lfPrepareWait = queryLong(ctx, "SELECT LF_PREPARE_WAIT_COUNT FROM V$LFG");
+        long lfPrepareWait = queryLong(ctx, SQL_LF_PREPARE_WAIT);
         ctx.addGauge("lf_prepare_wait_count", lfPrepareWait);
     }
 
-    @ScrapeMetric("replication_sender_count")
+    private static final String SQL_REP_SENDER_COUNT = "SELECT COUNT(*) FROM V$REPSENDER";
+
+    @ScrapeMetric(value = "replication_sender_count", scalars = SQL_REP_SENDER_COUNT)
     private void scrapeReplicationSenderCount(ScrapeContext ctx) throws SQLException {
-        long repSender = queryLong(ctx, "SELECT COUNT(*) FROM V$REPSENDER");
+        long repSender = queryLong(ctx, SQL_REP_SENDER_COUNT);
         ctx.addGauge("replication_sender_count", repSender);
     }
 
-    @ScrapeMetric("replication_receiver_count")
+    private static final String SQL_REP_RECEIVER_COUNT = "SELECT COUNT(*) FROM V$REPRECEIVER";
+
+    @ScrapeMetric(value = "replication_receiver_count", scalars = SQL_REP_RECEIVER_COUNT)
     private void scrapeReplicationReceiverCount(ScrapeContext ctx) throws SQLException {
-        long repReceiver = queryLong(ctx, "SELECT COUNT(*) FROM V$REPRECEIVER");
+        long repReceiver = queryLong(ctx, SQL_REP_RECEIVER_COUNT);
         ctx.addGauge("replication_receiver_count", repReceiver);
     }
 
@@ -301,44 +1129,16 @@ public final class AltibaseCollector implements MultiCollector {
         scrapeReplicationReceiver(ctx);
     }
 
-    /** One query to V$REPSENDER: peer + XSN/COMMIT_XSN/NET_ERROR_FLAG when columns exist; fallback to peer-only. */
+    /** One query to V$REPSENDER in the probed variant: peer + XSN/COMMIT_XSN/NET_ERROR_FLAG when columns exist. */
     private void scrapeReplicationSender(ScrapeContext ctx) throws SQLException {
-        String fullPeer = "SELECT REP_NAME, PEER_IP, PEER_PORT, STATUS, REPL_MODE, XSN, COMMIT_XSN, NET_ERROR_FLAG FROM V$REPSENDER";
-        String fullRemote = "SELECT REP_NAME, REMOTE_IP, REMOTE_REP_PORT, STATUS, REPL_MODE, XSN, COMMIT_XSN, NET_ERROR_FLAG FROM V$REPSENDER";
-        try (ResultSet rs = ctx.statement().executeQuery(fullPeer)) {
-            while (rs.next()) addReplicationSenderRowWithDetail(ctx, rs);
-            return;
-        } catch (SQLException e) {
-            if (!isColumnNotFound(e)) throw e;
-        }
-        try (ResultSet rs = ctx.statement().executeQuery(fullRemote)) {
-            while (rs.next()) addReplicationSenderRowWithDetail(ctx, rs);
-            return;
-        } catch (SQLException e) {
-            if (!isColumnNotFound(e)) throw e;
-        }
-        String peerOnly = "SELECT REP_NAME, PEER_IP, PEER_PORT, STATUS, REPL_MODE FROM V$REPSENDER";
-        String remoteOnly = "SELECT REP_NAME, REMOTE_IP, REMOTE_REP_PORT, STATUS, REPL_MODE FROM V$REPSENDER";
-        String peerNoMode = "SELECT REP_NAME, PEER_IP, PEER_PORT, STATUS FROM V$REPSENDER";
-        String remoteNoMode = "SELECT REP_NAME, REMOTE_IP, REMOTE_REP_PORT, STATUS FROM V$REPSENDER";
-        try (ResultSet rs = ctx.statement().executeQuery(peerOnly)) {
-            while (rs.next()) addReplicationPeerRow(ctx, rs, "sender", "master", true, true);
-            return;
-        } catch (SQLException e) {
-            if (!isColumnNotFound(e)) throw e;
-        }
-        try (ResultSet rs = ctx.statement().executeQuery(remoteOnly)) {
-            while (rs.next()) addReplicationPeerRow(ctx, rs, "sender", "master", true, true);
-            return;
-        } catch (SQLException e) {
-            if (!isColumnNotFound(e)) throw e;
-        }
-        try (ResultSet rs = ctx.statement().executeQuery(peerNoMode)) {
-            while (rs.next()) addReplicationPeerRow(ctx, rs, "sender", "master", true, false);
-        } catch (SQLException e) {
-            if (!isColumnNotFound(e)) throw e;
-            try (ResultSet rs = ctx.statement().executeQuery(remoteNoMode)) {
-                while (rs.next()) addReplicationPeerRow(ctx, rs, "sender", "master", true, false);
+        SchemaProbe.Variant v = variant(SchemaProbe.REPLICATION_SENDER);
+        if (v == null) return;
+        boolean detail = v.name().endsWith("_detail");
+        boolean hasMode = !v.name().endsWith("_no_mode");
+        try (ResultSet rs = ctx.statement().executeQuery(v.sql())) {
+            while (rs.next()) {
+                if (detail) addReplicationSenderRowWithDetail(ctx, rs);
+                else addReplicationPeerRow(ctx, rs, "sender", "master", true, hasMode);
             }
         }
     }
@@ -359,15 +1159,10 @@ public final class AltibaseCollector implements MultiCollector {
     }
 
     private void scrapeReplicationReceiver(ScrapeContext ctx) throws SQLException {
-        String receiverSqlRemote = "SELECT REP_NAME, REMOTE_IP, REMOTE_REP_PORT FROM V$REPRECEIVER";
-        String receiverSqlPeer = "SELECT REP_NAME, PEER_IP, PEER_PORT FROM V$REPRECEIVER";
-        try (ResultSet rs = ctx.statement().executeQuery(receiverSqlRemote)) {
+        SchemaProbe.Variant v = variant(SchemaProbe.REPLICATION_RECEIVER);
+        if (v == null) return;
+        try (ResultSet rs = ctx.statement().executeQuery(v.sql())) {
             while (rs.next()) addReplicationPeerRow(ctx, rs, "receiver", "slave", false, false);
-        } catch (SQLException e) {
-            if (!isColumnNotFound(e)) throw e;
-            try (ResultSet rs = ctx.statement().executeQuery(receiverSqlPeer)) {
-                while (rs.next()) addReplicationPeerRow(ctx, rs, "receiver", "slave", false, false);
-            }
         }
     }
 
@@ -384,11 +1179,6 @@ public final class AltibaseCollector implements MultiCollector {
             ctx.addGauge("replication_peer", Labels.of("replication", repName, "role", role, "instance_role", instanceRole, "status", status, "mode", mode, "peer", peer), 1);
     }
 
-    private static boolean isColumnNotFound(SQLException e) {
-        String msg = e.getMessage();
-        return msg != null && (msg.contains("Column not found") || msg.contains("column not found"));
-    }
-
     /** Maps V$REPSENDER.STATUS: 0=STOP, 1=RUN, 2=RETRY. */
     private static String senderStatusLabel(int status) {
         return switch (status) {
@@ -407,15 +1197,19 @@ public final class AltibaseCollector implements MultiCollector {
         return h + ":" + p;
     }
 
-    @ScrapeMetric("memory_table_usage_bytes")
+    private static final String SQL_MEMORY_TABLE_USAGE = "SELECT SUM(FIXED_ALLOC_MEM) + SUM(VAR_ALLOC_MEM) FROM V$MEMTBL_INFO";
+
+    @ScrapeMetric(value = "memory_table_usage_bytes", scalars = SQL_MEMORY_TABLE_USAGE)
     private void scrapeMemoryTableUsage(ScrapeContext ctx) throws SQLException {
-        long memTbl = queryLong(ctx, "SELECT SUM(FIXED_ALLOC_MEM) + SUM(VAR_ALLOC_MEM) FROM V$MEMTBL_INFO");
+        long memTbl = queryLong(ctx, SQL_MEMORY_TABLE_USAGE);
         ctx.addGauge("memory_table_usage_bytes", memTbl);
     }
 
-    @ScrapeMetric("disk_table_usage_bytes")
+    private static final String SQL_DISK_TABLE_USAGE = "SELECT SUM(DISK_TOTAL_PAGE_CNT * 8192) FROM V$DISKTBL_INFO";
+
+    @ScrapeMetric(value = "disk_table_usage_bytes", scalars = SQL_DISK_TABLE_USAGE)
     private void scrapeDiskTableUsage(ScrapeContext ctx) throws SQLException {
-        long diskTbl = queryLong(ctx, "SELECT SUM(DISK_TOTAL_PAGE_CNT * 8192) FROM V$DISKTBL_INFO");
+        long diskTbl = queryLong(ctx, SQL_DISK_TABLE_USAGE);
         ctx.addGauge("disk_table_usage_bytes", diskTbl);
     }
 
@@ -425,13 +1219,20 @@ public final class AltibaseCollector implements MultiCollector {
             if (rs.next()) {
                 String v = rs.getString(1);
                 lastVersion = v != null && !v.isEmpty() ? v.trim() : "unknown";
+                SchemaProbe.Capabilities caps = capabilities;
+                if (caps != null && !caps.version().equals(lastVersion)) {
+                    log.info("Server version changed, re-probing schema capabilities: from={} to={}", caps.version(), lastVersion);
+                    capabilities = null;
+                }
             }
         }
     }
 
-    @ScrapeMetric("archive_mode")
+    private static final String SQL_ARCHIVE_MODE = "SELECT ARCHIVE_MODE FROM V$ARCHIVE";
+
+    @ScrapeMetric(value = "archive_mode", scalars = SQL_ARCHIVE_MODE)
     private void scrapeArchiveMode(ScrapeContext ctx) throws SQLException {
-        long mode = queryLong(ctx, "SELECT ARCHIVE_MODE FROM V$ARCHIVE");
+        long mode = queryLong(ctx, SQL_ARCHIVE_MODE);
         ctx.addGauge("archive_mode", mode);
     }
 
@@ -509,7 +1310,7 @@ public final class AltibaseCollector implements MultiCollector {
             while (rs.next()) {
                 String name = rs.getString(1);
                 long val = rs.getLong(2);
-                if (name != null) ctx.addGauge("file_io_reads", Labels.of("file_name", name), val);
+                if (name != null) ctx.addCumulative("file_io_reads", Labels.of("file_name", name), val);
             }
         }
     }
@@ -521,7 +1322,7 @@ public final class AltibaseCollector implements MultiCollector {
             while (rs.next()) {
                 String name = rs.getString(1);
                 long val = rs.getLong(2);
-                if (name != null) ctx.addGauge("file_io_writes", Labels.of("file_name", name), val);
+                if (name != null) ctx.addCumulative("file_io_writes", Labels.of("file_name", name), val);
             }
         }
     }
@@ -545,7 +1346,7 @@ public final class AltibaseCollector implements MultiCollector {
             while (rs.next()) {
                 String name = rs.getString(1);
                 long timeWaited = rs.getLong(2);
-                if (name != null) ctx.addGauge("system_event_time_waited_seconds", Labels.of("event", name), timeWaited / 1e6);
+                if (name != null) ctx.addCumulative("system_event_time_waited_seconds", Labels.of("event", name), timeWaited / 1e6);
             }
         }
     }
@@ -671,7 +1472,7 @@ public final class AltibaseCollector implements MultiCollector {
         }
     }
 
-    @ScrapeMetric(value = "index_metadata", catchSchemaError = true)
+    @ScrapeMetric(value = "index_metadata", catchSchemaError = true, intervalSeconds = CATALOG_INTERVAL_SECONDS)
     private void scrapeIndexMetadata(ScrapeContext ctx) throws SQLException {
         String sql = """
             SELECT A.USER_NAME, B.TABLE_NAME, C.INDEX_NAME, C.INDEX_ID, NVL(D.NAME, 'SYS_TBS_MEMORY') AS TBS_NAME, C.IS_UNIQUE, C.COLUMN_CNT \
@@ -700,7 +1501,7 @@ public final class AltibaseCollector implements MultiCollector {
         return o != null ? o.toString().trim() : "";
     }
 
-    @ScrapeMetric(value = "index_information_mem", catchSchemaError = true)
+    @ScrapeMetric(value = "index_information_mem", catchSchemaError = true, intervalSeconds = CATALOG_INTERVAL_SECONDS)
     private void scrapeIndexInformationMem(ScrapeContext ctx) throws SQLException {
         String sql = """
             SELECT C.USER_NAME, DECODE(F.TABLE_TYPE, 'Q', 'QUEUE', 'T', 'TABLE') AS OBJECT_TYPE, F.TABLE_NAME AS OBJECT_NAME, D.SPACE_NAME AS TABLESPACE_NAME, E.INDEX_NAME, DECODE(E.INDEX_TYPE, 1, 'B-TREE', 'R-TREE') AS INDEX_TYPE \
@@ -774,36 +1575,17 @@ public final class AltibaseCollector implements MultiCollector {
 
     @ScrapeMetric(value = "tx_of_memory_view_scn", catchSchemaError = true)
     private void scrapeTxOfMemoryViewScn(ScrapeContext ctx) throws SQLException {
-        String fullSql = """
-            SELECT ST.SESSION_ID, TX.ID AS TX_ID, ST.TOTAL_TIME, ST.EXECUTE_TIME, SUBSTR(ST.QUERY, 1, 50) FROM V$STATEMENT ST, V$TRANSACTION TX \
-            WHERE ST.TX_ID = TX.ID AND TX.ID IN (SELECT T.ID FROM V$TRANSACTION T, (SELECT MINMEMSCNINTXS AS SCN_VAL FROM V$MEMGC LIMIT 1) GC \
-            WHERE T.MEMORY_VIEW_SCN = GC.SCN_VAL OR T.MIN_MEMORY_LOB_VIEW_SCN = GC.SCN_VAL) AND ST.SESSION_ID != SESSION_ID() AND TX.SESSION_ID <> SESSION_ID() ORDER BY ST.TOTAL_TIME DESC LIMIT 1
-            """;
-        String fallbackSql = """
-            SELECT ST.SESSION_ID, TX.ID AS TX_ID, ST.TOTAL_TIME, ST.EXECUTE_TIME, SUBSTR(ST.QUERY, 1, 50) FROM V$STATEMENT ST, V$TRANSACTION TX \
-            WHERE ST.TX_ID = TX.ID AND ST.SESSION_ID != SESSION_ID() AND TX.SESSION_ID <> SESSION_ID() ORDER BY ST.TOTAL_TIME DESC LIMIT 1
-            """;
-        String sql = fullSql;
-        for (int attempt = 0; attempt < 2; attempt++) {
-            try (ResultSet rs = ctx.statement().executeQuery(sql)) {
-                if (rs.next()) {
-                    long sessionId = rs.getLong(1);
-                    long txId = rs.getLong(2);
-                    long totalTimeUs = rs.getLong(3);
-                    long executeTimeUs = rs.getLong(4);
-                    String query = nullToEmpty(rs.getString(5));
-                    ctx.addGauge("tx_of_memory_view_scn", Labels.of("session_id", String.valueOf(sessionId), "tx_id", String.valueOf(txId), "total_time_seconds", String.valueOf(totalTimeUs / 1e6), "execute_time_seconds", String.valueOf(executeTimeUs / 1e6), "query", query), 1);
-                } else {
-                    ctx.addGauge("tx_of_memory_view_scn", Labels.of("session_id", "0", "tx_id", "0", "total_time_seconds", "0", "execute_time_seconds", "0", "query", "none"), 0);
-                }
-                return;
-            } catch (SQLException e) {
-                if (attempt == 0 && e.getMessage() != null && e.getMessage().contains("Column not found")) {
-                    log.debug("tx_of_memory_view_scn: full query not supported (V$ schema may differ across Altibase versions), using fallback");
-                    sql = fallbackSql;
-                } else {
-                    throw e;
-                }
+        SchemaProbe.Variant v = variant(SchemaProbe.TX_MEMORY_VIEW_SCN);
+        try (ResultSet rs = ctx.statement().executeQuery(v.sql())) {
+            if (rs.next()) {
+                long sessionId = rs.getLong(1);
+                long txId = rs.getLong(2);
+                long totalTimeUs = rs.getLong(3);
+                long executeTimeUs = rs.getLong(4);
+                String query = nullToEmpty(rs.getString(5));
+                ctx.addGauge("tx_of_memory_view_scn", Labels.of("session_id", String.valueOf(sessionId), "tx_id", String.valueOf(txId), "total_time_seconds", String.valueOf(totalTimeUs / 1e6), "execute_time_seconds", String.valueOf(executeTimeUs / 1e6), "query", query), 1);
+            } else {
+                ctx.addGauge("tx_of_memory_view_scn", Labels.of("session_id", "0", "tx_id", "0", "total_time_seconds", "0", "execute_time_seconds", "0", "query", "none"), 0);
             }
         }
     }
@@ -930,9 +1712,11 @@ public final class AltibaseCollector implements MultiCollector {
         }
     }
 
-    @ScrapeMetric("long_run_query_count")
+    private static final String SQL_LONG_RUN_COUNT = "SELECT COUNT(*) FROM V$STATEMENT WHERE EXECUTE_FLAG = 1 AND EXECUTE_TIME/1000000 > 1";
+
+    @ScrapeMetric(value = "long_run_query_count", scalars = SQL_LONG_RUN_COUNT)
     private void scrapeLongRunQueryCount(ScrapeContext ctx) throws SQLException {
-        long longRun = queryLong(ctx, "SELECT COUNT(*) FROM V$STATEMENT WHERE EXECUTE_FLAG = 1 AND EXECUTE_TIME/1000000 > 1");
+        long longRun = queryLong(ctx, SQL_LONG_RUN_COUNT);
         ctx.addGauge("long_run_query_count", longRun);
     }
 
@@ -974,7 +1758,7 @@ public final class AltibaseCollector implements MultiCollector {
         }
     }
 
-    @ScrapeMetric(value = {"job_state", "job_exec_count", "job_error_code", "job_interval"}, catchSchemaError = true)
+    @ScrapeMetric(value = {"job_state", "job_exec_count", "job_error_code", "job_interval"}, catchSchemaError = true, intervalSeconds = 60)
     private void scrapeJobs(ScrapeContext ctx) throws SQLException {
         String sql = "SELECT JOB_NAME, STATE, EXEC_COUNT, ERROR_CODE, INTERVAL FROM SYSTEM_.SYS_JOBS_";
         try (ResultSet rs = ctx.statement().executeQuery(sql)) {
@@ -1018,7 +1802,7 @@ public final class AltibaseCollector implements MultiCollector {
         }
     }
 
-    @ScrapeMetric(value = "replication_item", catchSchemaError = true)
+    @ScrapeMetric(value = "replication_item", catchSchemaError = true, intervalSeconds = CATALOG_INTERVAL_SECONDS)
     private void scrapeReplicationItems(ScrapeContext ctx) throws SQLException {
         String sql = "SELECT REPLICATION_NAME, LOCAL_USER_NAME, LOCAL_TABLE_NAME FROM SYSTEM_.SYS_REPL_ITEMS_";
         try (ResultSet rs = ctx.statement().executeQuery(sql)) {
@@ -1031,7 +1815,7 @@ public final class AltibaseCollector implements MultiCollector {
         }
     }
 
-    @ScrapeMetric(value = {"user_password_life_time", "user_password_lock_time", "user_failed_login_attempts"}, catchSchemaError = true)
+    @ScrapeMetric(value = {"user_password_life_time", "user_password_lock_time", "user_failed_login_attempts"}, catchSchemaError = true, intervalSeconds = CATALOG_INTERVAL_SECONDS)
     private void scrapeUserPasswordPolicy(ScrapeContext ctx) throws SQLException {
         String sql = "SELECT USER_NAME, PASSWORD_LIFE_TIME, PASSWORD_LOCK_TIME, FAILED_LOGIN_ATTEMPTS FROM SYSTEM_.SYS_USERS_";
         try (ResultSet rs = ctx.statement().executeQuery(sql)) {
@@ -1068,12 +1852,12 @@ public final class AltibaseCollector implements MultiCollector {
             while (rs.next()) {
                 String name = rs.getString(1);
                 long val = rs.getLong(2);
-                if (name != null) ctx.addGauge("sysstat", Labels.of("name", name), val);
+                if (name != null) ctx.addCumulative("sysstat", Labels.of("name", name), val);
             }
         }
     }
 
-    @ScrapeMetric(value = "property", catchSchemaError = true)
+    @ScrapeMetric(value = "property", catchSchemaError = true, intervalSeconds = CATALOG_INTERVAL_SECONDS)
     private void scrapeProperty(ScrapeContext ctx) throws SQLException {
         try (ResultSet rs = ctx.statement().executeQuery("SELECT NAME, VALUE1 FROM V$PROPERTY")) {
             while (rs.next()) {
@@ -1085,7 +1869,10 @@ public final class AltibaseCollector implements MultiCollector {
         }
     }
 
+    /** Single-value query; served from the fused scalar prefetch when the SQL was one of its members. */
     private long queryLong(ScrapeContext ctx, String sql) throws SQLException {
+        Long prefetched = ctx.scalar(sql);
+        if (prefetched != null) return prefetched;
         try (ResultSet rs = ctx.statement().executeQuery(sql)) {
             return rs.next() ? rs.getLong(1) : 0;
         }
@@ -1098,36 +1885,21 @@ public final class AltibaseCollector implements MultiCollector {
         Map<String, Long> minBySeq = new HashMap<>();
         Map<String, Integer> cycleBySeq = new HashMap<>();
         Map<String, Long> cacheBySeq = new HashMap<>();
-        try (ResultSet rs = ctx.statement().executeQuery(
-                "SELECT USER_NAME, SEQUENCE_NAME, MIN_VALUE, MAX_VALUE, CYCLE, CACHE_SIZE FROM SYSTEM_.SYS_SEQUENCES_")) {
-            while (rs.next()) {
-                String user = nullToEmpty(rs.getString(1)).trim();
-                String seq = nullToEmpty(rs.getString(2)).trim();
-                if (user.isEmpty() || seq.isEmpty()) continue;
-                String key = user + "." + seq;
-                try { minBySeq.put(key, rs.getLong(3)); } catch (SQLException ignored) { }
-                long maxVal = rs.getLong(4);
-                if (maxVal > 0) maxBySeq.put(key, maxVal);
-                try {
-                    Object c = rs.getObject(5);
-                    int cycle = 0;
-                    if (c instanceof Number) cycle = ((Number) c).intValue() != 0 ? 1 : 0;
-                    else if (c != null) cycle = "Y".equalsIgnoreCase(String.valueOf(c).trim()) ? 1 : 0;
-                    cycleBySeq.put(key, cycle);
-                } catch (SQLException ignored) { }
-                try {
-                    long cacheSize = rs.getLong(6);
-                    if (!rs.wasNull()) cacheBySeq.put(key, cacheSize);
-                } catch (SQLException ignored) { }
-            }
-        } catch (SQLException e) {
-            try (ResultSet rs = ctx.statement().executeQuery(
-                    "SELECT USER_NAME, SEQUENCE_NAME, MIN_VALUE, MAX_VALUE, CYCLE FROM SYSTEM_.SYS_SEQUENCES_")) {
+        SchemaProbe.Variant v = variant(SchemaProbe.SEQUENCES);
+        if (v != null) {
+            boolean maxOnly = v.name().equals("max_only");
+            boolean hasCache = v.name().equals("full");
+            try (ResultSet rs = ctx.statement().executeQuery(v.sql())) {
                 while (rs.next()) {
                     String user = nullToEmpty(rs.getString(1)).trim();
                     String seq = nullToEmpty(rs.getString(2)).trim();
                     if (user.isEmpty() || seq.isEmpty()) continue;
                     String key = user + "." + seq;
+                    if (maxOnly) {
+                        long maxVal = rs.getLong(3);
+                        if (maxVal > 0) maxBySeq.put(key, maxVal);
+                        continue;
+                    }
                     try { minBySeq.put(key, rs.getLong(3)); } catch (SQLException ignored) { }
                     long maxVal = rs.getLong(4);
                     if (maxVal > 0) maxBySeq.put(key, maxVal);
@@ -1138,59 +1910,95 @@ public final class AltibaseCollector implements MultiCollector {
                         else if (c != null) cycle = "Y".equalsIgnoreCase(String.valueOf(c).trim()) ? 1 : 0;
                         cycleBySeq.put(key, cycle);
                     } catch (SQLException ignored) { }
-                }
-            } catch (SQLException e2) {
-                try (ResultSet rs = ctx.statement().executeQuery(
-                        "SELECT USER_NAME, SEQUENCE_NAME, MAX_VALUE FROM SYSTEM_.SYS_SEQUENCES_")) {
-                    while (rs.next()) {
-                        String user = nullToEmpty(rs.getString(1)).trim();
-                        String seq = nullToEmpty(rs.getString(2)).trim();
-                        if (user.isEmpty() || seq.isEmpty()) continue;
-                        long maxVal = rs.getLong(3);
-                        if (maxVal > 0) maxBySeq.put(user + "." + seq, maxVal);
+                    if (hasCache) {
+                        try {
+                            long cacheSize = rs.getLong(6);
+                            if (!rs.wasNull()) cacheBySeq.put(key, cacheSize);
+                        } catch (SQLException ignored) { }
                     }
-                } catch (SQLException e3) {
-                    log.debug("SYS_SEQUENCES_ not available or different schema: {}", e.getMessage());
                 }
+            } catch (SQLException e) {
+                log.debug("SYS_SEQUENCES_ not available or different schema: {}", e.getMessage());
             }
         }
         // Altibase standard: sequence sync tables in replication are named SEQUENCE_NAME$SEQ (SYS_REPL_ITEMS_.LOCAL_TABLE_NAME)
         String sql = "SELECT LOCAL_USER_NAME, LOCAL_TABLE_NAME FROM SYSTEM_.SYS_REPL_ITEMS_ WHERE UPPER(LOCAL_TABLE_NAME) LIKE '%$SEQ%'";
+        List<String[]> tables = new ArrayList<>();
         try (ResultSet rs = ctx.statement().executeQuery(sql)) {
-            int count = 0;
-            final int maxSequences = 100;
-            while (rs.next() && count < maxSequences) {
+            while (rs.next()) {
                 String schema = nullToEmpty(rs.getString(1)).trim();
                 String tableName = nullToEmpty(rs.getString(2)).trim();
-                if (schema.isEmpty() || tableName.isEmpty()) continue;
-                long current;
-                try {
-                    String q = "SELECT LAST_SYNC_SEQ FROM \"" + schema.replace("\"", "\"\"") + "\".\"" + tableName.replace("\"", "\"\"") + "\"";
-                    try (ResultSet inner = ctx.statement().executeQuery(q)) {
-                        current = inner.next() ? inner.getLong(1) : 0;
-                    }
-                } catch (SQLException e) {
-                    log.trace("Sequence {}.\"{}\": {}", schema, tableName, e.getMessage());
-                    continue;
-                }
+                if (!schema.isEmpty() && !tableName.isEmpty()) tables.add(new String[]{schema, tableName});
+            }
+        }
+        int count = 0;
+        for (int from = 0; from < tables.size() && count < sequenceMax; ) {
+            List<String[]> batch = tables.subList(from, Math.min(tables.size(), from + Math.min(sequenceBatchSize, sequenceMax - count)));
+            from += batch.size();
+            Long[] current = lastSyncSeqs(ctx, batch);
+            for (int i = 0; i < batch.size() && count < sequenceMax; i++) {
+                if (current[i] == null) continue;
                 count++;
-                String baseName = tableName.replaceAll("\\$[sS][eE][qQ]$", "");
-                Labels labels = Labels.of("schema", schema, "sequence", baseName);
-                ctx.addGauge("sequence_current_value", labels, current);
-                String key = schema + "." + baseName;
-                Long maxVal = maxBySeq.get(key);
-                Long minVal = minBySeq.get(key);
-                Integer cycle = cycleBySeq.get(key);
-                if (maxVal != null && maxVal > 0) {
-                    double ratio = Math.min(1.0, (double) current / maxVal);
-                    ctx.addGauge("sequence_usage_ratio", labels, ratio);
+                addSequenceUsage(ctx, batch.get(i)[0], batch.get(i)[1], current[i], maxBySeq, minBySeq, cycleBySeq, cacheBySeq);
+            }
+        }
+    }
+
+    private static String sequenceTable(String[] table) {
+        return "\"" + table[0].replace("\"", "\"\"") + "\".\"" + table[1].replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * LAST_SYNC_SEQ of each $SEQ table in one UNION ALL statement (tagged by position); if the batch fails, falls
+     * back to one query per table so a single unreadable table only drops itself. Null = table unreadable.
+     */
+    private Long[] lastSyncSeqs(ScrapeContext ctx, List<String[]> batch) throws SQLException {
+        Long[] out = new Long[batch.size()];
+        if (batch.size() > 1) {
+            StringBuilder q = new StringBuilder();
+            for (int i = 0; i < batch.size(); i++) {
+                if (i > 0) q.append(" UNION ALL ");
+                q.append("SELECT ").append(i).append(", LAST_SYNC_SEQ FROM ").append(sequenceTable(batch.get(i)));
+            }
+            try (ResultSet rs = ctx.statement().executeQuery(q.toString())) {
+                while (rs.next()) {
+                    int i = rs.getInt(1);
+                    if (i >= 0 && i < out.length && out[i] == null) out[i] = rs.getLong(2);
                 }
-                if (minVal != null) ctx.addGauge("sequence_min_value", labels, minVal);
-                if (maxVal != null) ctx.addGauge("sequence_max_value", labels, maxVal);
-                if (cycle != null) ctx.addGauge("sequence_cycle", labels, cycle);
-                Long cacheSize = cacheBySeq.get(key);
-                if (cacheSize != null) ctx.addGauge("sequence_cache", labels, cacheSize);
+                for (int i = 0; i < out.length; i++) if (out[i] == null) out[i] = 0L;
+                return out;
+            } catch (SQLException e) {
+                if (e instanceof SQLTimeoutException) throw e;
+                log.debug("Sequence batch of {} failed, querying tables one by one: {}", batch.size(), e.getMessage());
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            try (ResultSet inner = ctx.statement().executeQuery("SELECT LAST_SYNC_SEQ FROM " + sequenceTable(batch.get(i)))) {
+                out[i] = inner.next() ? inner.getLong(1) : 0;
+            } catch (SQLException e) {
+                log.trace("Sequence {}.\"{}\": {}", batch.get(i)[0], batch.get(i)[1], e.getMessage());
             }
         }
+        return out;
+    }
+
+    private static void addSequenceUsage(ScrapeContext ctx, String schema, String tableName, long current, Map<String, Long> maxBySeq,
+                                         Map<String, Long> minBySeq, Map<String, Integer> cycleBySeq, Map<String, Long> cacheBySeq) {
+        String baseName = tableName.replaceAll("\\$[sS][eE][qQ]$", "");
+        Labels labels = Labels.of("schema", schema, "sequence", baseName);
+        ctx.addGauge("sequence_current_value", labels, current);
+        String key = schema + "." + baseName;
+        Long maxVal = maxBySeq.get(key);
+        Long minVal = minBySeq.get(key);
+        Integer cycle = cycleBySeq.get(key);
+        if (maxVal != null && maxVal > 0) {
+            double ratio = Math.min(1.0, (double) current / maxVal);
+            ctx.addGauge("sequence_usage_ratio", labels, ratio);
+        }
+        if (minVal != null) ctx.addGauge("sequence_min_value", labels, minVal);
+        if (maxVal != null) ctx.addGauge("sequence_max_value", labels, maxVal);
+        if (cycle != null) ctx.addGauge("sequence_cycle", labels, cycle);
+        Long cacheSize = cacheBySeq.get(key);
+        if (cacheSize != null) ctx.addGauge("sequence_cache", labels, cacheSize);
     }
 }
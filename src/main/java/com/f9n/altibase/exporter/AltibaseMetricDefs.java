@@ -19,8 +19,20 @@ public final class AltibaseMetricDefs {
     private static final Map<String, String> HELP = Map.ofEntries(
             Map.entry("exporter_build_info", "Exporter build identity (Info)."),
             Map.entry("version", "Altibase server version (Info)."),
+            Map.entry("schema_capability_info", "SQL variant pinned by the startup schema probe per capability (Info); labels capability, variant (none = not available on this server)."),
+            Map.entry("up", "1 if the database connection is valid (isValid before each scrape), 0 while reconnecting in the background."),
             Map.entry("exporter_last_scrape_success", "1 if last scrape succeeded, 0 otherwise."),
+            Map.entry("exporter_reconnects", "Successful reconnects of the main database connection since start."),
+            Map.entry("exporter_counter_resets", "Counter resets of cumulative V$ columns seen by the delta engine (server restart or value decrease)."),
+            Map.entry("exporter_series_dropped", "Series of a per-object metric folded into the 'other' series by the series budget in the last scrape; label metric."),
+            Map.entry("exporter_family_cache_lookups", "Lookups of pre-encoded slow-changing families in streaming mode; label result (hit = spliced without re-encoding, miss)."),
+            Map.entry("exporter_scrapes_coalesced", "Scrape requests that shared the result of a scrape already in flight."),
+            Map.entry("exporter_scrapes_served_stale", "Scrape requests served the last completed result because too many were waiting on the scrape in flight or a streamed scrape was running."),
+            Map.entry("exporter_connect_duration_seconds", "Duration of the latest successful database connect in seconds."),
             Map.entry("scrape_duration_seconds", "Duration of the last scrape in seconds."),
+            Map.entry("exporter_circuit_breaker_open", "1 while the scrape method's circuit breaker is open (method skipped with backoff); label metric (first metric key of the method)."),
+            Map.entry("exporter_scrape_consecutive_failures", "Consecutive failures of a scrape method (resets on success); label metric."),
+            Map.entry("exporter_snapshot_age_seconds", "Age of the served snapshot in seconds (background scrape mode, ALTIBASE_SCRAPE_INTERVAL > 0)."),
             Map.entry("instance_working_time_seconds", "Instance working time (V$INSTANCE)."),
             Map.entry("archive_mode", "Archive mode 0/1 (V$ARCHIVE)."),
             Map.entry("sessions", "Session count; label status: total, active."),
@@ -31,6 +43,7 @@ public final class AltibaseMetricDefs {
             Map.entry("memstat_alloc_bytes", "Sum of ALLOC_SIZE from V$MEMSTAT."),
             Map.entry("buffer_pool_hit_ratio", "Buffer pool hit ratio (V$BUFFPOOL_STAT)."),
             Map.entry("buffer_pool_victim_fails", "Buffer pool victim failures (V$BUFFPOOL_STAT)."),
+            Map.entry("buffer_pool_victim_fails_per_second", "Buffer pool victim failures per second between the last two scrapes."),
             Map.entry("logfile_oldest", "Oldest active logfile number (V$ARCHIVE)."),
             Map.entry("logfile_current", "Current logfile number (V$ARCHIVE)."),
             Map.entry("logfile_gap", "Logfile gap: current oldest (V$ARCHIVE)."),
@@ -56,8 +69,11 @@ public final class AltibaseMetricDefs {
             Map.entry("tablespace_usage_ratio", "Tablespace usage ratio (memory)."),
             Map.entry("file_io_reads", "Cumulative physical reads per file (V$FILESTAT)."),
             Map.entry("file_io_writes", "Cumulative physical writes per file (V$FILESTAT)."),
+            Map.entry("file_io_reads_per_second", "Physical reads per second per file between the last two scrapes."),
+            Map.entry("file_io_writes_per_second", "Physical writes per second per file between the last two scrapes."),
             Map.entry("file_io_wait_seconds", "Avg single-block read wait per file (seconds)."),
             Map.entry("system_event_time_waited_seconds", "System event time waited, non-Idle."),
+            Map.entry("system_event_time_waited_seconds_per_second", "System event seconds waited per second between the last two scrapes, non-Idle."),
             Map.entry("session_event_time_waited_seconds", "Session event time waited, non-Idle."),
             Map.entry("memory_table_usage_bytes_per_table", "Memory table usage per table, top 5."),
             Map.entry("disk_table_usage_bytes_per_table", "Disk table usage per table, top 5."),
@@ -66,6 +82,7 @@ public final class AltibaseMetricDefs {
             Map.entry("segment_usage_bytes", "Segment usage by tablespace."),
             Map.entry("service_thread_count", "Service thread count by type/state/run_mode (V$SERVICE_THREAD)."),
             Map.entry("sysstat", "V$SYSSTAT values."),
+            Map.entry("sysstat_per_second", "V$SYSSTAT increase per second between the last two scrapes."),
             Map.entry("replication_gap", "Replication gap by name (V$REPGAP REP_GAP)."),
             Map.entry("replication_gap_size_bytes", "Replication gap size in bytes by name (V$REPGAP REP_GAP_SIZE)."),
             Map.entry("replication_gap_rep_last_sn", "V$REPGAP REP_LAST_SN (last log SN on source)."),
@@ -0,0 +1,55 @@
+package com.f9n.altibase.exporter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JDK AOT cache training run, shipped in the exporter JAR but never used when serving:
+ * {@code java -XX:AOTCacheOutput=altibase-exporter.aot -cp altibase-exporter.jar com.f9n.altibase.exporter.AotTraining [scrapes]}.
+ * Starts the exporter as {@link Main} does (same environment; {@code WEB_LISTEN_PORT=0} picks a free port) against a
+ * {@link StandInDriver} database, so no server is needed and the connected paths (scrape methods, result set mapping,
+ * encoders) are trained too. Waits up to the connect timeout for the connection, requests every endpoint
+ * {@code scrapes} times (default 5) so the HTTP, scrape and exposition paths are loaded and profiled, then exits,
+ * which is when the JVM writes the cache.
+ */
+public final class AotTraining {
+
+    private static final Logger log = LoggerFactory.getLogger(AotTraining.class);
+    private static final int DEFAULT_SCRAPES = 5;
+
+    private AotTraining() {}
+
+    public static void main(String[] args) throws InterruptedException, SQLException {
+        int scrapes = args.length > 0 ? Integer.parseInt(args[0].trim()) : DEFAULT_SCRAPES;
+        StandInDriver.Database db = StandInDriver.installForExporter();
+        Main.Running exporter = Main.start(new String[0]);
+        ConnectionManager connections = exporter.connections();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(exporter.config().connectTimeoutSeconds());
+        while (connections.current() == null && System.nanoTime() < deadline) Thread.sleep(50);
+        if (connections.current() == null) log.warn("AOT training run not connected to the stand-in database: database={}", db.name);
+        log.info("AOT training run: port={} scrapes={} connected={}", exporter.port(), scrapes, connections.current() != null);
+        for (int i = 0; i < scrapes; i++) {
+            for (String path : List.of(Main.METRICS_PATH, "/", "/-/healthy")) {
+                try {
+                    HttpURLConnection http = (HttpURLConnection) URI.create("http://127.0.0.1:" + exporter.port() + path).toURL().openConnection();
+                    http.setRequestProperty("Accept-Encoding", i % 2 == 0 ? "gzip" : "identity");
+                    try (InputStream in = http.getInputStream()) {
+                        in.transferTo(OutputStream.nullOutputStream());
+                    }
+                } catch (IOException e) {
+                    log.warn("AOT training request failed: path={} error={}", path, e.getMessage());
+                }
+            }
+        }
+        System.exit(0);
+    }
+}
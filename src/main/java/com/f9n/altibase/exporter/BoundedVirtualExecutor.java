@@ -0,0 +1,77 @@
+package com.f9n.altibase.exporter;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every task on its own virtual thread, at most {@code maxInFlight} at a time; further tasks wait (parked on
+ * their virtual thread, not on the submitter) for a permit. Used as the HTTP server's executor, so the dispatcher
+ * never blocks and a burst of scrapers queues instead of piling onto the shared connection.
+ */
+final class BoundedVirtualExecutor extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    /** Null when unlimited. */
+    private final Semaphore permits;
+
+    /** @param maxInFlight tasks running at once; 0 = unlimited */
+    BoundedVirtualExecutor(String name, int maxInFlight) {
+        this.delegate = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        this.permits = maxInFlight > 0 ? new Semaphore(maxInFlight) : null;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (permits == null) {
+            delegate.execute(task);
+            return;
+        }
+        delegate.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /** Tasks waiting for a permit (approximate). */
+    int queued() {
+        return permits == null ? 0 : permits.getQueueLength();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
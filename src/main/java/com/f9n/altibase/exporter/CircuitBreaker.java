@@ -0,0 +1,52 @@
+package com.f9n.altibase.exporter;
+
+/**
+ * Per-scrape-method circuit breaker: after {@code failureThreshold} consecutive failures the method is skipped for a
+ * backoff that doubles with every further failure (capped at {@code maxBackoffNanos}); one trial call is let through
+ * when the backoff expires. Times are {@link System#nanoTime()} values passed in by the caller.
+ */
+final class CircuitBreaker {
+
+    private final int failureThreshold;
+    private final long baseBackoffNanos;
+    private final long maxBackoffNanos;
+    private int consecutiveFailures;
+    private long openUntilNanos;
+    private boolean open;
+
+    CircuitBreaker(int failureThreshold, long baseBackoffNanos, long maxBackoffNanos) {
+        if (failureThreshold < 1) throw new IllegalArgumentException("failureThreshold must be >= 1: " + failureThreshold);
+        this.failureThreshold = failureThreshold;
+        this.baseBackoffNanos = baseBackoffNanos;
+        this.maxBackoffNanos = Math.max(baseBackoffNanos, maxBackoffNanos);
+    }
+
+    /** True if the call may run now: breaker closed, or open but its backoff has expired (trial call). */
+    synchronized boolean allowRequest(long nowNanos) {
+        return !open || nowNanos - openUntilNanos >= 0;
+    }
+
+    synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        open = false;
+    }
+
+    synchronized void recordFailure(long nowNanos) {
+        consecutiveFailures++;
+        if (consecutiveFailures < failureThreshold) return;
+        int doublings = Math.min(consecutiveFailures - failureThreshold, 30);
+        long backoff = Math.min(maxBackoffNanos, baseBackoffNanos << doublings);
+        if (backoff < 0) backoff = maxBackoffNanos;
+        open = true;
+        openUntilNanos = nowNanos + backoff;
+    }
+
+    /** True while calls are being skipped (tripped and backoff not yet expired). */
+    synchronized boolean isOpen(long nowNanos) {
+        return open && nowNanos - openUntilNanos < 0;
+    }
+
+    synchronized int consecutiveFailures() {
+        return consecutiveFailures;
+    }
+}
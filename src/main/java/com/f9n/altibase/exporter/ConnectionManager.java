@@ -0,0 +1,191 @@
+package com.f9n.altibase.exporter;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Owns the main database connection: validates it ({@code isValid}) before each scrape and, when it is missing or
+ * broken, reconnects in the background with jittered exponential backoff. Scrapes never block on connecting;
+ * {@link #acquire()} returns null while the database is unreachable.
+ */
+public final class ConnectionManager implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionManager.class);
+    private static final int VALIDITY_CHECK_TIMEOUT_SEC = 2;
+
+    private final ConnectionPool.ConnectionFactory factory;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    /** Wraps a caller-owned connection: no validation, no reconnect, not closed by {@link #close()}. */
+    private final boolean fixed;
+    private final ScheduledExecutorService executor;
+    private final List<Runnable> reconnectListeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean reconnectScheduled = new AtomicBoolean();
+    private final AtomicLong reconnects = new AtomicLong();
+    /** Held while statements run on the main connection; collectors sharing it never overlap their statements. */
+    private final ReentrantLock statementLock = new ReentrantLock();
+    private volatile Connection current;
+    private volatile double lastConnectSeconds = Double.NaN;
+    private volatile boolean connectedOnce;
+    private volatile boolean closed;
+    private int attempt;
+
+    public ConnectionManager(ConnectionPool.ConnectionFactory factory, int baseBackoffSeconds, int maxBackoffSeconds) {
+        this.factory = factory;
+        this.baseBackoffMillis = Math.max(1, baseBackoffSeconds) * 1000L;
+        this.maxBackoffMillis = Math.max(this.baseBackoffMillis, maxBackoffSeconds * 1000L);
+        this.fixed = false;
+        this.executor = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("altibase-reconnect").factory());
+    }
+
+    private ConnectionManager(Connection conn) {
+        this.factory = null;
+        this.baseBackoffMillis = 0;
+        this.maxBackoffMillis = 0;
+        this.fixed = true;
+        this.executor = null;
+        this.current = conn;
+        this.connectedOnce = true;
+    }
+
+    /** Manager around an already open connection that is never validated or replaced (tests, /probe entries). */
+    public static ConnectionManager fixed(Connection conn) {
+        return new ConnectionManager(conn);
+    }
+
+    /** Starts the first connection attempt in the background; returns immediately. */
+    public void start() {
+        if (fixed) throw new IllegalStateException("fixed connection manager cannot connect");
+        scheduleReconnect(0);
+    }
+
+    /** Runs after every successful reconnect (not the first connect), on the reconnect thread. */
+    public void onReconnect(Runnable listener) {
+        reconnectListeners.add(listener);
+    }
+
+    /**
+     * Returns the connection if it is open and passes {@code isValid}; otherwise drops it, schedules a background
+     * reconnect and returns null (the caller reports the database as down).
+     */
+    public Connection acquire() {
+        Connection c = current;
+        if (c == null || fixed) return c;
+        boolean valid;
+        try {
+            valid = c.isValid(VALIDITY_CHECK_TIMEOUT_SEC);
+        } catch (SQLException e) {
+            valid = false;
+        }
+        if (valid) return c;
+        if (closed) return null;
+        synchronized (this) {
+            if (current != c) return current;
+            current = null;
+        }
+        log.warn("Database connection lost, reconnecting in background");
+        executor.execute(() -> closeQuietly(c));
+        scheduleReconnect(0);
+        return null;
+    }
+
+    /**
+     * Lock to hold from {@link #acquire()} until the statements run on the main connection are closed. The built-in
+     * scrape and the serial custom queries share the connection; this keeps their statements from interleaving.
+     */
+    public ReentrantLock statementLock() {
+        return statementLock;
+    }
+
+    /** Current connection without validation (for collectors running right after {@link #acquire()}); null while down. */
+    public Connection current() {
+        return current;
+    }
+
+    private void scheduleReconnect(long delayMillis) {
+        if (closed || !reconnectScheduled.compareAndSet(false, true)) return;
+        executor.schedule(this::tryConnect, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void tryConnect() {
+        reconnectScheduled.set(false);
+        if (closed || current != null) return;
+        long start = System.nanoTime();
+        Connection c;
+        try {
+            c = factory.open();
+        } catch (SQLException | RuntimeException e) {
+            long delay = nextBackoffMillis();
+            log.warn("Database connect failed, retrying: attempt={} retry_in_ms={} error={}", attempt, delay, e.getMessage());
+            scheduleReconnect(delay);
+            return;
+        }
+        lastConnectSeconds = (System.nanoTime() - start) / 1e9;
+        attempt = 0;
+        if (closed) {
+            closeQuietly(c);
+            return;
+        }
+        current = c;
+        boolean reconnect = connectedOnce;
+        connectedOnce = true;
+        log.info("Database connection established (read-only): duration_seconds={} reconnect={}", String.format("%.3f", lastConnectSeconds), reconnect);
+        if (reconnect) {
+            reconnects.incrementAndGet();
+            for (Runnable listener : reconnectListeners) {
+                try {
+                    listener.run();
+                } catch (RuntimeException e) {
+                    log.warn("Reconnect listener failed: {}", e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /** Exponential backoff from the base, capped at the max, with ±50% jitter so exporters do not reconnect in lockstep. */
+    private long nextBackoffMillis() {
+        int doublings = Math.min(attempt++, 20);
+        long backoff = Math.min(maxBackoffMillis, baseBackoffMillis << doublings);
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff + 1);
+    }
+
+    /** Successful reconnects after the first connect. */
+    public long reconnects() {
+        return reconnects.get();
+    }
+
+    /** Duration of the latest successful connect in seconds; NaN before the first one. */
+    public double lastConnectSeconds() {
+        return lastConnectSeconds;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (fixed) return;
+        executor.shutdownNow();
+        Connection c = current;
+        current = null;
+        if (c != null) closeQuietly(c);
+    }
+
+    private static void closeQuietly(Connection c) {
+        try {
+            c.close();
+        } catch (SQLException e) {
+            log.debug("Connection close failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.f9n.altibase.exporter;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Bounded pool of read-only connections for parallel scrapes; connections are opened lazily on first borrow. */
+public final class ConnectionPool implements AutoCloseable {
+
+    /** Opens one ready-to-use (read-only) connection. */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPool.class);
+    private final ConnectionFactory factory;
+    private final int maxSize;
+    private final Semaphore permits;
+    private final Deque<Connection> idle = new ArrayDeque<>();
+    private volatile boolean closed;
+
+    public ConnectionPool(ConnectionFactory factory, int maxSize) {
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize must be >= 1: " + maxSize);
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /** Blocks until a connection is free (or one may be opened); caller must {@link #release} it. */
+    public Connection borrow() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for pooled connection", e);
+        }
+        Connection c;
+        synchronized (idle) {
+            c = idle.pollFirst();
+        }
+        if (c != null) return c;
+        try {
+            c = factory.open();
+            log.debug("Pooled connection opened: max_size={}", maxSize);
+            return c;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /** Returns a borrowed connection; closed connections (or any after {@link #close}) are discarded. */
+    public void release(Connection c) {
+        if (c == null) return;
+        boolean keep = !closed && !isClosedQuietly(c);
+        if (keep) {
+            synchronized (idle) {
+                idle.addFirst(c);
+            }
+        } else {
+            closeQuietly(c);
+        }
+        permits.release();
+    }
+
+    /** Closes idle connections (e.g. after the database restarted); borrowed ones are dropped on release if closed. */
+    public void evictIdle() {
+        synchronized (idle) {
+            Connection c;
+            while ((c = idle.pollFirst()) != null) closeQuietly(c);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        evictIdle();
+    }
+
+    private static boolean isClosedQuietly(Connection c) {
+        try {
+            return c.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static void closeQuietly(Connection c) {
+        try {
+            c.close();
+        } catch (SQLException e) {
+            log.debug("Pooled connection close failed: {}", e.getMessage());
+        }
+    }
+}
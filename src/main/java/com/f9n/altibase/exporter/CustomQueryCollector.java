@@ -2,33 +2,290 @@ package com.f9n.altibase.exporter;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
 
 import io.prometheus.metrics.model.registry.MultiCollector;
+import io.prometheus.metrics.model.snapshots.ClassicHistogramBuckets;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.Exemplars;
 import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.HistogramSnapshot;
 import io.prometheus.metrics.model.snapshots.Labels;
 import io.prometheus.metrics.model.snapshots.MetricSnapshot;
 import io.prometheus.metrics.model.snapshots.MetricSnapshots;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** MultiCollector that runs custom SQL from config; each row → one gauge data point (labels + value). */
+/**
+ * MultiCollector that runs custom SQL from config; each row → one data point (labels + value) per declared metric,
+ * so one round trip can feed several gauge, counter and histogram families. Queries are compiled once into cached
+ * plans and honor per-query interval, timeout, row cap and parallel settings.
+ */
 public final class CustomQueryCollector implements MultiCollector {
 
     /** Mandatory prefix for all custom query metric names; avoids clash with built-in altibase_* metrics. */
     public static final String CUSTOM_METRIC_PREFIX = "altibase_custom_";
 
     private static final Logger log = LoggerFactory.getLogger(CustomQueryCollector.class);
-    private final Connection conn;
-    private final List<QueryDef> queries;
-    private final List<String> metricNames;
+    private static final String TRUNCATED_NAME = "altibase_exporter_custom_query_truncated";
+    private static final Pattern METRIC_NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+
+    private final ConnectionManager connections;
+    private final ConnectionPool pool;
+    private final int defaultTimeoutSeconds;
+    private final int defaultMaxRows;
+    /** One slot per query, in file order: compiled plans and the cached last result. Replaced as a whole by {@link #reload}. */
+    private volatile QuerySlot[] slots;
+    /** Per query: run duration histogram, rows fetched, errors by SQLState, allocated bytes. */
+    private final ScrapeStats stats = ScrapeStats.forCustomQueries();
+    private final Object flightLock = new Object();
+    /** Run in flight, null when idle; concurrent callers share its result. Guarded by {@link #flightLock}. */
+    private CompletableFuture<MetricSnapshots> inFlight;
+
+    /** Reads one label value from the current row. */
+    @FunctionalInterface
+    private interface LabelReader {
+        String read(ResultSet rs) throws SQLException;
+    }
+
+    /** Reads the sample value from the current row. */
+    @FunctionalInterface
+    private interface ValueReader {
+        double read(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * A query compiled against one connection: prepared statement plus result-set mapping (column indexes,
+     * sanitized label names, typed readers). The mapping is rebuilt only when the result-set shape changes.
+     */
+    private static final class QueryPlan {
+        final Connection conn;
+        final PreparedStatement stmt;
+        String shape;
+        String[] labelNames;
+        LabelReader[] labelReaders;
+        /** Per metric (same order as the slot's metrics): value, histogram bucket bound and sum readers (null if unused). */
+        ValueReader[] valueReaders;
+        ValueReader[] boundReaders;
+        ValueReader[] sumReaders;
+
+        QueryPlan(Connection conn, PreparedStatement stmt) {
+            this.conn = conn;
+            this.stmt = stmt;
+        }
+    }
+
+    /** Outcome of one execution; reused until the query's interval expires. Families without data points are omitted. */
+    private record QueryResult(List<MetricSnapshot> snapshots, int rows, boolean truncated) {}
+
+    /** Per-label-set histogram accumulator: count per bucket upper bound and the running sum. */
+    private static final class Buckets {
+        final TreeMap<Double, Long> counts = new TreeMap<>();
+        double sum;
+    }
+
+    /** Data points of one metric family, collected across the rows of a result. */
+    private static final class Family {
+        final MetricDef def;
+        final String name;
+        final List<GaugeSnapshot.GaugeDataPointSnapshot> gauges = new ArrayList<>();
+        final List<CounterSnapshot.CounterDataPointSnapshot> counters = new ArrayList<>();
+        final Map<Labels, Buckets> histograms = new LinkedHashMap<>();
+
+        Family(MetricDef def) {
+            this.def = def;
+            this.name = familyName(def);
+        }
+
+        void add(QueryPlan plan, int metric, ResultSet rs, Labels labels) throws SQLException {
+            double value = plan.valueReaders[metric].read(rs);
+            switch (def.type()) {
+                case GAUGE -> gauges.add(new GaugeSnapshot.GaugeDataPointSnapshot(value, labels, null));
+                case COUNTER -> {
+                    if (value >= 0) counters.add(new CounterSnapshot.CounterDataPointSnapshot(value, labels, null, 0));
+                }
+                case HISTOGRAM -> {
+                    double bound = plan.boundReaders[metric].read(rs);
+                    if (Double.isNaN(bound) || !(value >= 0)) return;
+                    Buckets b = histograms.computeIfAbsent(labels, l -> new Buckets());
+                    b.counts.merge(bound, (long) value, Long::sum);
+                    if (plan.sumReaders[metric] != null) b.sum += plan.sumReaders[metric].read(rs);
+                    else b.sum = Double.NaN;
+                }
+            }
+        }
+
+        MetricSnapshot build() {
+            String help = def.help();
+            return switch (def.type()) {
+                case GAUGE -> {
+                    if (gauges.isEmpty()) yield null;
+                    GaugeSnapshot.Builder b = GaugeSnapshot.builder().name(name).help(help);
+                    for (var p : gauges) b.dataPoint(p);
+                    yield b.build();
+                }
+                case COUNTER -> {
+                    if (counters.isEmpty()) yield null;
+                    CounterSnapshot.Builder b = CounterSnapshot.builder().name(name).help(help);
+                    for (var p : counters) b.dataPoint(p);
+                    yield b.build();
+                }
+                case HISTOGRAM -> {
+                    if (histograms.isEmpty()) yield null;
+                    HistogramSnapshot.Builder b = HistogramSnapshot.builder().name(name).help(help);
+                    for (Map.Entry<Labels, Buckets> e : histograms.entrySet()) {
+                        TreeMap<Double, Long> counts = e.getValue().counts;
+                        counts.putIfAbsent(Double.POSITIVE_INFINITY, 0L);
+                        double[] bounds = new double[counts.size()];
+                        long[] n = new long[counts.size()];
+                        int i = 0;
+                        for (Map.Entry<Double, Long> c : counts.entrySet()) {
+                            bounds[i] = c.getKey();
+                            n[i++] = c.getValue();
+                        }
+                        b.dataPoint(new HistogramSnapshot.HistogramDataPointSnapshot(ClassicHistogramBuckets.of(bounds, n),
+                                e.getValue().sum, e.getKey(), Exemplars.EMPTY, 0));
+                    }
+                    yield b.build();
+                }
+            };
+        }
+    }
+
+    private static final class QuerySlot {
+        final QueryDef def;
+        final String metricName;
+        final int timeoutSeconds;
+        final int maxRows;
+        /** Declared metrics, or one gauge named after the query for single-value queries. */
+        final List<MetricDef> metrics;
+        /** Plans per connection: the main one, plus pooled ones for parallel queries. Guarded by the slot. */
+        final Map<Connection, QueryPlan> plans = new IdentityHashMap<>();
+        /** Set once a reload dropped this query; no new plans are prepared. Guarded by the slot. */
+        boolean retired;
+        volatile QueryResult last;
+        volatile long expiresAtNanos;
+
+        QuerySlot(QueryDef def, int defaultTimeoutSeconds, int defaultMaxRows) {
+            this.def = def;
+            this.metricName = customMetricName(def.name());
+            this.timeoutSeconds = def.timeoutSeconds() > 0 ? def.timeoutSeconds() : defaultTimeoutSeconds;
+            this.maxRows = def.maxRows() > 0 ? def.maxRows() : defaultMaxRows;
+            this.metrics = def.metrics().isEmpty()
+                    ? List.of(new MetricDef(def.name(), MetricType.GAUGE, def.help(), null, null, null))
+                    : def.metrics().stream().map(m -> m.help() != null ? m
+                            : new MetricDef(m.name(), m.type(), def.help(), m.column(), m.bucketColumn(), m.sumColumn())).toList();
+        }
+
+        /** Last result while the query's interval has not elapsed; null = run it now. */
+        QueryResult cached(long now) {
+            QueryResult r = last;
+            return r != null && def.intervalSeconds() > 0 && now - expiresAtNanos < 0 ? r : null;
+        }
+    }
 
     public CustomQueryCollector(Connection conn, List<QueryDef> queries) {
-        this.conn = conn;
-        this.queries = List.copyOf(queries);
-        this.metricNames = queries.stream().map(q -> customMetricName(q.name())).toList();
+        this(ConnectionManager.fixed(conn), queries);
+    }
+
+    public CustomQueryCollector(ConnectionManager connections, List<QueryDef> queries) {
+        this(connections, null, queries, 0, 0);
+    }
+
+    /**
+     * @param pool connections for queries marked {@code parallel}; null = all queries run serially on the main connection
+     * @param defaultTimeoutSeconds statement timeout for queries without {@code timeout}; 0 = none
+     * @param defaultMaxRows row cap for queries without {@code max_rows}; 0 = unlimited
+     */
+    public CustomQueryCollector(ConnectionManager connections, ConnectionPool pool, List<QueryDef> queries,
+                                int defaultTimeoutSeconds, int defaultMaxRows) {
+        this.connections = connections;
+        this.pool = pool;
+        this.defaultTimeoutSeconds = defaultTimeoutSeconds;
+        this.defaultMaxRows = defaultMaxRows;
+        this.slots = new QuerySlot[0];
+        reload(queries);
+    }
+
+    /**
+     * Rejects definitions that cannot be exported together: invalid or duplicate metric names, or names taken by
+     * the per-query truncation gauge.
+     *
+     * @throws IllegalArgumentException describing the first problem
+     */
+    public static void validate(List<QueryDef> queries) {
+        Set<String> names = new HashSet<>(List.of(TRUNCATED_NAME));
+        for (QueryDef q : queries) {
+            List<MetricDef> metrics = q.metrics().isEmpty() ? List.of(new MetricDef(q.name(), MetricType.GAUGE, null, null, null, null)) : q.metrics();
+            for (MetricDef m : metrics) {
+                String name = familyName(m);
+                if (!METRIC_NAME.matcher(name).matches()) throw new IllegalArgumentException("invalid metric name: query=" + q.name() + " metric=" + name);
+                if (!names.add(name)) throw new IllegalArgumentException("duplicate metric name: query=" + q.name() + " metric=" + name);
+            }
+        }
+    }
+
+    /**
+     * Atomically replaces the query set. Queries whose definition is unchanged keep their compiled plans and
+     * cached results; plans of removed or changed queries are closed once any running execution finishes.
+     * Callers should {@link #validate} first.
+     */
+    public synchronized void reload(List<QueryDef> queries) {
+        Map<QueryDef, QuerySlot> previous = new HashMap<>();
+        for (QuerySlot slot : slots) previous.putIfAbsent(slot.def, slot);
+        QuerySlot[] next = new QuerySlot[queries.size()];
+        int kept = 0;
+        for (int i = 0; i < next.length; i++) {
+            QuerySlot reused = previous.remove(queries.get(i));
+            if (reused != null) kept++;
+            next[i] = reused != null ? reused : new QuerySlot(queries.get(i), defaultTimeoutSeconds, defaultMaxRows);
+        }
+        slots = next;
+        for (QuerySlot removed : previous.values()) closePlans(removed);
+        Set<String> names = new HashSet<>();
+        for (QueryDef q : queries) names.add(q.name());
+        stats.retain(names);
+        if (kept != next.length || !previous.isEmpty()) {
+            log.debug("Custom queries swapped: count={} kept={} added={} removed={}", next.length, kept, next.length - kept, previous.size());
+        }
+        if (pool == null && queries.stream().anyMatch(QueryDef::parallel)) {
+            log.info("Custom queries marked parallel run serially: no connection pool (ALTIBASE_SCRAPE_PARALLELISM=1)");
+        }
+    }
+
+    /** Number of configured queries. */
+    public int size() {
+        return slots.length;
+    }
+
+    private static void closePlans(QuerySlot slot) {
+        List<QueryPlan> plans;
+        synchronized (slot) {
+            slot.retired = true;
+            plans = new ArrayList<>(slot.plans.values());
+            slot.plans.clear();
+        }
+        for (QueryPlan plan : plans) {
+            synchronized (plan) {
+                closeQuietly(plan.stmt);
+            }
+        }
     }
 
     private static String customMetricName(String name) {
@@ -36,49 +293,318 @@ public final class CustomQueryCollector implements MultiCollector {
         return name.startsWith(CUSTOM_METRIC_PREFIX) ? name : CUSTOM_METRIC_PREFIX + name;
     }
 
+    /** Prefixed family name; counters drop a trailing {@code _total}, which the exposition format appends. */
+    private static String familyName(MetricDef metric) {
+        String name = customMetricName(metric.name());
+        return metric.type() == MetricType.COUNTER && name.endsWith("_total") ? name.substring(0, name.length() - 6) : name;
+    }
+
+    /**
+     * Runs due queries (parallel ones on pooled connections, the rest serially on the main connection) and
+     * returns their gauges plus per-query duration, row and truncation gauges. Queries within their interval
+     * reuse the previous result. Single-flight: callers arriving while a run is in progress share its result.
+     * The serial queries hold the connection's statement lock, so they never overlap the built-in scrape.
+     */
     @Override
     public MetricSnapshots collect() {
-        List<MetricSnapshot> snapshots = new ArrayList<>();
-        for (QueryDef q : queries) {
+        CompletableFuture<MetricSnapshots> flight;
+        boolean leader = false;
+        synchronized (flightLock) {
+            flight = inFlight;
+            if (flight == null) {
+                flight = inFlight = new CompletableFuture<>();
+                leader = true;
+            }
+        }
+        if (!leader) return flight.join();
+        try {
+            MetricSnapshots result = collectOnce();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (flightLock) {
+                inFlight = null;
+            }
+        }
+    }
+
+    private MetricSnapshots collectOnce() {
+        Connection conn = connections.current();
+        if (conn == null) return new MetricSnapshots(List.of());
+        QuerySlot[] slots = this.slots;
+        long now = System.nanoTime();
+        QueryResult[] results = new QueryResult[slots.length];
+        List<Future<QueryResult>> futures = new ArrayList<>();
+        List<Integer> futureIndexes = new ArrayList<>();
+        ExecutorService executor = null;
+        try {
+            for (int i = 0; i < slots.length; i++) {
+                QuerySlot slot = slots[i];
+                results[i] = slot.cached(now);
+                if (results[i] != null || pool == null || !slot.def.parallel()) continue;
+                if (executor == null) executor = Executors.newVirtualThreadPerTaskExecutor();
+                futures.add(executor.submit(() -> runPooled(slot)));
+                futureIndexes.add(i);
+            }
+            ReentrantLock statementLock = connections.statementLock();
+            statementLock.lock();
             try {
-                runQuery(q, snapshots);
-            } catch (Exception e) {
-                log.warn("Custom query failed: name={} error={}", customMetricName(q.name()), e.getMessage());
+                for (int i = 0; i < slots.length; i++) {
+                    if (results[i] == null && (pool == null || !slots[i].def.parallel())) results[i] = run(conn, slots[i]);
+                }
+            } finally {
+                statementLock.unlock();
             }
+            for (int f = 0; f < futures.size(); f++) {
+                results[futureIndexes.get(f)] = await(futures.get(f));
+            }
+        } finally {
+            if (executor != null) executor.shutdown();
+        }
+        return buildSnapshots(slots, results);
+    }
+
+    private QueryResult runPooled(QuerySlot slot) {
+        Connection c;
+        try {
+            c = pool.borrow();
+        } catch (SQLException e) {
+            log.warn("Custom query skipped, no pooled connection: name={} error={}", slot.metricName, e.getMessage());
+            return null;
         }
+        try {
+            return run(c, slot);
+        } finally {
+            pool.release(c);
+        }
+    }
+
+    private static QueryResult await(Future<QueryResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return null;
+        } catch (ExecutionException e) {
+            log.warn("Custom query task failed: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            return null;
+        }
+    }
+
+    /** Executes one query and caches its result for the query's interval; null on failure. */
+    private QueryResult run(Connection conn, QuerySlot slot) {
+        long start = System.nanoTime();
+        long allocated = ScrapeStats.allocatedBytes();
+        try {
+            QueryResult r = runQuery(conn, slot);
+            stats.record(slot.def.name(), start, allocated, r.rows(), null);
+            slot.last = r;
+            slot.expiresAtNanos = System.nanoTime() + slot.def.intervalSeconds() * 1_000_000_000L;
+            if (r.truncated()) log.warn("Custom query truncated: name={} max_rows={}", slot.metricName, slot.maxRows);
+            return r;
+        } catch (Exception e) {
+            stats.record(slot.def.name(), start, allocated, 0, e);
+            log.warn("Custom query failed: name={} error={}", slot.metricName, e.getMessage());
+            return null;
+        }
+    }
+
+    private MetricSnapshots buildSnapshots(QuerySlot[] slots, QueryResult[] results) {
+        List<MetricSnapshot> snapshots = new ArrayList<>();
+        GaugeSnapshot.Builder truncated = GaugeSnapshot.builder().name(TRUNCATED_NAME).help("1 if the latest run of a custom query hit its max_rows cap and dropped rows, else 0.");
+        boolean any = false;
+        for (int i = 0; i < slots.length; i++) {
+            QueryResult r = results[i];
+            if (r == null) continue;
+            any = true;
+            snapshots.addAll(r.snapshots());
+            Labels labels = Labels.of("query", slots[i].def.name());
+            truncated.dataPoint(new GaugeSnapshot.GaugeDataPointSnapshot(r.truncated() ? 1 : 0, labels, null));
+        }
+        if (any) {
+            snapshots.add(truncated.build());
+        }
+        snapshots.addAll(stats.snapshots());
         return new MetricSnapshots(snapshots);
     }
 
     @Override
     public List<String> getPrometheusNames() {
-        return List.copyOf(metricNames);
-    }
-
-    private void runQuery(QueryDef q, List<MetricSnapshot> out) throws SQLException {
-        List<GaugeSnapshot.GaugeDataPointSnapshot> points = new ArrayList<>();
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(q.sql())) {
-            ResultSetMetaData meta = rs.getMetaData();
-            int colCount = meta.getColumnCount();
-            List<String> labelCols = q.labelColumns() != null ? q.labelColumns() : inferLabelColumns(meta, colCount);
-            int valueColIndex = findValueColumn(meta, colCount, labelCols);
-
-            while (rs.next()) {
-                List<String> pairs = new ArrayList<>();
-                for (String labelName : labelCols) {
-                    String val = getString(rs, meta, labelName);
-                    pairs.add(sanitizeLabelName(labelName));
-                    pairs.add(Objects.requireNonNullElse(val, ""));
+        List<String> names = new ArrayList<>();
+        for (QuerySlot slot : slots) {
+            for (MetricDef m : slot.metrics) names.add(familyName(m));
+        }
+        names.add(TRUNCATED_NAME);
+        names.addAll(stats.names());
+        return names;
+    }
+
+    /** Plan for this connection, preparing it on first use; plans of closed connections are dropped. Caller holds the slot lock. */
+    private static QueryPlan planFor(Connection conn, QuerySlot slot) throws SQLException {
+        QueryPlan plan = slot.plans.get(conn);
+        if (plan != null) return plan;
+        if (slot.retired) throw new SQLException("Custom query removed by reload");
+        slot.plans.values().removeIf(p -> {
+            if (!isClosedQuietly(p.conn)) return false;
+            closeQuietly(p.stmt);
+            return true;
+        });
+        PreparedStatement stmt = conn.prepareStatement(slot.def.sql());
+        if (slot.timeoutSeconds > 0) stmt.setQueryTimeout(slot.timeoutSeconds);
+        if (slot.maxRows > 0) stmt.setMaxRows(slot.maxRows + 1);
+        plan = new QueryPlan(conn, stmt);
+        slot.plans.put(conn, plan);
+        return plan;
+    }
+
+    private static QueryResult runQuery(Connection conn, QuerySlot slot) throws SQLException {
+        Family[] families = slot.metrics.stream().map(Family::new).toArray(Family[]::new);
+        int rows = 0;
+        boolean truncated = false;
+        long start = System.nanoTime();
+        QueryPlan plan;
+        synchronized (slot) {
+            plan = planFor(conn, slot);
+        }
+        synchronized (plan) {
+            try (ResultSet rs = plan.stmt.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                String shape = shapeOf(meta);
+                if (!shape.equals(plan.shape)) {
+                    if (plan.shape != null) log.info("Custom query result shape changed, recompiling: name={}", slot.metricName);
+                    compileMapping(plan, slot, meta, shape);
+                }
+                String[] names = plan.labelNames;
+                LabelReader[] readers = plan.labelReaders;
+                String[] values = new String[names.length];
+                while (rs.next()) {
+                    if (slot.maxRows > 0 && rows >= slot.maxRows) {
+                        truncated = true;
+                        break;
+                    }
+                    rows++;
+                    for (int i = 0; i < readers.length; i++) values[i] = readers[i].read(rs);
+                    Labels labels = names.length == 0 ? Labels.EMPTY : Labels.of(names, values);
+                    for (int m = 0; m < families.length; m++) families[m].add(plan, m, rs, labels);
+                }
+            } catch (SQLException e) {
+                closeQuietly(plan.stmt);
+                synchronized (slot) {
+                    slot.plans.remove(conn, plan);
                 }
-                Labels labels = pairs.isEmpty() ? Labels.EMPTY : Labels.of(pairs.toArray(new String[0]));
-                double value = getNumeric(rs, valueColIndex);
-                points.add(new GaugeSnapshot.GaugeDataPointSnapshot(value, labels, null));
+                throw e;
+            }
+        }
+        List<MetricSnapshot> snapshots = new ArrayList<>(families.length);
+        for (Family f : families) {
+            MetricSnapshot snapshot = f.build();
+            if (snapshot != null) snapshots.add(snapshot);
+        }
+        return new QueryResult(snapshots, rows, truncated);
+    }
+
+    /** Column count, labels and JDBC types; a plan's mapping is valid while this is unchanged. */
+    private static String shapeOf(ResultSetMetaData meta) throws SQLException {
+        StringBuilder sb = new StringBuilder();
+        int colCount = meta.getColumnCount();
+        for (int i = 1; i <= colCount; i++) sb.append(meta.getColumnLabel(i)).append(':').append(meta.getColumnType(i)).append(',');
+        return sb.toString();
+    }
+
+    private static void compileMapping(QueryPlan plan, QuerySlot slot, ResultSetMetaData meta, String shape) throws SQLException {
+        QueryDef q = slot.def;
+        int colCount = meta.getColumnCount();
+        List<String> labelCols = q.labelColumns() != null ? q.labelColumns()
+                : q.metrics().isEmpty() ? inferLabelColumns(meta, colCount) : unmappedColumns(meta, colCount, q.metrics());
+        String[] names = new String[labelCols.size()];
+        LabelReader[] readers = new LabelReader[labelCols.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = sanitizeLabelName(labelCols.get(i));
+            readers[i] = labelReader(meta, findColumn(meta, colCount, labelCols.get(i)));
+        }
+        plan.labelNames = names;
+        plan.labelReaders = readers;
+        int metrics = slot.metrics.size();
+        plan.valueReaders = new ValueReader[metrics];
+        plan.boundReaders = new ValueReader[metrics];
+        plan.sumReaders = new ValueReader[metrics];
+        for (int m = 0; m < metrics; m++) {
+            MetricDef metric = slot.metrics.get(m);
+            plan.valueReaders[m] = valueReader(meta, metric.column() != null
+                    ? requireColumn(meta, colCount, metric.column()) : findValueColumn(meta, colCount, labelCols));
+            if (metric.type() == MetricType.HISTOGRAM) {
+                plan.boundReaders[m] = boundReader(requireColumn(meta, colCount, metric.bucketColumn()));
+                if (metric.sumColumn() != null) plan.sumReaders[m] = valueReader(meta, requireColumn(meta, colCount, metric.sumColumn()));
+            }
+        }
+        plan.shape = shape;
+    }
+
+    private static int findColumn(ResultSetMetaData meta, int colCount, String columnLabel) throws SQLException {
+        for (int i = 1; i <= colCount; i++) {
+            if (columnLabel.equalsIgnoreCase(meta.getColumnLabel(i))) return i;
+        }
+        return 0;
+    }
+
+    private static int requireColumn(ResultSetMetaData meta, int colCount, String columnLabel) throws SQLException {
+        int index = findColumn(meta, colCount, columnLabel);
+        if (index == 0) throw new SQLException("Custom query result has no column " + columnLabel);
+        return index;
+    }
+
+    /** Histogram bucket upper bound: numeric, or text such as "+Inf"; NULL = +Inf. */
+    private static ValueReader boundReader(int index) {
+        return rs -> {
+            Object o = rs.getObject(index);
+            if (o == null) return Double.POSITIVE_INFINITY;
+            if (o instanceof Number n) return n.doubleValue();
+            String s = o.toString().trim();
+            if (s.equalsIgnoreCase("+Inf") || s.equalsIgnoreCase("Inf")) return Double.POSITIVE_INFINITY;
+            try {
+                return Double.parseDouble(s);
+            } catch (NumberFormatException e) {
+                return Double.NaN;
             }
+        };
+    }
+
+    /** Missing column → always ""; character columns via getString; others via getObject().toString(). */
+    private static LabelReader labelReader(ResultSetMetaData meta, int index) throws SQLException {
+        if (index == 0) return rs -> "";
+        return switch (meta.getColumnType(index)) {
+            case Types.CHAR, Types.VARCHAR, Types.NCHAR, Types.NVARCHAR, Types.LONGVARCHAR -> rs -> Objects.requireNonNullElse(rs.getString(index), "");
+            default -> rs -> {
+                Object o = rs.getObject(index);
+                return o != null ? o.toString() : "";
+            };
+        };
+    }
+
+    private static ValueReader valueReader(ResultSetMetaData meta, int index) throws SQLException {
+        return switch (meta.getColumnType(index)) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> rs -> rs.getLong(index);
+            default -> rs -> rs.getDouble(index);
+        };
+    }
+
+    private static void closeQuietly(Statement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            log.debug("Custom query statement close failed: {}", e.getMessage());
         }
-        if (!points.isEmpty()) {
-            GaugeSnapshot.Builder b = GaugeSnapshot.builder().name(customMetricName(q.name())).help(q.help());
-            for (var p : points) b.dataPoint(p);
-            out.add(b.build());
+    }
+
+    private static boolean isClosedQuietly(Connection c) {
+        try {
+            return c.isClosed();
+        } catch (SQLException | RuntimeException e) {
+            return true;
         }
     }
 
@@ -90,6 +616,23 @@ public final class CustomQueryCollector implements MultiCollector {
         return labelCols;
     }
 
+    /** Columns not used as a metric value, bucket or sum column; label columns of a multi-metric query by default. */
+    private static List<String> unmappedColumns(ResultSetMetaData meta, int colCount, List<MetricDef> metrics) throws SQLException {
+        List<String> labelCols = new ArrayList<>();
+        for (int i = 1; i <= colCount; i++) {
+            String label = meta.getColumnLabel(i);
+            boolean mapped = false;
+            for (MetricDef m : metrics) {
+                if (label.equalsIgnoreCase(m.column()) || label.equalsIgnoreCase(m.bucketColumn()) || label.equalsIgnoreCase(m.sumColumn())) {
+                    mapped = true;
+                    break;
+                }
+            }
+            if (!mapped) labelCols.add(label);
+        }
+        return labelCols;
+    }
+
     private static int findValueColumn(ResultSetMetaData meta, int colCount, List<String> labelCols) throws SQLException {
         for (int i = 1; i <= colCount; i++) {
             String label = meta.getColumnLabel(i);
@@ -103,27 +646,33 @@ public final class CustomQueryCollector implements MultiCollector {
         return colCount;
     }
 
-    private static String getString(ResultSet rs, ResultSetMetaData meta, String columnLabel) throws SQLException {
-        for (int i = 1; i <= meta.getColumnCount(); i++) {
-            if (columnLabel.equalsIgnoreCase(meta.getColumnLabel(i))) {
-                Object o = rs.getObject(i);
-                return o != null ? o.toString() : "";
-            }
-        }
-        return "";
-    }
-
-    private static double getNumeric(ResultSet rs, int columnIndex) throws SQLException {
-        return rs.getDouble(columnIndex);
-    }
-
     private static String sanitizeLabelName(String name) {
         return name == null ? "" : name.replaceAll("[^a-zA-Z0-9_]", "_").toLowerCase(Locale.ROOT);
     }
 
-    public record QueryDef(String name, String help, String sql, List<String> labelColumns) {
+    public enum MetricType { GAUGE, COUNTER, HISTOGRAM }
+
+    /**
+     * One metric family fed by a query's rows. {@code column} holds the value (for histograms: the observation count
+     * of the row's bucket); histograms read the bucket upper bound from {@code bucketColumn} and optionally add up
+     * {@code sumColumn}. A null help falls back to the query's.
+     */
+    public record MetricDef(String name, MetricType type, String help, String column, String bucketColumn, String sumColumn) {}
+
+    /**
+     * One custom query. {@code intervalSeconds} &gt; 0 reuses the last result until it elapses; {@code timeoutSeconds}
+     * and {@code maxRows} of 0 fall back to the collector defaults; {@code parallel} runs it on a pooled connection.
+     * Empty {@code metrics} = a single gauge named after the query.
+     */
+    public record QueryDef(String name, String help, String sql, List<String> labelColumns,
+                           int intervalSeconds, int timeoutSeconds, int maxRows, boolean parallel, List<MetricDef> metrics) {
         public QueryDef {
             labelColumns = labelColumns == null ? null : List.copyOf(labelColumns);
+            metrics = metrics == null ? List.of() : List.copyOf(metrics);
+        }
+
+        public QueryDef(String name, String help, String sql, List<String> labelColumns) {
+            this(name, help, sql, labelColumns, 0, 0, 0, false, List.of());
         }
 
         @Override
@@ -0,0 +1,164 @@
+package com.f9n.altibase.exporter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.Labels;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+
+/**
+ * Turns samples of cumulative V$ columns into monotonic counters and optional per-second rates. Per-series state
+ * (previous raw value, running total, last rate, observation time) lives in parallel primitive arrays addressed by
+ * a 64-bit hash of metric key and labels (open addressing, linear probing).
+ * <p>
+ * A server restart (instance working time went backwards) or a value that went down is a reset: the new raw value
+ * is added to the running total instead of the counter dropping. Samples replayed from an interval cache (same
+ * observation time) leave the series unchanged. Series not seen for {@value #SWEEP_EVERY} applies are dropped.
+ */
+final class DeltaEngine {
+
+    /** One raw sample of a cumulative column, taken at {@code observedNanos}. */
+    record Sample(String key, Labels labels, double raw, long observedNanos) {}
+
+    static final String RATE_SUFFIX = "_per_second";
+    private static final int SWEEP_EVERY = 64;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private long[] hashes = new long[INITIAL_CAPACITY];
+    private double[] raw = new double[INITIAL_CAPACITY];
+    private double[] total = new double[INITIAL_CAPACITY];
+    private double[] rate = new double[INITIAL_CAPACITY];
+    private long[] observed = new long[INITIAL_CAPACITY];
+    private int[] seen = new int[INITIAL_CAPACITY];
+    private int size;
+    private int generation;
+    private double lastWorkingTime = Double.NaN;
+    private long resets;
+
+    /**
+     * Updates state from one scrape's samples and returns counter families (if {@code counters}) and
+     * {@code <key>_per_second} gauge families (if {@code rates}), keyed like {@link AltibaseMetricDefs}.
+     *
+     * @param workingTime instance working time of this scrape in seconds; NaN = unknown (per-series detection only)
+     */
+    synchronized List<MetricSnapshot> apply(List<Sample> samples, double workingTime, boolean counters, boolean rates) {
+        generation++;
+        boolean restarted = !Double.isNaN(workingTime) && !Double.isNaN(lastWorkingTime) && workingTime < lastWorkingTime;
+        if (!Double.isNaN(workingTime)) lastWorkingTime = workingTime;
+        Map<String, CounterSnapshot.Builder> counterFamilies = new LinkedHashMap<>();
+        Map<String, GaugeSnapshot.Builder> rateFamilies = new LinkedHashMap<>();
+        for (Sample s : samples) {
+            if (!(s.raw() >= 0)) continue;
+            long h = hash(s.key(), s.labels());
+            int i = slot(h);
+            if (hashes[i] == 0) {
+                i = insert(i, h, s);
+            } else if (observed[i] != s.observedNanos()) {
+                boolean reset = restarted || s.raw() < raw[i];
+                double delta = reset ? s.raw() : s.raw() - raw[i];
+                if (reset) resets++;
+                double seconds = (s.observedNanos() - observed[i]) / 1e9;
+                rate[i] = seconds > 0 ? delta / seconds : Double.NaN;
+                total[i] += delta;
+                raw[i] = s.raw();
+                observed[i] = s.observedNanos();
+            }
+            seen[i] = generation;
+            if (counters) {
+                counterFamilies.computeIfAbsent(s.key(), k -> CounterSnapshot.builder().name(AltibaseMetricDefs.name(k)).help(AltibaseMetricDefs.help(k)))
+                        .dataPoint(new CounterSnapshot.CounterDataPointSnapshot(total[i], s.labels(), null, 0));
+            }
+            if (rates && !Double.isNaN(rate[i])) {
+                String key = s.key() + RATE_SUFFIX;
+                rateFamilies.computeIfAbsent(key, k -> GaugeSnapshot.builder().name(AltibaseMetricDefs.name(k)).help(AltibaseMetricDefs.help(k)))
+                        .dataPoint(new GaugeSnapshot.GaugeDataPointSnapshot(rate[i], s.labels(), null));
+            }
+        }
+        if (generation % SWEEP_EVERY == 0) rebuild(hashes.length, generation - SWEEP_EVERY);
+        List<MetricSnapshot> out = new ArrayList<>(counterFamilies.size() + rateFamilies.size());
+        for (CounterSnapshot.Builder b : counterFamilies.values()) out.add(b.build());
+        for (GaugeSnapshot.Builder b : rateFamilies.values()) out.add(b.build());
+        return out;
+    }
+
+    /** Resets detected so far (restarts count once per series). */
+    synchronized long resets() {
+        return resets;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /** Index of the series' entry, or of the empty slot where it belongs. */
+    private int slot(long h) {
+        int mask = hashes.length - 1;
+        int i = (int) (h ^ (h >>> 32)) & mask;
+        while (hashes[i] != 0 && hashes[i] != h) i = (i + 1) & mask;
+        return i;
+    }
+
+    /** Adds a new series at empty slot {@code i}; returns its index (changed if the table grew). */
+    private int insert(int i, long h, Sample s) {
+        hashes[i] = h;
+        raw[i] = s.raw();
+        total[i] = s.raw();
+        rate[i] = Double.NaN;
+        observed[i] = s.observedNanos();
+        seen[i] = generation;
+        size++;
+        if (size * 2 <= hashes.length) return i;
+        rebuild(hashes.length * 2, Integer.MIN_VALUE);
+        return slot(h);
+    }
+
+    /** Re-hashes into a table of {@code capacity}, dropping series last seen before {@code minSeen}. */
+    private void rebuild(int capacity, int minSeen) {
+        long[] oldHashes = hashes;
+        double[] oldRaw = raw, oldTotal = total, oldRate = rate;
+        long[] oldObserved = observed;
+        int[] oldSeen = seen;
+        hashes = new long[capacity];
+        raw = new double[capacity];
+        total = new double[capacity];
+        rate = new double[capacity];
+        observed = new long[capacity];
+        seen = new int[capacity];
+        size = 0;
+        for (int j = 0; j < oldHashes.length; j++) {
+            if (oldHashes[j] == 0 || oldSeen[j] < minSeen) continue;
+            int i = slot(oldHashes[j]);
+            hashes[i] = oldHashes[j];
+            raw[i] = oldRaw[j];
+            total[i] = oldTotal[j];
+            rate[i] = oldRate[j];
+            observed[i] = oldObserved[j];
+            seen[i] = oldSeen[j];
+            size++;
+        }
+    }
+
+    /** FNV-1a over key, label names and values; never 0 (0 marks an empty slot). */
+    static long hash(String key, Labels labels) {
+        long h = 0xcbf29ce484222325L;
+        h = mix(h, key);
+        for (int i = 0; i < labels.size(); i++) {
+            h = mix(h, labels.getName(i));
+            h = mix(h, labels.getValue(i));
+        }
+        return h == 0 ? 1 : h;
+    }
+
+    private static long mix(long h, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= 0xff;
+        return h * 0x100000001b3L;
+    }
+}
@@ -1,5 +1,7 @@
 package com.f9n.altibase.exporter;
 
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /** Exporter configuration from env and command-line args. */
@@ -13,16 +15,57 @@ public record ExporterConfig(
         String queriesFile,
         int connectTimeoutSeconds,
         Set<String> disabledMetrics,
-        String exporterVersion
+        String exporterVersion,
+        int scrapeParallelism,
+        int scrapeIntervalSeconds,
+        Map<String, Integer> metricIntervals,
+        int queryTimeoutSeconds,
+        int scrapeTimeoutSeconds,
+        int breakerFailures,
+        int breakerBackoffSeconds,
+        int sequenceBatchSize,
+        int sequenceMax,
+        String modulesFile,
+        int probeMaxTargets,
+        int probeIdleTimeoutSeconds,
+        int reconnectBackoffSeconds,
+        int reconnectMaxBackoffSeconds,
+        int queryMaxRows,
+        int queriesReloadSeconds,
+        boolean cumulativeCounters,
+        boolean cumulativeRates,
+        int seriesBudget,
+        Map<String, Integer> seriesBudgets,
+        boolean streaming,
+        int scrapeMaxWaiters,
+        int webMaxRequests
 ) {
     public ExporterConfig {
         disabledMetrics = disabledMetrics != null ? Set.copyOf(disabledMetrics) : Set.of();
+        metricIntervals = metricIntervals != null ? Map.copyOf(metricIntervals) : Map.of();
+        seriesBudgets = seriesBudgets != null ? Map.copyOf(seriesBudgets) : Map.of();
     }
 
     public Set<String> disabledMetrics() {
         return Set.copyOf(disabledMetrics);
     }
 
+    public Map<String, Integer> metricIntervals() {
+        return Map.copyOf(metricIntervals);
+    }
+
+    /** Copy for a /probe target: connection and credentials replaced, serial scrape, module's disabled metrics added. */
+    public ExporterConfig forTarget(String server, int port, String database, String user, String password,
+                                    int connectTimeoutSeconds, Set<String> extraDisabledMetrics) {
+        Set<String> disabled = new HashSet<>(disabledMetrics);
+        if (extraDisabledMetrics != null) disabled.addAll(extraDisabledMetrics);
+        return new ExporterConfig(server, port, user, password, database, listenPort, queriesFile, connectTimeoutSeconds, disabled, exporterVersion,
+                1, 0, metricIntervals, queryTimeoutSeconds, scrapeTimeoutSeconds, breakerFailures, breakerBackoffSeconds,
+                sequenceBatchSize, sequenceMax, modulesFile, probeMaxTargets, probeIdleTimeoutSeconds,
+                reconnectBackoffSeconds, reconnectMaxBackoffSeconds, queryMaxRows, queriesReloadSeconds,
+                cumulativeCounters, cumulativeRates, seriesBudget, seriesBudgets, streaming, scrapeMaxWaiters, webMaxRequests);
+    }
+
     public String jdbcUrl() {
         return "jdbc:Altibase://" + server + ":" + port + "/" + database;
     }
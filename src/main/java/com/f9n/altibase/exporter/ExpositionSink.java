@@ -0,0 +1,95 @@
+package com.f9n.altibase.exporter;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response body of a streamed exposition in one format, plain or gzip. Pre-encoded family bytes can be spliced
+ * in with {@link #splice}: with gzip the current member is finished and the cached member written as is, so the
+ * body becomes a multi-member gzip stream (RFC 1952), which gzip readers decode as one.
+ */
+final class ExpositionSink extends OutputStream {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final OutputStream raw;
+    private final TextEncoder.Format format;
+    private final boolean gzip;
+    private GZIPOutputStream member;
+    private boolean written;
+
+    ExpositionSink(OutputStream body, TextEncoder.Format format, boolean gzip) {
+        this.raw = new BufferedOutputStream(body, BUFFER_BYTES);
+        this.format = format;
+        this.gzip = gzip;
+    }
+
+    TextEncoder.Format format() {
+        return format;
+    }
+
+    boolean gzip() {
+        return gzip;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        target().write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        target().write(b, off, len);
+    }
+
+    /** Writes bytes already encoded for this sink: plain text, or one complete gzip member. */
+    void splice(byte[] encoded) throws IOException {
+        endMember();
+        raw.write(encoded);
+        written = true;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (member != null) member.flush();
+        raw.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (gzip && !written) target();
+        endMember();
+        raw.close();
+    }
+
+    private OutputStream target() throws IOException {
+        written = true;
+        if (!gzip) return raw;
+        if (member == null) member = new GZIPOutputStream(unclosable(raw), BUFFER_BYTES);
+        return member;
+    }
+
+    /** Finishes the current gzip member; closing it releases its deflater but leaves the body open. */
+    private void endMember() throws IOException {
+        if (member == null) return;
+        member.close();
+        member = null;
+    }
+
+    static OutputStream unclosable(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.flush();
+            }
+        };
+    }
+}
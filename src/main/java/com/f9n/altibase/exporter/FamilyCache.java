@@ -0,0 +1,75 @@
+package com.f9n.altibase.exporter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded bytes of slow-changing families (interval-cached scrape methods, build/version info) per format and
+ * compression, validated by a hash of the family's encoded samples. An unchanged family is spliced into the
+ * response without re-encoding its header or re-compressing it; a changed one replaces its entry.
+ * Callers serialize access (streamed scrapes run one at a time).
+ */
+final class FamilyCache {
+
+    private static final class Entry {
+        final long hash;
+        final int length;
+        /** Indexed by {@link #slot}: format x gzip, filled lazily. */
+        final byte[][] bytes = new byte[TextEncoder.Format.values().length * 2][];
+
+        Entry(long hash, int length) {
+            this.hash = hash;
+            this.length = length;
+        }
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /** Writes the family to the sink, from the cache if its samples are unchanged. */
+    void write(ExpositionSink sink, String key, TextEncoder enc, String help) throws IOException {
+        if (enc.samples() == 0) return;
+        int slot = slot(sink);
+        Entry e = entries.get(key);
+        if (e == null || e.hash != enc.hash() || e.length != enc.size()) {
+            e = new Entry(enc.hash(), enc.size());
+            entries.put(key, e);
+        } else if (e.bytes[slot] != null) {
+            hits.incrementAndGet();
+            sink.splice(e.bytes[slot]);
+            return;
+        }
+        misses.incrementAndGet();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(enc.size() + 256);
+        if (sink.gzip()) {
+            try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+                enc.writeTo(gz, help, sink.format());
+            }
+        } else {
+            enc.writeTo(out, help, sink.format());
+        }
+        e.bytes[slot] = out.toByteArray();
+        sink.splice(e.bytes[slot]);
+    }
+
+    private static int slot(ExpositionSink sink) {
+        return sink.format().ordinal() * 2 + (sink.gzip() ? 1 : 0);
+    }
+
+    long hits() {
+        return hits.get();
+    }
+
+    long misses() {
+        return misses.get();
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
@@ -1,33 +1,59 @@
 package com.f9n.altibase.exporter;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import io.prometheus.metrics.exporter.httpserver.HTTPServer;
+import io.prometheus.metrics.expositionformats.ExpositionFormatWriter;
+import io.prometheus.metrics.expositionformats.ExpositionFormats;
 import io.prometheus.metrics.instrumentation.jvm.JvmMetrics;
+import io.prometheus.metrics.model.registry.MultiCollector;
 import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Altibase Prometheus exporter (JDBC). Env: ALTIBASE_*, WEB_LISTEN_PORT, ALTIBASE_QUERIES_FILE, ALTIBASE_DISABLED_METRICS. */
+/** Altibase Prometheus exporter (JDBC). Env: ALTIBASE_* (connection, queries file, disabled metrics, scrape tuning; see README), WEB_LISTEN_PORT. */
 public class Main {
 
     private static final Logger log = LoggerFactory.getLogger(Main.class);
-    private static final String METRICS_PATH = "/metrics";
+    static final String METRICS_PATH = "/metrics";
     private static final int VALIDITY_CHECK_TIMEOUT_SEC = 2;
     private static final long CONNECTION_CLOSE_TIMEOUT_MS = 3000L;
+    private static final String PROBE_PATH = "/probe";
+    /** Registry-only metrics (JVM, exporter internals) when /metrics is served by the streaming handler. */
+    private static final String REGISTRY_PATH = "/metrics/registry";
+    private static final ExpositionFormats EXPOSITION_FORMATS = ExpositionFormats.init();
+    /** Longest a single write of a streamed response may block before the client is dropped. */
+    private static final Duration STREAM_WRITE_TIMEOUT = Duration.ofSeconds(30);
+    /** Blocking database work (connects, shutdown close) that must not hold a platform thread. */
+    private static final ExecutorService BLOCKING = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("altibase-connect-", 0).factory());
 
     private static String env(String key, String def) {
         String v = System.getenv(key);
@@ -44,35 +70,161 @@ public class Main {
         }
     }
 
-    private static Connection connectWithTimeout(String jdbcUrl, Properties props, int timeoutSeconds,
-                                                  String server, int port, String database) throws SQLException {
-        final SQLException[] holder = new SQLException[1];
-        final Connection[] result = new Connection[1];
-        Thread connectThread = new Thread(() -> {
-            try {
-                result[0] = DriverManager.getConnection(jdbcUrl, props);
-            } catch (SQLException e) {
-                holder[0] = e;
-            }
-        }, "altibase-connect");
-        connectThread.setDaemon(true);
-        connectThread.start();
+    /**
+     * Connects on a virtual thread, waiting at most {@code timeoutSeconds}. On timeout or interrupt the task is
+     * cancelled (interrupting a virtual thread blocked in socket I/O closes the socket); a connection that still
+     * arrives after the caller gave up is closed instead of leaked.
+     */
+    static Connection connectWithTimeout(String jdbcUrl, Properties props, int timeoutSeconds,
+                                         String server, int port, String database) throws SQLException {
+        AtomicBoolean settled = new AtomicBoolean();
+        Future<Connection> task = BLOCKING.submit(() -> {
+            Connection c = DriverManager.getConnection(jdbcUrl, props);
+            if (!settled.compareAndSet(false, true)) closeQuietly(c);
+            return c;
+        });
         try {
-            connectThread.join(timeoutSeconds * 1000L);
+            return task.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            SQLException error = e.getCause() instanceof SQLException s ? s : new SQLException("Connection failed", e.getCause());
+            log.error("Connection failed: jdbc={}:{} database={} error={}", server, port, database, error.getMessage(), error);
+            throw error;
         } catch (InterruptedException e) {
+            abandon(task, settled);
             Thread.currentThread().interrupt();
             log.error("Connection interrupted: jdbc={}:{} database={}", server, port, database);
             throw new SQLException("Connection interrupted", e);
+        } catch (TimeoutException e) {
+            Connection late = abandon(task, settled);
+            if (late != null) return late;
+            log.error("Connection timeout: jdbc={}:{} database={} timeout_seconds={}", server, port, database, timeoutSeconds);
+            throw new SQLException("Connection timeout after " + timeoutSeconds + " seconds: jdbc=" + server + ":" + port + "/" + database);
+        }
+    }
+
+    /** Gives up on a connect task; returns its connection if it was delivered just before, else null. */
+    private static Connection abandon(Future<Connection> task, AtomicBoolean settled) {
+        if (settled.compareAndSet(false, true)) {
+            task.cancel(true);
+            return null;
+        }
+        try {
+            return task.get();
+        } catch (InterruptedException | ExecutionException e) {
+            return null;
+        }
+    }
+
+    private static void closeQuietly(Connection c) {
+        try {
+            c.close();
+        } catch (SQLException ignored) {}
+    }
+
+    /** Opens a validated read-only connection tagged with client info; used for the main connection and pooled ones. */
+    private static Connection openConnection(ExporterConfig config, Properties props) throws SQLException {
+        Connection conn = connectWithTimeout(config.jdbcUrl(), props, config.connectTimeoutSeconds(), config.server(), config.port(), config.database());
+        try {
+            if (!conn.isValid(VALIDITY_CHECK_TIMEOUT_SEC)) {
+                SQLException e = new SQLException("Database connection validation failed: isValid(" + VALIDITY_CHECK_TIMEOUT_SEC + ") returned false");
+                log.error("Connection validation failed: jdbc={}:{} database={} error={}", config.server(), config.port(), config.database(), e.getMessage(), e);
+                throw e;
+            }
+            conn.setReadOnly(true);
+        } catch (SQLException e) {
+            try {
+                conn.close();
+            } catch (SQLException ignored) {}
+            throw e;
         }
-        if (holder[0] != null) {
-            log.error("Connection failed: jdbc={}:{} database={} error={}", server, port, database, holder[0].getMessage(), holder[0]);
-            throw holder[0];
+        try (var stmt = conn.createStatement()) {
+            stmt.execute("exec set_client_info('altibase-exporter')");
+        } catch (SQLException ignored) {}
+        return conn;
+    }
+
+    private static Properties connectionProperties(ExporterConfig config) {
+        Properties props = new Properties();
+        props.setProperty("user", config.user());
+        props.setProperty("password", config.password());
+        return props;
+    }
+
+    /** Splits a raw query string into decoded parameters (first value wins). */
+    static Map<String, String> parseQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) return Map.of();
+        Map<String, String> out = new HashMap<>();
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            if (!key.isEmpty()) out.putIfAbsent(key, value);
+        }
+        return out;
+    }
+
+    /** GET /probe?target=host[:port][/database]&module=name: scrapes that target and writes its metrics. */
+    private static void handleProbe(HttpExchange exchange, ProbeTargetCache probes) throws IOException {
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        MetricSnapshots snapshots;
+        try {
+            snapshots = probes.probe(params.get("target"), params.get("module"));
+        } catch (IllegalArgumentException e) {
+            byte[] body = (e.getMessage() + "\n").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(400, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+            return;
+        }
+        ExpositionFormatWriter writer = EXPOSITION_FORMATS.findWriter(exchange.getRequestHeaders().getFirst("Accept"));
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        writer.write(buffer, snapshots);
+        exchange.getResponseHeaders().set("Content-Type", writer.getContentType());
+        exchange.sendResponseHeaders(200, buffer.size());
+        try (OutputStream os = exchange.getResponseBody()) {
+            buffer.writeTo(os);
+        }
+    }
+
+    /**
+     * GET /metrics in streaming mode: the Altibase families are written to the (chunked, optionally gzipped)
+     * response while the scrape runs, then the remaining families and the registry's. Protobuf is served buffered,
+     * and so is a request that overlaps a running scrape (it shares that scrape or gets the last completed result).
+     * Each write is bounded by {@link #STREAM_WRITE_TIMEOUT}, so a stalled client cannot hold the scrape.
+     */
+    private static void handleStreamingMetrics(HttpExchange exchange, AltibaseCollector collector) throws IOException {
+        ExpositionFormatWriter writer = EXPOSITION_FORMATS.findWriter(exchange.getRequestHeaders().getFirst("Accept"));
+        String contentType = writer.getContentType();
+        TextEncoder.Format format = contentType.startsWith("text/plain") ? TextEncoder.Format.TEXT
+                : contentType.startsWith("application/openmetrics-text") ? TextEncoder.Format.OPENMETRICS : null;
+        if (format == null) {
+            List<MetricSnapshot> all = new ArrayList<>();
+            for (MetricSnapshot s : collector.collect()) all.add(s);
+            for (MetricSnapshot s : PrometheusRegistry.defaultRegistry.scrape()) all.add(s);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            writer.write(buffer, new MetricSnapshots(all));
+            exchange.getResponseHeaders().set("Content-Type", writer.getContentType());
+            exchange.sendResponseHeaders(200, buffer.size());
+            try (OutputStream os = exchange.getResponseBody()) {
+                buffer.writeTo(os);
+            }
+            return;
         }
-        if (result[0] != null) {
-            return result[0];
+        String encoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        boolean gzip = encoding != null && encoding.contains("gzip");
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        if (gzip) exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        exchange.sendResponseHeaders(200, 0);
+        try (ExpositionSink sink = new ExpositionSink(new WriteTimeoutStream(exchange.getResponseBody(), STREAM_WRITE_TIMEOUT), format, gzip)) {
+            List<MetricSnapshot> streamed = collector.stream(sink);
+            List<MetricSnapshot> rest = new ArrayList<>();
+            if (streamed != null) rest.addAll(streamed);
+            else for (MetricSnapshot s : collector.collect()) rest.add(s);
+            for (MetricSnapshot s : PrometheusRegistry.defaultRegistry.scrape()) rest.add(s);
+            writer.write(sink, new MetricSnapshots(rest));
         }
-        log.error("Connection timeout: jdbc={}:{} database={} timeout_seconds={}", server, port, database, timeoutSeconds);
-        throw new SQLException("Connection timeout after " + timeoutSeconds + " seconds: jdbc=" + server + ":" + port + "/" + database);
     }
 
     static Set<String> parseDisabledMetrics(String value) {
@@ -83,6 +235,34 @@ public class Main {
                 .collect(Collectors.toUnmodifiableSet());
     }
 
+    /** Parses "key=seconds,key2=seconds" (ALTIBASE_METRIC_INTERVALS); malformed or negative entries are skipped. */
+    static Map<String, Integer> parseMetricIntervals(String value) {
+        return parseKeyInts(value, "metric interval");
+    }
+
+    /** Parses "group=series,group2=series" (ALTIBASE_SERIES_BUDGETS); malformed or negative entries are skipped. */
+    static Map<String, Integer> parseSeriesBudgets(String value) {
+        return parseKeyInts(value, "series budget");
+    }
+
+    /** Parses "key=n,key2=n"; malformed or negative entries are skipped, unparsable ones logged as a bad {@code what} entry. */
+    private static Map<String, Integer> parseKeyInts(String value, String what) {
+        if (value == null || value.isBlank()) return Map.of();
+        Map<String, Integer> out = new HashMap<>();
+        for (String entry : value.split(",")) {
+            int eq = entry.indexOf('=');
+            if (eq <= 0) continue;
+            String key = entry.substring(0, eq).trim();
+            try {
+                int n = Integer.parseInt(entry.substring(eq + 1).trim());
+                if (!key.isEmpty() && n >= 0) out.put(key, n);
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring {} entry: {}", what, entry.trim());
+            }
+        }
+        return Map.copyOf(out);
+    }
+
     private static ExporterConfig buildConfig(String[] args) {
         String server = env("ALTIBASE_SERVER", "127.0.0.1");
         int port = envInt("ALTIBASE_PORT", 20300);
@@ -91,7 +271,12 @@ public class Main {
         String database = env("ALTIBASE_DATABASE", "mydb");
         int listenPort = envInt("WEB_LISTEN_PORT", 9399);
         String queriesFile = env("ALTIBASE_QUERIES_FILE", "");
+        String modulesFile = env("ALTIBASE_MODULES_FILE", "");
         int connectTimeoutSeconds = envInt("ALTIBASE_CONNECT_TIMEOUT", 10);
+        int scrapeParallelism = envInt("ALTIBASE_SCRAPE_PARALLELISM", 1);
+        int scrapeIntervalSeconds = envInt("ALTIBASE_SCRAPE_INTERVAL", 0);
+        int queryTimeoutSeconds = envInt("ALTIBASE_QUERY_TIMEOUT", 10);
+        int scrapeTimeoutSeconds = envInt("ALTIBASE_SCRAPE_TIMEOUT", 0);
 
         for (String arg : args) {
             if (arg.startsWith("-altibase.server=")) server = arg.substring(17).trim();
@@ -101,17 +286,58 @@ public class Main {
             else if (arg.startsWith("-altibase.database=")) database = arg.substring(19).trim();
             else if (arg.startsWith("-altibase.queries-file=")) queriesFile = arg.substring(23).trim();
             else if (arg.startsWith("-altibase.connect-timeout=")) connectTimeoutSeconds = Integer.parseInt(arg.substring(27).trim());
+            else if (arg.startsWith("-altibase.scrape-parallelism=")) scrapeParallelism = Integer.parseInt(arg.substring(29).trim());
+            else if (arg.startsWith("-altibase.scrape-interval=")) scrapeIntervalSeconds = Integer.parseInt(arg.substring(26).trim());
+            else if (arg.startsWith("-altibase.query-timeout=")) queryTimeoutSeconds = Integer.parseInt(arg.substring(24).trim());
+            else if (arg.startsWith("-altibase.scrape-timeout=")) scrapeTimeoutSeconds = Integer.parseInt(arg.substring(25).trim());
+            else if (arg.startsWith("-altibase.modules-file=")) modulesFile = arg.substring(23).trim();
             else if (arg.startsWith("-web.listen-address=:")) listenPort = Integer.parseInt(arg.substring(19).trim());
         }
 
         String exporterVersion = Main.class.getPackage().getImplementationVersion();
         if (exporterVersion == null) exporterVersion = "0.0.0";
         Set<String> disabledMetrics = parseDisabledMetrics(env("ALTIBASE_DISABLED_METRICS", ""));
+        Map<String, Integer> metricIntervals = parseMetricIntervals(env("ALTIBASE_METRIC_INTERVALS", ""));
+        int breakerFailures = envInt("ALTIBASE_BREAKER_FAILURES", 3);
+        int breakerBackoffSeconds = envInt("ALTIBASE_BREAKER_BACKOFF", 30);
+        int sequenceBatchSize = envInt("ALTIBASE_SEQUENCE_BATCH_SIZE", 20);
+        int sequenceMax = envInt("ALTIBASE_SEQUENCE_MAX", 100);
+        int probeMaxTargets = envInt("ALTIBASE_PROBE_MAX_TARGETS", 50);
+        int probeIdleTimeoutSeconds = envInt("ALTIBASE_PROBE_IDLE_TIMEOUT", 300);
+        int reconnectBackoffSeconds = envInt("ALTIBASE_RECONNECT_BACKOFF", 1);
+        int reconnectMaxBackoffSeconds = envInt("ALTIBASE_RECONNECT_MAX_BACKOFF", 60);
+        int queryMaxRows = envInt("ALTIBASE_QUERY_MAX_ROWS", 10000);
+        int queriesReloadSeconds = envInt("ALTIBASE_QUERIES_RELOAD_INTERVAL", 30);
+        boolean cumulativeCounters = Boolean.parseBoolean(env("ALTIBASE_CUMULATIVE_COUNTERS", "false").trim());
+        boolean cumulativeRates = Boolean.parseBoolean(env("ALTIBASE_CUMULATIVE_RATES", "false").trim());
+        int seriesBudget = envInt("ALTIBASE_SERIES_BUDGET", 0);
+        boolean streaming = Boolean.parseBoolean(env("ALTIBASE_STREAMING", "false").trim());
+        int scrapeMaxWaiters = envInt("ALTIBASE_SCRAPE_MAX_WAITERS", 10);
+        int webMaxRequests = envInt("WEB_MAX_REQUESTS", 16);
+        Map<String, Integer> seriesBudgets = parseSeriesBudgets(env("ALTIBASE_SERIES_BUDGETS", ""));
+        for (String group : seriesBudgets.keySet()) {
+            if (!SeriesBudget.GROUPS.contains(group)) log.warn("Ignoring series budget for unknown group: group={} groups={}", group, SeriesBudget.GROUPS);
+        }
 
-        return new ExporterConfig(server, port, user, password, database, listenPort, queriesFile, connectTimeoutSeconds, disabledMetrics, exporterVersion);
+        return new ExporterConfig(server, port, user, password, database, listenPort, queriesFile, connectTimeoutSeconds, disabledMetrics, exporterVersion,
+                Math.max(1, scrapeParallelism), Math.max(0, scrapeIntervalSeconds), metricIntervals,
+                Math.max(0, queryTimeoutSeconds), Math.max(0, scrapeTimeoutSeconds), Math.max(0, breakerFailures), Math.max(1, breakerBackoffSeconds),
+                Math.max(1, sequenceBatchSize), Math.max(0, sequenceMax),
+                modulesFile, Math.max(1, probeMaxTargets), Math.max(1, probeIdleTimeoutSeconds),
+                Math.max(1, reconnectBackoffSeconds), Math.max(1, reconnectMaxBackoffSeconds), Math.max(0, queryMaxRows), Math.max(0, queriesReloadSeconds),
+                cumulativeCounters, cumulativeRates, Math.max(0, seriesBudget), seriesBudgets, streaming, Math.max(0, scrapeMaxWaiters), Math.max(0, webMaxRequests));
     }
 
     public static void main(String[] args) throws InterruptedException {
+        start(args);
+        Thread.currentThread().join();
+    }
+
+    /** A started exporter: HTTP server listening on {@code port}, database connecting in the background. */
+    record Running(int port, ConnectionManager connections, ExporterConfig config) {}
+
+    /** Starts the exporter as {@link #main} does, without blocking; exits the JVM if the HTTP server cannot start. */
+    static Running start(String[] args) {
         if (System.getProperty("log.level") == null) {
             String level = System.getenv("LOG_LEVEL");
             System.setProperty("log.level", (level == null || level.isBlank()) ? "INFO" : level.trim());
@@ -119,47 +345,74 @@ public class Main {
 
         ExporterConfig config = buildConfig(args);
 
-        Properties props = new Properties();
-        props.setProperty("user", config.user());
-        props.setProperty("password", config.password());
+        Properties props = connectionProperties(config);
 
-        log.info("Connecting to Altibase: jdbc={}:{} database={} timeout_seconds={}", config.server(), config.port(), config.database(), config.connectTimeoutSeconds());
-        Connection conn = null;
-        try {
-            conn = connectWithTimeout(config.jdbcUrl(), props, config.connectTimeoutSeconds(), config.server(), config.port(), config.database());
-            if (!conn.isValid(VALIDITY_CHECK_TIMEOUT_SEC)) {
-                SQLException e = new SQLException("Database connection validation failed: isValid(" + VALIDITY_CHECK_TIMEOUT_SEC + ") returned false");
-                log.error("Connection validation failed: jdbc={}:{} database={} error={}", config.server(), config.port(), config.database(), e.getMessage(), e);
-                System.exit(-1);
-            }
-            conn.setReadOnly(true);
-        } catch (SQLException e) {
-            log.error("Connection failed: jdbc={}:{} database={} error={}", config.server(), config.port(), config.database(), e.getMessage(), e);
-            System.exit(-1);
+        log.info("Connecting to Altibase in background: jdbc={}:{} database={} timeout_seconds={}", config.server(), config.port(), config.database(), config.connectTimeoutSeconds());
+        ConnectionManager connections = new ConnectionManager(() -> openConnection(config, props),
+                config.reconnectBackoffSeconds(), config.reconnectMaxBackoffSeconds());
+
+        ConnectionPool pool = null;
+        if (config.scrapeParallelism() > 1) {
+            pool = new ConnectionPool(() -> openConnection(config, props), config.scrapeParallelism());
+            connections.onReconnect(pool::evictIdle);
+            log.info("Parallel scrape enabled: pool_size={}", config.scrapeParallelism());
         }
-        final Connection connFinal = conn;
-        log.info("Database connection established (read-only)");
-        try (var stmt = conn.createStatement()) {
-            stmt.execute("exec set_client_info('altibase-exporter')");
-        } catch (SQLException ignored) {}
+        final ConnectionPool poolFinal = pool;
 
         JvmMetrics.builder().register();
         log.info("JVM metrics registered");
 
-        PrometheusRegistry.defaultRegistry.register(new AltibaseCollector(conn, config.disabledMetrics(), config.exporterVersion()));
+        List<MultiCollector> collectors = new ArrayList<>();
+        AltibaseCollector altibaseCollector = new AltibaseCollector(connections, pool, config);
+        connections.onReconnect(altibaseCollector::invalidateSchemaCapabilities);
+        collectors.add(altibaseCollector);
         log.info("Altibase metrics registered (custom collector, on-the-fly): disabled={}", config.disabledMetrics().isEmpty() ? "none" : config.disabledMetrics());
 
+        QueriesReloader queriesReloader = null;
         if (config.queriesFile() != null && !config.queriesFile().isBlank()) {
+            CustomQueryCollector customCollector = new CustomQueryCollector(connections, pool, List.of(), config.queryTimeoutSeconds(), config.queryMaxRows());
+            collectors.add(customCollector);
+            queriesReloader = new QueriesReloader(Path.of(config.queriesFile()), customCollector);
+            queriesReloader.reload();
+            if (config.queriesReloadSeconds() > 0) {
+                queriesReloader.start(config.queriesReloadSeconds());
+                PrometheusRegistry.defaultRegistry.register(queriesReloader);
+            }
+        }
+        final QueriesReloader queriesReloaderFinal = queriesReloader;
+
+        boolean streaming = config.streaming() && pool == null && config.scrapeIntervalSeconds() == 0;
+        if (config.streaming() && !streaming) {
+            log.warn("Streaming exposition disabled (needs a serial scrape without background scheduler): scrape_parallelism={} scrape_interval={}",
+                    config.scrapeParallelism(), config.scrapeIntervalSeconds());
+        }
+        final AltibaseCollector streamingCollector = streaming ? altibaseCollector : null;
+
+        ScrapeScheduler scheduler = null;
+        if (streaming) {
+            for (MultiCollector c : collectors) if (c != altibaseCollector) PrometheusRegistry.defaultRegistry.register(c);
+            log.info("Streaming exposition enabled: path={} registry_path={}", METRICS_PATH, REGISTRY_PATH);
+        } else if (config.scrapeIntervalSeconds() > 0) {
+            scheduler = new ScrapeScheduler(collectors, config.scrapeIntervalSeconds());
+            PrometheusRegistry.defaultRegistry.register(scheduler);
+            scheduler.start();
+        } else {
+            for (MultiCollector c : collectors) PrometheusRegistry.defaultRegistry.register(c);
+        }
+        final ScrapeScheduler schedulerFinal = scheduler;
+
+        Map<String, ProbeModules.Module> modules = ProbeModules.fromConfig(config);
+        if (config.modulesFile() != null && !config.modulesFile().isBlank()) {
             try {
-                List<CustomQueryCollector.QueryDef> customQueries = QueriesLoader.load(Path.of(config.queriesFile()));
-                if (!customQueries.isEmpty()) {
-                    PrometheusRegistry.defaultRegistry.register(new CustomQueryCollector(conn, customQueries));
-                    log.info("Custom queries loaded: file={} count={}", config.queriesFile(), customQueries.size());
-                }
+                modules = ProbeModules.load(Path.of(config.modulesFile()), config.connectTimeoutSeconds());
+                log.info("Probe modules loaded: file={} modules={}", config.modulesFile(), modules.keySet());
             } catch (Exception e) {
-                log.warn("Custom queries file load failed: file={} error={}", config.queriesFile(), e.getMessage());
+                log.warn("Probe modules file load failed, using default module: file={} error={}", config.modulesFile(), e.getMessage());
             }
         }
+        final ProbeTargetCache probes = new ProbeTargetCache(config, modules,
+                target -> openConnection(target, connectionProperties(target)), config.probeMaxTargets(), config.probeIdleTimeoutSeconds());
+        PrometheusRegistry.defaultRegistry.register(probes);
 
         HttpHandler rootHandler = (HttpExchange exchange) -> {
             if (!"GET".equals(exchange.getRequestMethod())) {
@@ -169,13 +422,18 @@ public class Main {
             String path = exchange.getRequestURI().getPath();
             if ("/".equals(path) || path.isEmpty()) {
                 String html = "<html><head><title>Altibase Exporter</title></head><body>\n"
-                        + "<h1>Altibase Exporter</h1>\n<p><a href=\"" + METRICS_PATH + "\">Metrics</a></p>\n</body></html>";
+                        + "<h1>Altibase Exporter</h1>\n<p><a href=\"" + METRICS_PATH + "\">Metrics</a></p>\n"
+                        + "<p>Probe: <code>" + PROBE_PATH + "?target=host:port/database&amp;module=default</code></p>\n</body></html>";
                 byte[] body = html.getBytes(StandardCharsets.UTF_8);
                 exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
                 exchange.sendResponseHeaders(200, body.length);
                 try (OutputStream os = exchange.getResponseBody()) {
                     os.write(body);
                 }
+            } else if (streamingCollector != null && METRICS_PATH.equals(path)) {
+                handleStreamingMetrics(exchange, streamingCollector);
+            } else if (PROBE_PATH.equals(path)) {
+                handleProbe(exchange, probes);
             } else if ("/-/healthy".equals(path)) {
                 exchange.sendResponseHeaders(200, -1);
             } else {
@@ -185,46 +443,49 @@ public class Main {
 
         HTTPServer httpServer = null;
         try {
-            httpServer = HTTPServer.builder()
+            HTTPServer.Builder builder = HTTPServer.builder()
                     .port(config.listenPort())
-                    .defaultHandler(rootHandler)
-                    .buildAndStart();
+                    .executorService(new BoundedVirtualExecutor("altibase-http", config.webMaxRequests()))
+                    .defaultHandler(rootHandler);
+            if (streamingCollector != null) builder.metricsHandlerPath(REGISTRY_PATH);
+            httpServer = builder.buildAndStart();
         } catch (IOException e) {
             log.error("HTTP server failed to start: port={} error={}", config.listenPort(), e.getMessage(), e);
             System.exit(-1);
         }
         if (httpServer == null) System.exit(-1);
         final HTTPServer httpServerFinal = httpServer;
-        log.info("HTTP server started: port={} path={}", config.listenPort(), METRICS_PATH);
+        log.info("HTTP server started: port={} path={} max_requests={}", config.listenPort(), METRICS_PATH, config.webMaxRequests());
 
+        // The hook stays a platform thread: it runs once at exit and waits, bounded, for the close done on BLOCKING.
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             log.info("Shutting down");
+            if (schedulerFinal != null) schedulerFinal.close();
+            if (queriesReloaderFinal != null) queriesReloaderFinal.close();
             try {
                 httpServerFinal.close();
             } catch (Exception e) {
                 log.error("HTTP server close failed: {}", e.getMessage());
             }
-            Thread closeThread = new Thread(() -> {
-                try {
-                    connFinal.close();
-                } catch (SQLException e) {
-                    log.error("Connection close failed: {}", e.getMessage());
-                }
+            Future<?> close = BLOCKING.submit(() -> {
+                if (poolFinal != null) poolFinal.close();
+                probes.close();
+                connections.close();
             });
-            closeThread.setDaemon(true);
-            closeThread.start();
             try {
-                closeThread.join(CONNECTION_CLOSE_TIMEOUT_MS);
+                close.get(CONNECTION_CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.warn("Connection close did not complete in {}ms, exiting", CONNECTION_CLOSE_TIMEOUT_MS);
+            } catch (ExecutionException e) {
+                log.warn("Connection close failed: {}", e.getCause().getMessage());
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
-            if (closeThread.isAlive()) {
-                log.warn("Connection close did not complete in {}ms, exiting", CONNECTION_CLOSE_TIMEOUT_MS);
-            }
             log.info("Exiting");
         }));
 
+        connections.start();
         log.info("Altibase exporter ready: port={} jdbc={}:{} metrics=http://localhost:{}{}", httpServerFinal.getPort(), config.server(), config.port(), httpServerFinal.getPort(), METRICS_PATH);
-        Thread.currentThread().join();
+        return new Running(httpServerFinal.getPort(), connections, config);
     }
 }
@@ -0,0 +1,97 @@
+package com.f9n.altibase.exporter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yaml.snakeyaml.Yaml;
+
+/** Loads /probe modules from YAML: modules: { name: { user, password, database?, connect_timeout?, disabled_metrics? } }. */
+public final class ProbeModules {
+
+    /** Module used when /probe has no module parameter. */
+    public static final String DEFAULT_MODULE = "default";
+
+    private static final Logger log = LoggerFactory.getLogger(ProbeModules.class);
+
+    /** Credentials and scrape settings shared by all targets probed with this module; null database = from target or main config. */
+    public record Module(String name, String user, String password, String database, int connectTimeoutSeconds, Set<String> disabledMetrics) {
+        public Module {
+            disabledMetrics = disabledMetrics != null ? Set.copyOf(disabledMetrics) : Set.of();
+        }
+
+        @Override
+        public String toString() {
+            return "Module[name=" + name + ", user=" + user + "]";
+        }
+    }
+
+    private ProbeModules() {}
+
+    /** Single "default" module with the main connection's credentials; used when no modules file is configured. */
+    public static Map<String, Module> fromConfig(ExporterConfig config) {
+        return Map.of(DEFAULT_MODULE, new Module(DEFAULT_MODULE, config.user(), config.password(), null, config.connectTimeoutSeconds(), Set.of()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Module> load(Path path, int defaultConnectTimeoutSeconds) throws IOException {
+        String content = Files.readString(path);
+        Yaml yaml = new Yaml();
+        Map<String, Object> root = yaml.load(content);
+        if (root == null) return Map.of();
+        Object modulesObj = root.get("modules");
+        if (!(modulesObj instanceof Map)) return Map.of();
+        Map<String, Module> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> e : ((Map<String, Object>) modulesObj).entrySet()) {
+            if (!(e.getValue() instanceof Map)) {
+                log.debug("Skipping module entry that is not a mapping: {}", e.getKey());
+                continue;
+            }
+            Map<String, Object> entry = (Map<String, Object>) e.getValue();
+            String user = getString(entry, "user");
+            String password = getString(entry, "password");
+            if (user == null || password == null) {
+                log.debug("Skipping module with missing user/password: {}", e.getKey());
+                continue;
+            }
+            int connectTimeout = defaultConnectTimeoutSeconds;
+            String timeout = getString(entry, "connect_timeout");
+            if (timeout != null) {
+                try {
+                    connectTimeout = Integer.parseInt(timeout);
+                } catch (NumberFormatException ex) {
+                    log.warn("Ignoring module connect_timeout: module={} value={}", e.getKey(), timeout);
+                }
+            }
+            result.put(e.getKey(), new Module(e.getKey(), user, password, getString(entry, "database"), connectTimeout,
+                    Set.copyOf(getStringList(entry, "disabled_metrics"))));
+        }
+        log.debug("Loaded {} probe modules from {}", result.size(), path);
+        return Map.copyOf(result);
+    }
+
+    private static String getString(Map<String, Object> map, String key) {
+        Object v = map.get(key);
+        if (v == null) return null;
+        String s = v.toString().trim();
+        return s.isBlank() ? null : s;
+    }
+
+    private static List<String> getStringList(Map<String, Object> map, String key) {
+        Object v = map.get(key);
+        List<String> out = new ArrayList<>();
+        if (v instanceof List) {
+            for (Object e : (List<?>) v) {
+                if (e != null && !e.toString().isBlank()) out.add(e.toString().trim());
+            }
+        }
+        return out;
+    }
+}
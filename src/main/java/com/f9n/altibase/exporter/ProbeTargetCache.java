@@ -0,0 +1,254 @@
+package com.f9n.altibase.exporter;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.prometheus.metrics.model.registry.MultiCollector;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.Labels;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Warm per-target connections and collectors for /probe (one per target + module), LRU-bounded and evicted after
+ * an idle timeout. Probes of the same target are serialized on its entry; different targets run concurrently.
+ * As a {@link MultiCollector} it exports the cache's own size and eviction count on /metrics.
+ */
+public final class ProbeTargetCache implements MultiCollector, AutoCloseable {
+
+    /** Opens a ready-to-use read-only connection for a target config. */
+    @FunctionalInterface
+    public interface Connector {
+        Connection open(ExporterConfig config) throws SQLException;
+    }
+
+    /** Parsed /probe target: host[:port][/database]. */
+    record Target(String server, int port, String database) {
+        @Override
+        public String toString() {
+            return server + ":" + port + "/" + database;
+        }
+    }
+
+    private static final class Entry {
+        final ExporterConfig config;
+        Connection conn;
+        AltibaseCollector collector;
+        boolean closed;
+        volatile long lastUsedNanos = System.nanoTime();
+
+        Entry(ExporterConfig config) {
+            this.config = config;
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ProbeTargetCache.class);
+    private static final int VALIDITY_CHECK_TIMEOUT_SEC = 2;
+    private static final Pattern TARGET = Pattern.compile("^([A-Za-z0-9._-]+|\\[[0-9A-Fa-f:.]+])(?::(\\d{1,5}))?(?:/([A-Za-z0-9_]+))?$");
+    private static final String TARGETS_NAME = "altibase_exporter_probe_targets";
+    private static final String EVICTIONS_NAME = "altibase_exporter_probe_evictions";
+
+    private final ExporterConfig base;
+    private final Map<String, ProbeModules.Module> modules;
+    private final Connector connector;
+    private final int maxTargets;
+    private final long idleTimeoutNanos;
+    /** Access-ordered: iteration starts at the least recently probed target. Guarded by itself. */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong evictions = new AtomicLong();
+    private final ScheduledExecutorService sweeper;
+
+    public ProbeTargetCache(ExporterConfig base, Map<String, ProbeModules.Module> modules, Connector connector,
+                            int maxTargets, int idleTimeoutSeconds) {
+        if (maxTargets < 1) throw new IllegalArgumentException("maxTargets must be >= 1: " + maxTargets);
+        this.base = base;
+        this.modules = Map.copyOf(modules);
+        this.connector = connector;
+        this.maxTargets = maxTargets;
+        this.idleTimeoutNanos = Math.max(1, idleTimeoutSeconds) * 1_000_000_000L;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("altibase-probe-sweeper").factory());
+        long sweepSeconds = Math.max(1, idleTimeoutSeconds / 2);
+        sweeper.scheduleWithFixedDelay(this::evictIdle, sweepSeconds, sweepSeconds, TimeUnit.SECONDS);
+    }
+
+    /** Parses host[:port][/database]; port and database default to the main config's. */
+    static Target parseTarget(String target, ExporterConfig defaults) {
+        if (target == null || target.isBlank()) throw new IllegalArgumentException("missing target parameter");
+        Matcher m = TARGET.matcher(target.trim());
+        if (!m.matches()) throw new IllegalArgumentException("invalid target (expected host[:port][/database]): " + target);
+        int port = m.group(2) != null ? Integer.parseInt(m.group(2)) : defaults.port();
+        if (port < 1 || port > 65535) throw new IllegalArgumentException("invalid target port: " + target);
+        return new Target(m.group(1), port, m.group(3) != null ? m.group(3) : defaults.database());
+    }
+
+    /**
+     * Scrapes one target with the given module's credentials, reusing its warm connection. A target that cannot
+     * be reached yields {@code altibase_exporter_last_scrape_success 0}.
+     *
+     * @throws IllegalArgumentException on an invalid target or unknown module (HTTP 400)
+     */
+    public MetricSnapshots probe(String target, String moduleName) {
+        String name = moduleName == null || moduleName.isBlank() ? ProbeModules.DEFAULT_MODULE : moduleName.trim();
+        ProbeModules.Module module = modules.get(name);
+        if (module == null) throw new IllegalArgumentException("unknown module: " + name);
+        Target t = parseTarget(target, base);
+        String database = module.database() != null && !target.contains("/") ? module.database() : t.database();
+        String key = name + "@" + t.server() + ":" + t.port() + "/" + database;
+        while (true) {
+            Entry entry = acquire(key, module, t, database);
+            synchronized (entry) {
+                if (entry.closed) continue;
+                entry.lastUsedNanos = System.nanoTime();
+                if (!ensureConnected(entry, key)) return failed();
+                return entry.collector.collect();
+            }
+        }
+    }
+
+    private Entry acquire(String key, ProbeModules.Module module, Target t, String database) {
+        List<Entry> evicted = new ArrayList<>();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(base.forTarget(t.server(), t.port(), database, module.user(), module.password(),
+                        module.connectTimeoutSeconds(), module.disabledMetrics()));
+                entries.put(key, entry);
+                Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+                while (entries.size() > maxTargets && it.hasNext()) {
+                    Map.Entry<String, Entry> eldest = it.next();
+                    if (eldest.getValue() == entry) continue;
+                    evicted.add(eldest.getValue());
+                    it.remove();
+                    log.info("Probe target evicted (cache full): target={} max_targets={}", eldest.getKey(), maxTargets);
+                }
+            }
+        }
+        for (Entry e : evicted) closeEntry(e);
+        return entry;
+    }
+
+    /** Reuses the entry's connection if still valid, else (re)connects. Caller holds the entry lock. */
+    private boolean ensureConnected(Entry entry, String key) {
+        if (entry.conn != null) {
+            boolean valid;
+            try {
+                valid = entry.conn.isValid(VALIDITY_CHECK_TIMEOUT_SEC);
+            } catch (SQLException e) {
+                valid = false;
+            }
+            if (valid) return true;
+            log.warn("Probe connection lost, reconnecting: target={}", key);
+            closeQuietly(entry.conn);
+            entry.conn = null;
+            entry.collector = null;
+        }
+        try {
+            long start = System.nanoTime();
+            entry.conn = connector.open(entry.config);
+            entry.collector = new AltibaseCollector(entry.conn, null, entry.config);
+            log.info("Probe connection established: target={} duration_seconds={}", key, String.format("%.3f", (System.nanoTime() - start) / 1e9));
+            return true;
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Probe connection failed: target={} error={}", key, e.getMessage());
+            return false;
+        }
+    }
+
+    private static MetricSnapshots failed() {
+        AltibaseCollector.ScrapeContext ctx = new AltibaseCollector.ScrapeContext();
+        ctx.addGauge("up", 0);
+        ctx.addGauge("exporter_last_scrape_success", 0);
+        return new MetricSnapshots(ctx.buildSnapshots());
+    }
+
+    void evictIdle() {
+        long now = System.nanoTime();
+        List<Entry> evicted = new ArrayList<>();
+        synchronized (entries) {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Entry> e = it.next();
+                if (now - e.getValue().lastUsedNanos < idleTimeoutNanos) continue;
+                evicted.add(e.getValue());
+                it.remove();
+                log.info("Probe target evicted (idle): target={}", e.getKey());
+            }
+        }
+        for (Entry e : evicted) closeEntry(e);
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void closeEntry(Entry entry) {
+        evictions.incrementAndGet();
+        synchronized (entry) {
+            entry.closed = true;
+            if (entry.conn != null) closeQuietly(entry.conn);
+            entry.conn = null;
+            entry.collector = null;
+        }
+    }
+
+    private static void closeQuietly(Connection c) {
+        try {
+            c.close();
+        } catch (SQLException e) {
+            log.debug("Probe connection close failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public MetricSnapshots collect() {
+        return new MetricSnapshots(
+                GaugeSnapshot.builder()
+                        .name(TARGETS_NAME)
+                        .help("Probe targets with a cached connection (/probe).")
+                        .dataPoint(new GaugeSnapshot.GaugeDataPointSnapshot(size(), Labels.EMPTY, null))
+                        .build(),
+                CounterSnapshot.builder()
+                        .name(EVICTIONS_NAME)
+                        .help("Probe targets evicted from the connection cache (idle or cache full).")
+                        .dataPoint(new CounterSnapshot.CounterDataPointSnapshot(evictions.get(), Labels.EMPTY, null, 0))
+                        .build());
+    }
+
+    @Override
+    public List<String> getPrometheusNames() {
+        return List.of(TARGETS_NAME, EVICTIONS_NAME);
+    }
+
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+        List<Entry> all;
+        synchronized (entries) {
+            all = new ArrayList<>(entries.values());
+            entries.clear();
+        }
+        for (Entry e : all) {
+            synchronized (e) {
+                e.closed = true;
+                if (e.conn != null) closeQuietly(e.conn);
+                e.conn = null;
+            }
+        }
+    }
+}
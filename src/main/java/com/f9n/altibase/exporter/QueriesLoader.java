@@ -5,22 +5,32 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.Yaml;
 
-/** Loads custom query definitions from YAML: queries: [ { name, help, sql, label_columns? } ]. */
+/**
+ * Loads custom query definitions from YAML: queries: [ { name, help, sql, label_columns?, interval?, timeout?, max_rows?,
+ * parallel?, metrics? } ], where metrics: [ { name, column, type? (gauge|counter|histogram), help?, bucket_column?, sum_column? } ].
+ */
 public final class QueriesLoader {
 
     private static final Logger log = LoggerFactory.getLogger(QueriesLoader.class);
 
     private QueriesLoader() {}
 
-    @SuppressWarnings("unchecked")
     public static List<CustomQueryCollector.QueryDef> load(Path path) throws IOException {
-        String content = Files.readString(path);
+        List<CustomQueryCollector.QueryDef> result = parse(Files.readString(path));
+        log.debug("Loaded {} custom queries from {}", result.size(), path);
+        return result;
+    }
+
+    /** Parses queries file content; entries missing name/help/sql are skipped. */
+    @SuppressWarnings("unchecked")
+    public static List<CustomQueryCollector.QueryDef> parse(String content) {
         Yaml yaml = new Yaml();
         Map<String, Object> root = yaml.load(content);
         if (root == null) return List.of();
@@ -37,9 +47,10 @@ public final class QueriesLoader {
                 continue;
             }
             List<String> labelColumns = getStringList(entry, "label_columns");
-            result.add(new CustomQueryCollector.QueryDef(name, help, sql, labelColumns));
+            result.add(new CustomQueryCollector.QueryDef(name, help, sql, labelColumns,
+                    getNonNegativeInt(entry, name, "interval"), getNonNegativeInt(entry, name, "timeout"), getNonNegativeInt(entry, name, "max_rows"),
+                    Boolean.parseBoolean(String.valueOf(entry.get("parallel"))), getMetrics(entry, name)));
         }
-        log.debug("Loaded {} custom queries from {}", result.size(), path);
         return result;
     }
 
@@ -50,6 +61,45 @@ public final class QueriesLoader {
         return s.isBlank() ? null : s;
     }
 
+    @SuppressWarnings("unchecked")
+    private static List<CustomQueryCollector.MetricDef> getMetrics(Map<String, Object> entry, String query) {
+        if (!(entry.get("metrics") instanceof List<?> list)) return List.of();
+        List<CustomQueryCollector.MetricDef> out = new ArrayList<>();
+        for (Object o : list) {
+            if (!(o instanceof Map)) continue;
+            Map<String, Object> m = (Map<String, Object>) o;
+            String name = getString(m, "name");
+            String column = getString(m, "column");
+            String type = getString(m, "type");
+            String bucketColumn = getString(m, "bucket_column");
+            CustomQueryCollector.MetricType metricType;
+            try {
+                metricType = type == null ? CustomQueryCollector.MetricType.GAUGE : CustomQueryCollector.MetricType.valueOf(type.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping custom query metric with unknown type: query={} metric={} type={}", query, name, type);
+                continue;
+            }
+            if (name == null || column == null || (metricType == CustomQueryCollector.MetricType.HISTOGRAM && bucketColumn == null)) {
+                log.warn("Skipping custom query metric with missing name/column/bucket_column: query={} metric={}", query, m);
+                continue;
+            }
+            out.add(new CustomQueryCollector.MetricDef(name, metricType, getString(m, "help"), column, bucketColumn, getString(m, "sum_column")));
+        }
+        return out;
+    }
+
+    /** Non-negative integer option; absent or invalid = 0 (collector default). */
+    private static int getNonNegativeInt(Map<String, Object> map, String query, String key) {
+        String s = getString(map, key);
+        if (s == null) return 0;
+        try {
+            return Math.max(0, Integer.parseInt(s));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring custom query option: name={} {}={}", query, key, s);
+            return 0;
+        }
+    }
+
     private static List<String> getStringList(Map<String, Object> map, String key) {
         Object v = map.get(key);
         if (v == null) return null;
@@ -0,0 +1,154 @@
+package com.f9n.altibase.exporter;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.prometheus.metrics.model.registry.MultiCollector;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.Labels;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hot reload of the custom queries file. A {@link WatchService} on the file's directory triggers a reload on
+ * change; a periodic content check covers file systems without events and ConfigMap symlink swaps. The new
+ * definitions are parsed and validated on the reload thread, then swapped into the collector atomically; a file
+ * that fails to load or validate leaves the previous queries in place.
+ */
+public final class QueriesReloader implements MultiCollector, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(QueriesReloader.class);
+    private static final String RELOADS_NAME = "altibase_exporter_queries_reloads";
+    private static final String SUCCESS_NAME = "altibase_exporter_queries_last_reload_success";
+    private static final String TIMESTAMP_NAME = "altibase_exporter_queries_last_reload_timestamp_seconds";
+
+    private final Path file;
+    private final CustomQueryCollector collector;
+    private final ScheduledExecutorService executor;
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile boolean lastSuccess = true;
+    private volatile double lastReloadSeconds = Double.NaN;
+    /** Content of the last successfully applied file; guarded by this. */
+    private String appliedContent;
+    private WatchService watcher;
+
+    public QueriesReloader(Path file, CustomQueryCollector collector) {
+        this.file = file;
+        this.collector = collector;
+        this.executor = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("altibase-queries-reload").factory());
+    }
+
+    /** Watches the file's directory and polls its content every {@code pollSeconds} as a fallback. */
+    public void start(int pollSeconds) {
+        executor.scheduleWithFixedDelay(this::reload, pollSeconds, pollSeconds, TimeUnit.SECONDS);
+        Path dir = file.toAbsolutePath().getParent();
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+            dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Queries file watch unavailable, polling only: dir={} poll_seconds={} error={}", dir, pollSeconds, e.getMessage());
+            return;
+        }
+        Thread.ofVirtual().name("altibase-queries-watch").start(this::watchLoop);
+        log.info("Queries file hot reload enabled: file={} poll_seconds={}", file, pollSeconds);
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                key.pollEvents();
+                // Editors and ConfigMap updates emit bursts of events; the short delay lets the file settle.
+                executor.schedule(this::reload, 200, TimeUnit.MILLISECONDS);
+                if (!key.reset()) {
+                    log.warn("Queries file watch cancelled, polling only: file={}", file);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    /**
+     * Loads the file if its content changed since the last successful reload; returns true when a new query set
+     * was applied. Runs on the reload thread, or directly at startup.
+     */
+    public synchronized boolean reload() {
+        String content;
+        List<CustomQueryCollector.QueryDef> queries;
+        try {
+            content = Files.readString(file);
+            if (Objects.equals(content, appliedContent)) return false;
+            queries = QueriesLoader.parse(content);
+            CustomQueryCollector.validate(queries);
+        } catch (IOException | RuntimeException e) {
+            failures.incrementAndGet();
+            lastSuccess = false;
+            lastReloadSeconds = System.currentTimeMillis() / 1000.0;
+            log.warn("Custom queries reload failed, keeping previous queries: file={} count={} error={}", file, collector.size(), e.getMessage());
+            return false;
+        }
+        collector.reload(queries);
+        appliedContent = content;
+        successes.incrementAndGet();
+        lastSuccess = true;
+        lastReloadSeconds = System.currentTimeMillis() / 1000.0;
+        log.info("Custom queries loaded: file={} count={}", file, queries.size());
+        return true;
+    }
+
+    @Override
+    public MetricSnapshots collect() {
+        CounterSnapshot reloads = CounterSnapshot.builder()
+                .name(RELOADS_NAME)
+                .help("Custom queries file reloads by result.")
+                .dataPoint(new CounterSnapshot.CounterDataPointSnapshot(successes.get(), Labels.of("result", "success"), null, 0))
+                .dataPoint(new CounterSnapshot.CounterDataPointSnapshot(failures.get(), Labels.of("result", "failure"), null, 0))
+                .build();
+        GaugeSnapshot success = GaugeSnapshot.builder()
+                .name(SUCCESS_NAME)
+                .help("1 if the latest custom queries file reload succeeded, else 0.")
+                .dataPoint(new GaugeSnapshot.GaugeDataPointSnapshot(lastSuccess ? 1 : 0, Labels.EMPTY, null))
+                .build();
+        double timestamp = lastReloadSeconds;
+        if (Double.isNaN(timestamp)) return new MetricSnapshots(reloads, success);
+        return new MetricSnapshots(reloads, success, GaugeSnapshot.builder()
+                .name(TIMESTAMP_NAME)
+                .help("Unix time of the latest custom queries file reload attempt.")
+                .dataPoint(new GaugeSnapshot.GaugeDataPointSnapshot(timestamp, Labels.EMPTY, null))
+                .build());
+    }
+
+    @Override
+    public List<String> getPrometheusNames() {
+        return List.of(RELOADS_NAME, SUCCESS_NAME, TIMESTAMP_NAME);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                log.debug("Queries file watcher close failed: {}", e.getMessage());
+            }
+        }
+    }
+}
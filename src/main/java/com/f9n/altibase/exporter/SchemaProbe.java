@@ -0,0 +1,138 @@
+package com.f9n.altibase.exporter;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Schema capability probe: for scrapes whose V$/catalog columns differ across Altibase versions, finds the first
+ * SQL variant the server accepts (cheap {@code WHERE 1 = 0} column checks) so steady-state scrapes issue exactly
+ * one statement per metric. Run at connect time and again when V$VERSION changes.
+ */
+final class SchemaProbe {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaProbe.class);
+
+    static final String REPLICATION_SENDER = "replication_sender";
+    static final String REPLICATION_RECEIVER = "replication_receiver";
+    static final String SEQUENCES = "sequences";
+    static final String TX_MEMORY_VIEW_SCN = "tx_memory_view_scn";
+
+    /** One SQL variant of a capability; {@code probeSql} null = always available (last-resort fallback). */
+    record Variant(String name, String sql, String probeSql) {}
+
+    /** Pinned variants (capability → variant, absent = none works) and the server version they were probed on. */
+    record Capabilities(Map<String, Variant> variants, String version) {
+        Capabilities {
+            variants = Map.copyOf(variants);
+        }
+
+        Variant get(String capability) {
+            return variants.get(capability);
+        }
+    }
+
+    private static String senderSql(String hostCols, String extraCols) {
+        return "SELECT REP_NAME, " + hostCols + ", STATUS" + extraCols + " FROM V$REPSENDER";
+    }
+
+    private static Variant probed(String name, String sql) {
+        return new Variant(name, sql, sql + " WHERE 1 = 0");
+    }
+
+    private static final String PEER = "PEER_IP, PEER_PORT";
+    private static final String REMOTE = "REMOTE_IP, REMOTE_REP_PORT";
+    private static final String DETAIL = ", REPL_MODE, XSN, COMMIT_XSN, NET_ERROR_FLAG";
+    private static final String MODE = ", REPL_MODE";
+
+    /** Candidate variants per capability, in preference order. */
+    static final Map<String, List<Variant>> CANDIDATES = candidates();
+
+    private static Map<String, List<Variant>> candidates() {
+        Map<String, List<Variant>> m = new LinkedHashMap<>();
+        m.put(REPLICATION_SENDER, List.of(
+                probed("peer_detail", senderSql(PEER, DETAIL)),
+                probed("remote_detail", senderSql(REMOTE, DETAIL)),
+                probed("peer", senderSql(PEER, MODE)),
+                probed("remote", senderSql(REMOTE, MODE)),
+                probed("peer_no_mode", senderSql(PEER, "")),
+                probed("remote_no_mode", senderSql(REMOTE, ""))));
+        m.put(REPLICATION_RECEIVER, List.of(
+                probed("remote", "SELECT REP_NAME, " + REMOTE + " FROM V$REPRECEIVER"),
+                probed("peer", "SELECT REP_NAME, " + PEER + " FROM V$REPRECEIVER")));
+        m.put(SEQUENCES, List.of(
+                probed("full", "SELECT USER_NAME, SEQUENCE_NAME, MIN_VALUE, MAX_VALUE, CYCLE, CACHE_SIZE FROM SYSTEM_.SYS_SEQUENCES_"),
+                probed("no_cache", "SELECT USER_NAME, SEQUENCE_NAME, MIN_VALUE, MAX_VALUE, CYCLE FROM SYSTEM_.SYS_SEQUENCES_"),
+                probed("max_only", "SELECT USER_NAME, SEQUENCE_NAME, MAX_VALUE FROM SYSTEM_.SYS_SEQUENCES_")));
+        m.put(TX_MEMORY_VIEW_SCN, List.of(
+                new Variant("full", """
+                    SELECT ST.SESSION_ID, TX.ID AS TX_ID, ST.TOTAL_TIME, ST.EXECUTE_TIME, SUBSTR(ST.QUERY, 1, 50) FROM V$STATEMENT ST, V$TRANSACTION TX \
+                    WHERE ST.TX_ID = TX.ID AND TX.ID IN (SELECT T.ID FROM V$TRANSACTION T, (SELECT MINMEMSCNINTXS AS SCN_VAL FROM V$MEMGC LIMIT 1) GC \
+                    WHERE T.MEMORY_VIEW_SCN = GC.SCN_VAL OR T.MIN_MEMORY_LOB_VIEW_SCN = GC.SCN_VAL) AND ST.SESSION_ID != SESSION_ID() AND TX.SESSION_ID <> SESSION_ID() ORDER BY ST.TOTAL_TIME DESC LIMIT 1
+                    """,
+                        "SELECT T.MEMORY_VIEW_SCN, T.MIN_MEMORY_LOB_VIEW_SCN, G.MINMEMSCNINTXS FROM V$TRANSACTION T, V$MEMGC G WHERE 1 = 0"),
+                new Variant("fallback", """
+                    SELECT ST.SESSION_ID, TX.ID AS TX_ID, ST.TOTAL_TIME, ST.EXECUTE_TIME, SUBSTR(ST.QUERY, 1, 50) FROM V$STATEMENT ST, V$TRANSACTION TX \
+                    WHERE ST.TX_ID = TX.ID AND ST.SESSION_ID != SESSION_ID() AND TX.SESSION_ID <> SESSION_ID() ORDER BY ST.TOTAL_TIME DESC LIMIT 1
+                    """, null)));
+        return m;
+    }
+
+    private SchemaProbe() {}
+
+    /**
+     * Probes every capability on the given statement. Missing columns/views rule a variant out; any other error
+     * (e.g. connection failure) aborts the probe so it is retried instead of pinning a degraded variant.
+     */
+    static Capabilities probe(Statement stmt) throws SQLException {
+        String version = "unknown";
+        try (ResultSet rs = stmt.executeQuery("SELECT PRODUCT_VERSION FROM V$VERSION")) {
+            if (rs.next() && rs.getString(1) != null && !rs.getString(1).isBlank()) version = rs.getString(1).trim();
+        }
+        Map<String, Variant> chosen = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Variant>> e : CANDIDATES.entrySet()) {
+            Variant v = firstSupported(stmt, e.getKey(), e.getValue());
+            if (v != null) chosen.put(e.getKey(), v);
+        }
+        Capabilities caps = new Capabilities(chosen, version);
+        log.info("Schema capabilities probed: version={} variants={}", version, describe(caps));
+        return caps;
+    }
+
+    private static Variant firstSupported(Statement stmt, String capability, List<Variant> variants) throws SQLException {
+        for (Variant v : variants) {
+            if (v.probeSql() == null) return v;
+            try {
+                stmt.executeQuery(v.probeSql()).close();
+                return v;
+            } catch (SQLException e) {
+                if (!isSchemaMismatch(e)) throw e;
+                log.debug("Schema probe: capability={} variant={} unsupported: {}", capability, v.name(), e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /** Missing column or table/view ("Column not found", "Table or view was not found"). */
+    static boolean isSchemaMismatch(SQLException e) {
+        String msg = e.getMessage();
+        return msg != null && msg.toLowerCase(Locale.ROOT).contains("not found");
+    }
+
+    /** capability=variant pairs in probe order; "none" when no variant works. */
+    static Map<String, String> describe(Capabilities caps) {
+        Map<String, String> out = new LinkedHashMap<>();
+        for (String capability : CANDIDATES.keySet()) {
+            Variant v = caps.get(capability);
+            out.put(capability, v != null ? v.name() : "none");
+        }
+        return out;
+    }
+}
@@ -13,4 +13,10 @@ public @interface ScrapeMetric {
     String[] value();
 
     boolean catchSchemaError() default false;
+
+    /** Refresh interval in seconds; results are cached and replayed until it expires. 0 = every scrape. Override per key via ALTIBASE_METRIC_INTERVALS. */
+    int intervalSeconds() default 0;
+
+    /** Single-value queries the method reads via queryLong; fused with other methods' scalars into one SELECT per scrape. */
+    String[] scalars() default {};
 }
@@ -0,0 +1,95 @@
+package com.f9n.altibase.exporter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.prometheus.metrics.model.registry.MultiCollector;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.Labels;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scrapes the wrapped collectors on a fixed interval in the background and publishes the result as one immutable
+ * {@link MetricSnapshots}; {@link #collect()} only serves the latest published snapshot (plus its age), so
+ * /metrics latency does not depend on database latency.
+ */
+public final class ScrapeScheduler implements MultiCollector, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ScrapeScheduler.class);
+    private static final String AGE_KEY = "exporter_snapshot_age_seconds";
+
+    /** Published result of one background scrape. */
+    private record Published(MetricSnapshots snapshots, long publishedAtMillis) {}
+
+    private final List<MultiCollector> sources;
+    private final long intervalSeconds;
+    private final AtomicReference<Published> latest = new AtomicReference<>();
+    private final ScheduledExecutorService executor;
+
+    public ScrapeScheduler(List<MultiCollector> sources, long intervalSeconds) {
+        if (intervalSeconds < 1) throw new IllegalArgumentException("intervalSeconds must be >= 1: " + intervalSeconds);
+        this.sources = List.copyOf(sources);
+        this.intervalSeconds = intervalSeconds;
+        this.executor = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("altibase-scrape-scheduler").factory());
+    }
+
+    /** Starts background scraping; the first scrape runs immediately. Fixed delay, so scrapes never overlap. */
+    public void start() {
+        executor.scheduleWithFixedDelay(this::refresh, 0, intervalSeconds, TimeUnit.SECONDS);
+        log.info("Background scrape scheduler started: interval_seconds={}", intervalSeconds);
+    }
+
+    /** Runs one scrape of all sources and publishes it atomically. */
+    void refresh() {
+        List<MetricSnapshot> all = new ArrayList<>();
+        for (MultiCollector source : sources) {
+            try {
+                for (MetricSnapshot s : source.collect()) all.add(s);
+            } catch (RuntimeException e) {
+                log.warn("Background scrape failed: collector={} error={}", source.getClass().getSimpleName(), e.getMessage(), e);
+            }
+        }
+        try {
+            latest.set(new Published(new MetricSnapshots(all), System.currentTimeMillis()));
+        } catch (RuntimeException e) {
+            log.error("Background scrape publish failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public MetricSnapshots collect() {
+        Published p = latest.get();
+        if (p == null) return new MetricSnapshots(List.of());
+        List<MetricSnapshot> out = new ArrayList<>(p.snapshots().size() + 1);
+        for (MetricSnapshot s : p.snapshots()) out.add(s);
+        double age = (System.currentTimeMillis() - p.publishedAtMillis()) / 1000.0;
+        out.add(GaugeSnapshot.builder()
+                .name(AltibaseMetricDefs.name(AGE_KEY))
+                .help(AltibaseMetricDefs.help(AGE_KEY))
+                .dataPoint(new GaugeSnapshot.GaugeDataPointSnapshot(age, Labels.EMPTY, null))
+                .build());
+        return new MetricSnapshots(out);
+    }
+
+    @Override
+    public List<String> getPrometheusNames() {
+        Set<String> names = new LinkedHashSet<>();
+        for (MultiCollector source : sources) names.addAll(source.getPrometheusNames());
+        names.add(AltibaseMetricDefs.name(AGE_KEY));
+        return List.copyOf(names);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
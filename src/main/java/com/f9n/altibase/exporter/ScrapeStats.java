@@ -0,0 +1,176 @@
+package com.f9n.altibase.exporter;
+
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.prometheus.metrics.model.snapshots.ClassicHistogramBuckets;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.Exemplars;
+import io.prometheus.metrics.model.snapshots.HistogramSnapshot;
+import io.prometheus.metrics.model.snapshots.Labels;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+
+/**
+ * Self-instrumentation of the units of a scrape (built-in scrape methods, custom queries): a duration histogram,
+ * rows (or samples) produced, errors by SQLState and bytes allocated by the running thread, per unit name. Timing
+ * is two {@code nanoTime} calls; allocation is read from the thread's TLAB counter and left out where the JVM
+ * cannot measure it (e.g. on virtual threads before JDK support).
+ */
+final class ScrapeStats {
+
+    /** Duration bucket upper bounds in seconds; +Inf is implicit. */
+    static final double[] BUCKETS = {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30};
+    static final String UNKNOWN_SQLSTATE = "unknown";
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+
+    private final String label;
+    private final String durationName;
+    private final String rowsName;
+    private final String errorsName;
+    private final String allocatedName;
+    private final String subject;
+    private final String rows;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /** Running totals of one unit; guarded by itself. */
+    private static final class Entry {
+        final long[] buckets = new long[BUCKETS.length + 1];
+        double sum;
+        long rows;
+        long allocated;
+        boolean allocationKnown;
+        final Map<String, Long> errors = new TreeMap<>();
+    }
+
+    private ScrapeStats(String label, String prefix, String rows, String subject) {
+        this.label = label;
+        this.durationName = prefix + "_duration_seconds";
+        this.rowsName = prefix + "_" + rows;
+        this.errorsName = prefix + "_errors";
+        this.allocatedName = prefix + "_allocated_bytes";
+        this.subject = subject;
+        this.rows = rows.replace('_', ' ');
+    }
+
+    /** Built-in {@code @ScrapeMetric} methods, labeled by their primary metric key. */
+    static ScrapeStats forScrapeMethods() {
+        return new ScrapeStats("metric", "altibase_exporter_scrape_method", "samples", "scrape method");
+    }
+
+    /** Custom queries, labeled by query name; families are prefixed {@code altibase_exporter_custom_query_run_}. */
+    static ScrapeStats forCustomQueries() {
+        return new ScrapeStats("query", "altibase_exporter_custom_query_run", "rows", "custom query");
+    }
+
+    /** Bytes allocated so far by the current thread, or -1 if the JVM cannot tell. */
+    static long allocatedBytes() {
+        if (THREADS == null) return -1;
+        try {
+            return THREADS.getCurrentThreadAllocatedBytes();
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Records one run of {@code name} that started at {@code startNanos} with {@code startAllocated} bytes
+     * ({@link #allocatedBytes()}) allocated by the thread; {@code error} null = success.
+     */
+    void record(String name, long startNanos, long startAllocated, long rows, Throwable error) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        long allocated = startAllocated >= 0 ? allocatedBytes() - startAllocated : -1;
+        Entry e = entries.computeIfAbsent(name, n -> new Entry());
+        synchronized (e) {
+            e.buckets[bucket(seconds)]++;
+            e.sum += seconds;
+            e.rows += Math.max(0, rows);
+            if (allocated >= 0) {
+                e.allocated += allocated;
+                e.allocationKnown = true;
+            }
+            if (error != null) e.errors.merge(sqlState(error), 1L, Long::sum);
+        }
+    }
+
+    /** Drops the stats of units not in {@code names} (e.g. custom queries removed by a reload). */
+    void retain(Set<String> names) {
+        entries.keySet().retainAll(names);
+    }
+
+    private static int bucket(double seconds) {
+        int i = 0;
+        while (i < BUCKETS.length && seconds > BUCKETS[i]) i++;
+        return i;
+    }
+
+    /** SQLState of the first SQLException in the cause chain, else {@value #UNKNOWN_SQLSTATE}. */
+    static String sqlState(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof SQLException s && s.getSQLState() != null && !s.getSQLState().isBlank()) return s.getSQLState();
+        }
+        return UNKNOWN_SQLSTATE;
+    }
+
+    /** Families for every unit recorded so far (units ordered by name); empty before the first run. */
+    List<MetricSnapshot> snapshots() {
+        if (entries.isEmpty()) return List.of();
+        HistogramSnapshot.Builder duration = HistogramSnapshot.builder().name(durationName)
+                .help("Duration of each run of a " + subject + " in seconds.");
+        CounterSnapshot.Builder rowCount = CounterSnapshot.builder().name(rowsName)
+                .help("Total " + rows + " produced by each " + subject + ".");
+        CounterSnapshot.Builder errors = CounterSnapshot.builder().name(errorsName)
+                .help("Failed runs of each " + subject + " by SQLState (" + UNKNOWN_SQLSTATE + " = not an SQL error).");
+        CounterSnapshot.Builder allocated = CounterSnapshot.builder().name(allocatedName)
+                .help("Bytes allocated by the thread running each " + subject + ".");
+        boolean anyErrors = false, anyAllocated = false;
+        double[] bounds = new double[BUCKETS.length + 1];
+        System.arraycopy(BUCKETS, 0, bounds, 0, BUCKETS.length);
+        bounds[BUCKETS.length] = Double.POSITIVE_INFINITY;
+        for (Map.Entry<String, Entry> me : new TreeMap<>(entries).entrySet()) {
+            Labels labels = Labels.of(label, me.getKey());
+            Entry e = me.getValue();
+            synchronized (e) {
+                duration.dataPoint(new HistogramSnapshot.HistogramDataPointSnapshot(
+                        ClassicHistogramBuckets.of(bounds, e.buckets.clone()), e.sum, labels, Exemplars.EMPTY, 0));
+                rowCount.dataPoint(new CounterSnapshot.CounterDataPointSnapshot(e.rows, labels, null, 0));
+                for (Map.Entry<String, Long> err : e.errors.entrySet()) {
+                    errors.dataPoint(new CounterSnapshot.CounterDataPointSnapshot(err.getValue(),
+                            Labels.of(label, me.getKey(), "sqlstate", err.getKey()), null, 0));
+                    anyErrors = true;
+                }
+                if (e.allocationKnown) {
+                    allocated.dataPoint(new CounterSnapshot.CounterDataPointSnapshot(e.allocated, labels, null, 0));
+                    anyAllocated = true;
+                }
+            }
+        }
+        List<MetricSnapshot> out = new ArrayList<>(4);
+        out.add(duration.build());
+        out.add(rowCount.build());
+        if (anyErrors) out.add(errors.build());
+        if (anyAllocated) out.add(allocated.build());
+        return out;
+    }
+
+    /** Family names, for {@code getPrometheusNames}. */
+    List<String> names() {
+        return List.of(durationName, rowsName, errorsName, allocatedName);
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean b
+                    && b.isThreadAllocatedMemorySupported() && b.isThreadAllocatedMemoryEnabled()) {
+                return b;
+            }
+        } catch (LinkageError | SecurityException ignored) {}
+        return null;
+    }
+}
@@ -0,0 +1,199 @@
+package com.f9n.altibase.exporter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.Labels;
+
+/**
+ * Caps the series of per-object metrics (tables, indexes, locks, sequences). Each group keeps a space-saving sketch
+ * of its heaviest series across scrapes (weight = |value|, decayed every scrape), so the kept set is stable from one
+ * scrape to the next; series outside the group's top {@code budget} are folded into one series whose label values
+ * are all {@value #OTHER}: summed for sizes and counts, max for sequence values and ratios. Groups whose values
+ * carry no weight (info-style series of value 1) keep the first {@code budget} series in label order instead.
+ */
+final class SeriesBudget {
+
+    static final String OTHER = "other";
+    static final String SEQUENCE_GROUP = "sequence";
+    /** Sketch entries per budgeted series: room for challengers to build up weight before they are admitted. */
+    private static final int SKETCH_FACTOR = 4;
+    private static final double DECAY = 0.9;
+
+    /**
+     * Group shares one kept set; additive = fold by sum (else max); ranks = values feed the group's sketch (a group
+     * where no key ranks is kept in label order).
+     */
+    private record Policy(String group, boolean additive, boolean ranks) {}
+
+    private static final Map<String, Policy> POLICIES = Map.ofEntries(
+            Map.entry("table_size_bytes", new Policy("table_size_bytes", true, true)),
+            Map.entry("index_alloc_size_bytes", new Policy("index_alloc_size_bytes", true, true)),
+            Map.entry("index_metadata", new Policy("index_metadata", true, false)),
+            Map.entry("lock_table", new Policy("lock_table", true, false)),
+            Map.entry("sequence_current_value", new Policy(SEQUENCE_GROUP, false, false)),
+            Map.entry("sequence_usage_ratio", new Policy(SEQUENCE_GROUP, false, true)),
+            Map.entry("sequence_min_value", new Policy(SEQUENCE_GROUP, false, false)),
+            Map.entry("sequence_max_value", new Policy(SEQUENCE_GROUP, false, false)),
+            Map.entry("sequence_cycle", new Policy(SEQUENCE_GROUP, false, false)),
+            Map.entry("sequence_cache", new Policy(SEQUENCE_GROUP, false, false)));
+
+    /** Group names accepted as keys of the per-group budget overrides. */
+    static final Set<String> GROUPS = Set.of("table_size_bytes", "index_alloc_size_bytes", "index_metadata", "lock_table", SEQUENCE_GROUP);
+
+    private final int defaultBudget;
+    private final Map<String, Integer> budgets;
+    /** Per group: series -> estimated (decayed) weight. */
+    private final Map<String, Map<Labels, Double>> sketches = new HashMap<>();
+
+    /**
+     * @param defaultBudget series kept per group; 0 = unlimited
+     * @param budgets       per-group overrides ({@link #GROUPS}); 0 = unlimited
+     */
+    SeriesBudget(int defaultBudget, Map<String, Integer> budgets) {
+        this.defaultBudget = Math.max(0, defaultBudget);
+        this.budgets = Map.copyOf(budgets != null ? budgets : Map.of());
+    }
+
+    /** True if some group is limited; otherwise the collector skips enforcement. */
+    boolean isActive() {
+        if (defaultBudget > 0) return true;
+        for (Integer b : budgets.values()) if (b != null && b > 0) return true;
+        return false;
+    }
+
+    /** True if {@code key} belongs to a group with a budget (its points must be held until folded). */
+    boolean limits(String key) {
+        Policy p = POLICIES.get(key);
+        return p != null && budget(p.group()) > 0;
+    }
+
+    int budget(String group) {
+        return budgets.getOrDefault(group, defaultBudget);
+    }
+
+    /**
+     * Applies the budgets in place to one scrape's points (key -> points, as merged by the scrape context) and
+     * returns, for every budgeted key present, how many series were folded into {@value #OTHER}.
+     */
+    synchronized Map<String, Integer> enforce(Map<String, List<GaugeSnapshot.GaugeDataPointSnapshot>> points) {
+        Map<String, List<String>> keysByGroup = new LinkedHashMap<>();
+        for (String key : points.keySet()) {
+            Policy p = POLICIES.get(key);
+            if (p != null) keysByGroup.computeIfAbsent(p.group(), g -> new ArrayList<>()).add(key);
+        }
+        Map<String, Integer> dropped = new TreeMap<>();
+        for (Map.Entry<String, List<String>> e : keysByGroup.entrySet()) {
+            int budget = budget(e.getKey());
+            if (budget <= 0) {
+                for (String key : e.getValue()) dropped.put(key, 0);
+                continue;
+            }
+            Map<Labels, Double> weights = new LinkedHashMap<>();
+            boolean ranked = false;
+            for (String key : e.getValue()) {
+                boolean ranks = POLICIES.get(key).ranks();
+                ranked |= ranks;
+                for (GaugeSnapshot.GaugeDataPointSnapshot p : points.get(key)) {
+                    double v = Math.abs(p.getValue());
+                    weights.merge(p.getLabels(), ranks && !Double.isNaN(v) ? v : 0, Double::sum);
+                }
+            }
+            Set<Labels> kept;
+            if (ranked) {
+                Map<Labels, Double> sketch = update(e.getKey(), weights, budget * SKETCH_FACTOR);
+                kept = weights.size() <= budget ? weights.keySet() : top(weights.keySet(), sketch, budget);
+            } else {
+                kept = weights.size() <= budget ? weights.keySet() : first(weights.keySet(), budget);
+            }
+            for (String key : e.getValue()) {
+                dropped.put(key, fold(points, key, kept));
+            }
+        }
+        return dropped;
+    }
+
+    /** Space-saving update: decays all counts, adds this scrape's weights (new series start at the evicted minimum), trims to capacity. */
+    private Map<Labels, Double> update(String group, Map<Labels, Double> weights, int capacity) {
+        Map<Labels, Double> sketch = sketches.computeIfAbsent(group, g -> new HashMap<>());
+        double floor = sketch.size() >= capacity ? Collections.min(sketch.values()) * DECAY : 0;
+        sketch.replaceAll((labels, count) -> count * DECAY);
+        for (Map.Entry<Labels, Double> w : weights.entrySet()) {
+            Double count = sketch.get(w.getKey());
+            sketch.put(w.getKey(), (count != null ? count : floor) + w.getValue());
+        }
+        if (sketch.size() > capacity) {
+            List<Map.Entry<Labels, Double>> entries = new ArrayList<>(sketch.entrySet());
+            entries.sort(Map.Entry.<Labels, Double>comparingByValue().reversed());
+            Map<Labels, Double> trimmed = new HashMap<>(capacity * 2);
+            for (int i = 0; i < capacity; i++) trimmed.put(entries.get(i).getKey(), entries.get(i).getValue());
+            sketches.put(group, trimmed);
+            return trimmed;
+        }
+        return sketch;
+    }
+
+    /** The {@code budget} present series with the highest sketch counts; ties keep scrape order. */
+    private static Set<Labels> top(Set<Labels> present, Map<Labels, Double> sketch, int budget) {
+        List<Labels> ranked = new ArrayList<>(present);
+        ranked.sort(Comparator.comparingDouble((Labels l) -> sketch.getOrDefault(l, 0.0)).reversed());
+        return Set.copyOf(ranked.subList(0, budget));
+    }
+
+    /** The first {@code budget} present series in label order, for groups without a weight to rank by. */
+    private static Set<Labels> first(Set<Labels> present, int budget) {
+        List<Labels> ordered = new ArrayList<>(present);
+        ordered.sort(SeriesBudget::compareLabels);
+        return Set.copyOf(ordered.subList(0, budget));
+    }
+
+    private static int compareLabels(Labels a, Labels b) {
+        for (int i = 0; i < Math.min(a.size(), b.size()); i++) {
+            int c = a.getName(i).compareTo(b.getName(i));
+            if (c == 0) c = a.getValue(i).compareTo(b.getValue(i));
+            if (c != 0) return c;
+        }
+        return Integer.compare(a.size(), b.size());
+    }
+
+    /** Replaces the key's points with the kept ones plus one {@value #OTHER} point; returns the number folded. */
+    private static int fold(Map<String, List<GaugeSnapshot.GaugeDataPointSnapshot>> points, String key, Set<Labels> kept) {
+        List<GaugeSnapshot.GaugeDataPointSnapshot> list = points.get(key);
+        List<GaugeSnapshot.GaugeDataPointSnapshot> out = new ArrayList<>(Math.min(list.size(), kept.size() + 1));
+        boolean additive = POLICIES.get(key).additive();
+        Labels otherLabels = null;
+        double other = additive ? 0 : Double.NEGATIVE_INFINITY;
+        int folded = 0;
+        for (GaugeSnapshot.GaugeDataPointSnapshot p : list) {
+            if (kept.contains(p.getLabels())) {
+                out.add(p);
+                continue;
+            }
+            if (otherLabels == null) otherLabels = otherLabels(p.getLabels());
+            other = additive ? other + p.getValue() : Math.max(other, p.getValue());
+            folded++;
+        }
+        if (folded == 0) return 0;
+        out.add(new GaugeSnapshot.GaugeDataPointSnapshot(other, otherLabels, null));
+        points.put(key, out);
+        return folded;
+    }
+
+    private static Labels otherLabels(Labels labels) {
+        String[] names = new String[labels.size()];
+        String[] values = new String[labels.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = labels.getName(i);
+            values[i] = OTHER;
+        }
+        return Labels.of(names, values);
+    }
+}
@@ -0,0 +1,546 @@
+package com.f9n.altibase.exporter;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * In-process stand-in for the Altibase JDBC driver, registered under {@code jdbc:Altibase:} so the exporter's real
+ * SQL paths (connect, scrape methods, custom queries, reconnect) run without a server. Each database named in the
+ * URL ({@code jdbc:Altibase://any:0/<database>}) is a {@link Database} answering queries from scripted tables or
+ * generated rows, with optional per-query latency, failures and holds, an optional log of the queries run, and the
+ * ability to drop every open connection.
+ * The tests, JMH benchmarks and load harness use it, and it ships in the JAR so the {@link AotTraining} run and
+ * {@code java -cp altibase-exporter.jar com.f9n.altibase.exporter.StandInDriver} (the startup benchmark) exercise
+ * the connected scrape path without a server. It is inert unless {@link #install} is called.
+ * <p>
+ * {@link #install(String)} deregisters the real driver while any stand-in database exists; {@link #uninstall}
+ * restores it.
+ */
+final class StandInDriver implements Driver {
+
+    static final String PREFIX = "jdbc:Altibase:";
+    /** SQLState of a broken connection (communication link failure). */
+    static final String SQLSTATE_LINK_FAILURE = "08S01";
+
+    private static final StandInDriver INSTANCE = new StandInDriver();
+    private static final Map<String, Database> DATABASES = new ConcurrentHashMap<>();
+    private static final List<Driver> displaced = new ArrayList<>();
+    private static boolean registered;
+
+    private StandInDriver() {}
+
+    /** Runs {@link Main} against {@link #installForExporter()}; the exporter reads its usual environment. */
+    public static void main(String[] args) throws Exception {
+        installForExporter();
+        Main.main(args);
+    }
+
+    /**
+     * Installs the database named by {@code ALTIBASE_DATABASE} (default {@code mydb}, as in {@link Main}) with a few
+     * generated tables, so every scrape method maps at least one row.
+     */
+    static Database installForExporter() throws SQLException {
+        String name = System.getenv("ALTIBASE_DATABASE");
+        return install(name == null || name.isBlank() ? "mydb" : name.trim()).generate("SYS_TABLES_", 10);
+    }
+
+    /** Creates (or replaces) the stand-in database {@code name} and makes sure the driver is registered. */
+    static synchronized Database install(String name) throws SQLException {
+        if (!registered) {
+            for (Enumeration<Driver> e = DriverManager.getDrivers(); e.hasMoreElements(); ) {
+                Driver d = e.nextElement();
+                if (d.acceptsURL(PREFIX + "//localhost:20300/x")) {
+                    DriverManager.deregisterDriver(d);
+                    displaced.add(d);
+                }
+            }
+            DriverManager.registerDriver(INSTANCE);
+            registered = true;
+        }
+        Database db = new Database(name);
+        Database old = DATABASES.put(name, db);
+        if (old != null) old.dropConnections();
+        return db;
+    }
+
+    /** Drops all stand-in databases and restores the drivers that {@link #install} displaced. */
+    static synchronized void uninstall() throws SQLException {
+        for (Database db : DATABASES.values()) db.dropConnections();
+        DATABASES.clear();
+        if (!registered) return;
+        DriverManager.deregisterDriver(INSTANCE);
+        for (Driver d : displaced) DriverManager.registerDriver(d);
+        displaced.clear();
+        registered = false;
+    }
+
+    static String url(String database) {
+        return PREFIX + "//standin:20300/" + database;
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) return null;
+        String name = url.substring(url.lastIndexOf('/') + 1);
+        Database db = DATABASES.get(name);
+        if (db == null) throw new SQLException("Connection refused: no stand-in database " + name, SQLSTATE_LINK_FAILURE);
+        return db.connect();
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url != null && url.startsWith(PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 7;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 1;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    /** Query result: scripted ({@code columns} + {@code rows}) or generated ({@code columns} null, {@code size} rows). */
+    private record Table(List<String> columns, List<Object[]> rows, int size) {
+        Object value(int row, int column) {
+            if (columns == null) return column == 1 ? "OBJ_" + row : (long) row;
+            if (column < 1 || column > columns.size()) return null;
+            return rows.get(row - 1)[column - 1];
+        }
+
+        int column(String label) throws SQLException {
+            if (columns == null) return 2;
+            for (int i = 0; i < columns.size(); i++) {
+                if (columns.get(i).equalsIgnoreCase(label)) return i + 1;
+            }
+            throw new SQLException("Column not found: " + label, "42000");
+        }
+
+        int width() {
+            return columns == null ? 2 : columns.size();
+        }
+    }
+
+    /** A rule applied to queries whose SQL contains {@code fragment} (case-insensitive). */
+    private record Rule<T>(String fragment, T value) {
+        boolean matches(String sql) {
+            return sql.toUpperCase(Locale.ROOT).contains(fragment);
+        }
+    }
+
+    /**
+     * One stand-in database. Rules match on an SQL fragment (case-insensitive); the first matching hold, latency,
+     * failure and table apply, in that order. Unmatched queries return {@link #defaultRows} generated rows: column 1 and string getters
+     * {@code OBJ_<row>}, other columns and numeric getters the row number (1-based).
+     */
+    static final class Database {
+        final String name;
+        private final List<Rule<Table>> tables = new CopyOnWriteArrayList<>();
+        private final List<Rule<Duration>> latencies = new CopyOnWriteArrayList<>();
+        private final List<Rule<Supplier<SQLException>>> failures = new CopyOnWriteArrayList<>();
+        private final List<Rule<CountDownLatch>> holds = new CopyOnWriteArrayList<>();
+        private final Set<AtomicBoolean> open = ConcurrentHashMap.newKeySet();
+        private final AtomicLong statements = new AtomicLong();
+        private final AtomicLong prepares = new AtomicLong();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final AtomicLong connects = new AtomicLong();
+        private volatile int defaultRows = 1;
+        private volatile Duration connectLatency = Duration.ZERO;
+        private volatile boolean refuseConnections;
+        /** Completed queries and statement timeouts set, once {@link #recordQueries()} was called; else null. */
+        private volatile List<String> executed;
+        private volatile List<Integer> queryTimeouts;
+
+        private Database(String name) {
+            this.name = name;
+        }
+
+        String url() {
+            return StandInDriver.url(name);
+        }
+
+        /** Scripted result for queries containing {@code fragment}; values are Strings, Numbers or null. */
+        Database table(String fragment, List<String> columns, List<Object[]> rows) {
+            tables.add(new Rule<>(fragment.toUpperCase(Locale.ROOT), new Table(List.copyOf(columns), List.copyOf(rows), rows.size())));
+            return this;
+        }
+
+        /** {@code rows} generated rows for queries containing {@code fragment}, e.g. {@code SYS_TABLES_} for table count. */
+        Database generate(String fragment, int rows) {
+            tables.add(new Rule<>(fragment.toUpperCase(Locale.ROOT), new Table(null, List.of(), rows)));
+            return this;
+        }
+
+        /** Forgets the scripted and generated tables, e.g. to change a query's result between scrapes. */
+        Database clearTables() {
+            tables.clear();
+            return this;
+        }
+
+        Database defaultRows(int rows) {
+            this.defaultRows = rows;
+            return this;
+        }
+
+        /** Delay before queries containing {@code fragment} answer ("" = every query); honors the statement timeout. */
+        Database latency(String fragment, Duration latency) {
+            latencies.add(new Rule<>(fragment.toUpperCase(Locale.ROOT), latency));
+            return this;
+        }
+
+        Database fail(String fragment, String message, String sqlState) {
+            failures.add(new Rule<>(fragment.toUpperCase(Locale.ROOT), () -> new SQLException(message, sqlState)));
+            return this;
+        }
+
+        /** Fails matching queries at once the way the driver reports an expired statement timeout. */
+        Database timeOut(String fragment) {
+            failures.add(new Rule<>(fragment.toUpperCase(Locale.ROOT), () -> new SQLTimeoutException("Query timeout", "HYT00")));
+            return this;
+        }
+
+        /** Matching queries wait until {@code release} is counted down (or the thread is interrupted). */
+        Database hold(String fragment, CountDownLatch release) {
+            holds.add(new Rule<>(fragment.toUpperCase(Locale.ROOT), release));
+            return this;
+        }
+
+        /** Starts recording {@link #queries()} and {@link #queryTimeouts()} (off by default: benchmarks run many). */
+        Database recordQueries() {
+            executed = Collections.synchronizedList(new ArrayList<>());
+            queryTimeouts = Collections.synchronizedList(new ArrayList<>());
+            return this;
+        }
+
+        /** SQL of the queries completed (answered or failed) since {@link #recordQueries()}, in completion order. */
+        List<String> queries() {
+            List<String> log = executed;
+            if (log == null) throw new IllegalStateException("recordQueries() not called");
+            synchronized (log) {
+                return List.copyOf(log);
+            }
+        }
+
+        /** Values passed to {@link Statement#setQueryTimeout} since {@link #recordQueries()}. */
+        List<Integer> queryTimeouts() {
+            List<Integer> log = queryTimeouts;
+            if (log == null) throw new IllegalStateException("recordQueries() not called");
+            synchronized (log) {
+                return List.copyOf(log);
+            }
+        }
+
+        /** Fails matching queries the way Altibase reports a column missing in this server version. */
+        Database columnNotFound(String fragment) {
+            return fail(fragment, "Column not found", "42000");
+        }
+
+        Database connectLatency(Duration latency) {
+            this.connectLatency = latency;
+            return this;
+        }
+
+        /** While true, new connections fail as if the server were down. */
+        Database refuseConnections(boolean refuse) {
+            this.refuseConnections = refuse;
+            return this;
+        }
+
+        /** Breaks every open connection: calls fail with SQLState {@value #SQLSTATE_LINK_FAILURE}, isValid is false. */
+        void dropConnections() {
+            for (AtomicBoolean broken : open) broken.set(true);
+            open.clear();
+        }
+
+        /** Queries executed so far (including failed ones). */
+        long statements() {
+            return statements.get();
+        }
+
+        /** Statements prepared so far. */
+        long prepares() {
+            return prepares.get();
+        }
+
+        /** Most queries running at once so far, over all connections. */
+        int maxInFlight() {
+            return maxInFlight.get();
+        }
+
+        /** Connections opened so far. */
+        long connects() {
+            return connects.get();
+        }
+
+        /** Opens a connection directly, as {@link DriverManager} would (benchmarks skip the driver lookup). */
+        Connection connect() throws SQLException {
+            sleep(connectLatency, 0);
+            if (refuseConnections) throw new SQLException("Connection refused", SQLSTATE_LINK_FAILURE);
+            connects.incrementAndGet();
+            AtomicBoolean broken = new AtomicBoolean();
+            AtomicBoolean closed = new AtomicBoolean();
+            open.add(broken);
+            return proxy(Connection.class, (method, args) -> switch (method) {
+                case "isValid" -> !closed.get() && !broken.get();
+                case "isClosed" -> closed.get();
+                case "close" -> {
+                    closed.set(true);
+                    open.remove(broken);
+                    yield null;
+                }
+                default -> {
+                    checkOpen(closed, broken);
+                    yield switch (method) {
+                        case "createStatement" -> statement(null, closed, broken);
+                        case "prepareStatement" -> {
+                            prepares.incrementAndGet();
+                            yield statement((String) args[0], closed, broken);
+                        }
+                        default -> null;
+                    };
+                }
+            });
+        }
+
+        /** Statement (or prepared statement for {@code prepared} SQL) on one connection. */
+        private Statement statement(String prepared, AtomicBoolean closed, AtomicBoolean broken) {
+            int[] timeoutSeconds = {0};
+            int[] maxRows = {0};
+            Class<? extends Statement> type = prepared != null ? PreparedStatement.class : Statement.class;
+            return proxy(type, (method, args) -> switch (method) {
+                case "setQueryTimeout" -> {
+                    timeoutSeconds[0] = (int) args[0];
+                    List<Integer> log = queryTimeouts;
+                    if (log != null) log.add(timeoutSeconds[0]);
+                    yield null;
+                }
+                case "setMaxRows" -> {
+                    maxRows[0] = (int) args[0];
+                    yield null;
+                }
+                case "executeQuery" -> {
+                    checkOpen(closed, broken);
+                    yield execute(prepared != null ? prepared : (String) args[0], timeoutSeconds[0], maxRows[0], broken);
+                }
+                case "execute" -> {
+                    checkOpen(closed, broken);
+                    statements.incrementAndGet();
+                    yield false;
+                }
+                default -> null;
+            });
+        }
+
+        private ResultSet execute(String sql, int timeoutSeconds, int maxRows, AtomicBoolean broken) throws SQLException {
+            statements.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                CountDownLatch hold = first(holds, sql);
+                if (hold != null) await(hold);
+                Duration latency = first(latencies, sql);
+                if (latency != null) sleep(latency, timeoutSeconds);
+                if (broken.get()) throw linkFailure();
+                Supplier<SQLException> failure = first(failures, sql);
+                if (failure != null) throw failure.get();
+                Table table = first(tables, sql);
+                if (table == null) table = new Table(null, List.of(), defaultRows);
+                int size = maxRows > 0 ? Math.min(maxRows, table.size()) : table.size();
+                return resultSet(table, size);
+            } finally {
+                inFlight.decrementAndGet();
+                List<String> log = executed;
+                if (log != null) log.add(sql);
+            }
+        }
+
+        private static void await(CountDownLatch release) throws SQLException {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Query interrupted", "HY008", e);
+            }
+        }
+
+        private static <T> T first(List<Rule<T>> rules, String sql) {
+            for (Rule<T> r : rules) {
+                if (r.matches(sql)) return r.value();
+            }
+            return null;
+        }
+
+        private static void sleep(Duration latency, int timeoutSeconds) throws SQLException {
+            if (latency.isZero()) return;
+            boolean timesOut = timeoutSeconds > 0 && latency.compareTo(Duration.ofSeconds(timeoutSeconds)) > 0;
+            try {
+                Thread.sleep(timesOut ? Duration.ofSeconds(timeoutSeconds) : latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Query interrupted", "HY008", e);
+            }
+            if (timesOut) throw new SQLTimeoutException("Query timeout after " + timeoutSeconds + "s", "HYT00");
+        }
+
+        private static void checkOpen(AtomicBoolean closed, AtomicBoolean broken) throws SQLException {
+            if (broken.get()) throw linkFailure();
+            if (closed.get()) throw new SQLException("Connection is closed", "08003");
+        }
+
+        private static SQLException linkFailure() {
+            return new SQLException("Communication link failure: connection dropped by stand-in", SQLSTATE_LINK_FAILURE);
+        }
+    }
+
+    private static ResultSet resultSet(Table table, int size) {
+        ResultSetMetaData meta = proxy(ResultSetMetaData.class, (method, args) -> switch (method) {
+            case "getColumnCount" -> table.width();
+            case "getColumnLabel", "getColumnName" -> table.columns() == null
+                    ? ((int) args[0] == 1 ? "NAME" : "VALUE") : table.columns().get((int) args[0] - 1);
+            case "getColumnType" -> columnType(table, (int) args[0]);
+            default -> null;
+        });
+        int[] row = {0};
+        Object[] last = {null};
+        return proxy(ResultSet.class, (method, args) -> {
+            switch (method) {
+                case "next":
+                    return ++row[0] <= size;
+                case "getMetaData":
+                    return meta;
+                case "wasNull":
+                    return last[0] == null;
+                case "getString", "getLong", "getInt", "getDouble", "getObject", "getBigDecimal":
+                    if (row[0] < 1 || row[0] > size) throw new SQLException("No current row", "24000");
+                    int column = args[0] instanceof String label ? table.column(label) : (int) args[0];
+                    Object v = table.columns() != null ? table.value(row[0], column)
+                            : method.equals("getString") ? "OBJ_" + row[0]
+                            : method.equals("getObject") ? table.value(row[0], column) : (long) row[0];
+                    last[0] = v;
+                    return convert(v, method);
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private static int columnType(Table table, int column) {
+        if (table.columns() == null) return column == 1 ? Types.VARCHAR : Types.BIGINT;
+        for (Object[] r : table.rows()) {
+            Object v = r[column - 1];
+            if (v instanceof Double || v instanceof Float) return Types.DOUBLE;
+            if (v instanceof Number) return Types.BIGINT;
+            if (v != null) return Types.VARCHAR;
+        }
+        return Types.VARCHAR;
+    }
+
+    private static Object convert(Object v, String getter) throws SQLException {
+        switch (getter) {
+            case "getObject":
+                return v;
+            case "getString":
+                return v == null ? null : v.toString();
+            case "getBigDecimal":
+                return v == null ? null : new java.math.BigDecimal(v.toString());
+            default:
+                double d;
+                if (v == null) {
+                    d = 0;
+                } else if (v instanceof Number n) {
+                    d = n.doubleValue();
+                } else {
+                    try {
+                        d = Double.parseDouble(v.toString().trim());
+                    } catch (NumberFormatException e) {
+                        throw new SQLException("Invalid number: " + v, "22018");
+                    }
+                }
+                return switch (getter) {
+                    case "getLong" -> (long) d;
+                    case "getInt" -> (int) d;
+                    default -> d;
+                };
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+
+    /** Proxy answering {@code handler}'s value, or the zero value of the method's primitive return type. */
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> p == args[0];
+                    case "hashCode" -> System.identityHashCode(p);
+                    default -> type.getSimpleName() + "@stand-in";
+                };
+            }
+            Object result = handler.invoke(method.getName(), args != null ? args : new Object[0]);
+            if (result != null || !method.getReturnType().isPrimitive()) return result;
+            return zero(method.getReturnType());
+        });
+    }
+
+    /** Boxed zero value of a primitive type (null for void), of the exact wrapper type a proxy must return. */
+    static Object zero(Class<?> primitive) {
+        if (primitive == boolean.class) return false;
+        if (primitive == long.class) return 0L;
+        if (primitive == int.class) return 0;
+        if (primitive == double.class) return 0.0;
+        if (primitive == float.class) return 0f;
+        if (primitive == short.class) return (short) 0;
+        if (primitive == byte.class) return (byte) 0;
+        if (primitive == char.class) return (char) 0;
+        return null;
+    }
+}
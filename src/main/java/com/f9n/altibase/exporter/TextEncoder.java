@@ -0,0 +1,225 @@
+package com.f9n.altibase.exporter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import io.prometheus.metrics.model.snapshots.Labels;
+
+/**
+ * Encodes the samples of one gauge (or info) family into a growable byte buffer; the sample lines are the same in
+ * the Prometheus text format (0.0.4) and OpenMetrics, only the header differs. {@link #reset()} keeps the buffer,
+ * so an encoder reused across scrapes stops allocating once it has grown to the family's size; rows are encoded
+ * as they are read instead of being held as snapshot objects.
+ */
+final class TextEncoder {
+
+    /** Exposition format of the family header. */
+    enum Format { TEXT, OPENMETRICS }
+
+    private static final int INITIAL_CAPACITY = 256;
+    /** Below this, integral values are written as digits + ".0", the same text {@link Double#toString} produces. */
+    private static final double PLAIN_INTEGRAL_LIMIT = 1e7;
+
+    /** Sample name. */
+    private final String name;
+    /** OpenMetrics family name and type (info families drop the {@code _info} suffix). */
+    private final String family;
+    private final String type;
+    private final byte[] nameBytes;
+    private byte[] buf = new byte[INITIAL_CAPACITY];
+    private int len;
+    private int samples;
+    /** Hash of the current samples; valid while {@link #hashed}. */
+    private long hash;
+    private boolean hashed;
+
+    TextEncoder(String name) {
+        this(name, name, "gauge");
+    }
+
+    private TextEncoder(String name, String family, String type) {
+        this.name = name;
+        this.family = family;
+        this.type = type;
+        this.nameBytes = name.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Info family: samples {@code <family>_info{labels} 1}; a gauge in the text format, type info in OpenMetrics. */
+    static TextEncoder info(String family) {
+        return new TextEncoder(family + "_info", family, "info");
+    }
+
+    String name() {
+        return name;
+    }
+
+    int samples() {
+        return samples;
+    }
+
+    /** Encoded sample bytes (without the HELP/TYPE header). */
+    int size() {
+        return len;
+    }
+
+    void reset() {
+        len = 0;
+        samples = 0;
+        hashed = false;
+    }
+
+    /** FNV-1a over the encoded samples; memoized until the next change. */
+    long hash() {
+        if (!hashed) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < len; i++) {
+                h ^= buf[i] & 0xff;
+                h *= 0x100000001b3L;
+            }
+            hash = h;
+            hashed = true;
+        }
+        return hash;
+    }
+
+    /** Appends {@code name{labels} value\n}. */
+    void sample(Labels labels, double value) {
+        put(nameBytes);
+        if (labels.size() > 0) {
+            put('{');
+            for (int i = 0; i < labels.size(); i++) {
+                if (i > 0) put(',');
+                putUtf8(labels.getName(i), false);
+                put('=');
+                put('"');
+                putUtf8(labels.getValue(i), true);
+                put('"');
+            }
+            put('}');
+        }
+        put(' ');
+        putDouble(value);
+        put('\n');
+        samples++;
+        hashed = false;
+    }
+
+    /** Appends another encoder's samples of the same family. */
+    void append(TextEncoder other) {
+        ensure(other.len);
+        System.arraycopy(other.buf, 0, buf, len, other.len);
+        len += other.len;
+        samples += other.samples;
+        hashed = false;
+    }
+
+    /** Writes the family header in {@code format}, then the samples; nothing if there are none. */
+    void writeTo(OutputStream out, String help, Format format) throws IOException {
+        if (samples == 0) return;
+        StringBuilder header = new StringBuilder(name.length() * 2 + help.length() + 24);
+        if (format == Format.OPENMETRICS) {
+            header.append("# TYPE ").append(family).append(' ').append(type).append('\n');
+            appendHelp(header.append("# HELP ").append(family).append(' '), help, true).append('\n');
+        } else {
+            appendHelp(header.append("# HELP ").append(name).append(' '), help, false).append('\n');
+            header.append("# TYPE ").append(name).append(" gauge\n");
+        }
+        out.write(header.toString().getBytes(StandardCharsets.UTF_8));
+        out.write(buf, 0, len);
+    }
+
+    /** Escapes backslash and newline (and double quote in OpenMetrics). */
+    private static StringBuilder appendHelp(StringBuilder sb, String help, boolean quotes) {
+        for (int i = 0; i < help.length(); i++) {
+            char c = help.charAt(i);
+            if (c == '\\') sb.append("\\\\");
+            else if (c == '\n') sb.append("\\n");
+            else if (c == '"' && quotes) sb.append("\\\"");
+            else sb.append(c);
+        }
+        return sb;
+    }
+
+    private void putDouble(double v) {
+        if (v == Double.POSITIVE_INFINITY) {
+            putAscii("+Inf");
+        } else if (v == Double.NEGATIVE_INFINITY) {
+            putAscii("-Inf");
+        } else if (v == Math.rint(v) && Math.abs(v) < PLAIN_INTEGRAL_LIMIT) {
+            long l = (long) v;
+            if (l == 0 && 1 / v < 0) put('-');
+            putLong(l);
+            put('.');
+            put('0');
+        } else {
+            putAscii(Double.toString(v));
+        }
+    }
+
+    private void putLong(long l) {
+        if (l < 0) {
+            put('-');
+            l = -l;
+        }
+        ensure(20);
+        int start = len;
+        do {
+            buf[len++] = (byte) ('0' + (l % 10));
+            l /= 10;
+        } while (l != 0);
+        for (int i = start, j = len - 1; i < j; i++, j--) {
+            byte t = buf[i];
+            buf[i] = buf[j];
+            buf[j] = t;
+        }
+    }
+
+    private void putAscii(String s) {
+        ensure(s.length());
+        for (int i = 0; i < s.length(); i++) buf[len++] = (byte) s.charAt(i);
+    }
+
+    /** UTF-8 encodes {@code s} (at most 3 bytes per char); label values escape backslash, double quote and newline. */
+    private void putUtf8(String s, boolean escape) {
+        ensure(s.length() * 3);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (escape && (c == '\\' || c == '"' || c == '\n')) {
+                buf[len++] = '\\';
+                buf[len++] = (byte) (c == '\n' ? 'n' : c);
+            } else if (c < 0x80) {
+                buf[len++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[len++] = (byte) (0xc0 | (c >> 6));
+                buf[len++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buf[len++] = (byte) (0xf0 | (cp >> 18));
+                buf[len++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                buf[len++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                buf[len++] = (byte) (0x80 | (cp & 0x3f));
+            } else {
+                buf[len++] = (byte) (0xe0 | (c >> 12));
+                buf[len++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                buf[len++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+    }
+
+    private void put(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, len, bytes.length);
+        len += bytes.length;
+    }
+
+    private void put(char c) {
+        ensure(1);
+        buf[len++] = (byte) c;
+    }
+
+    private void ensure(int extra) {
+        if (len + extra > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + extra));
+    }
+}
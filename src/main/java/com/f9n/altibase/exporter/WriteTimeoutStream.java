@@ -0,0 +1,113 @@
+package com.f9n.altibase.exporter;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds how long one write (or flush) to the wrapped stream may block. A watchdog interrupts a writer that is
+ * still blocked after the timeout; on a socket that closes the channel, and the write fails with
+ * {@link InterruptedIOException}. The JDK HTTP server has no write timeout, so a streamed /metrics response to a
+ * stalled client would otherwise keep the scrape (and the connection's statement lock) forever.
+ * <p>
+ * The watchdog is one shared platform thread: a virtual one could be starved by a writer pinned to its carrier.
+ */
+final class WriteTimeoutStream extends FilterOutputStream {
+
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("altibase-write-watchdog").daemon().factory());
+
+    private final long timeoutNanos;
+    private final Object state = new Object();
+    private final ScheduledFuture<?> check;
+    /** Thread inside a write, null between writes; guarded by {@link #state}. */
+    private Thread writer;
+    private long writeStartNanos;
+    private boolean timedOut;
+    private boolean closed;
+
+    WriteTimeoutStream(OutputStream out, Duration timeout) {
+        super(out);
+        this.timeoutNanos = timeout.toNanos();
+        long tick = Math.max(1, Math.min(timeout.toMillis() / 4, 1000));
+        this.check = WATCHDOG.scheduleWithFixedDelay(this::check, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        begin();
+        try {
+            out.write(b);
+        } finally {
+            end();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        begin();
+        try {
+            out.write(b, off, len);
+        } finally {
+            end();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        begin();
+        try {
+            out.flush();
+        } finally {
+            end();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        try {
+            begin();
+            try {
+                out.close();
+            } finally {
+                end();
+            }
+        } finally {
+            closed = true;
+            check.cancel(false);
+        }
+    }
+
+    private void begin() {
+        synchronized (state) {
+            writer = Thread.currentThread();
+            writeStartNanos = System.nanoTime();
+        }
+    }
+
+    /** Ends a write; if the watchdog fired, clears the interrupt it left and fails the write. */
+    private void end() throws IOException {
+        synchronized (state) {
+            writer = null;
+            if (!timedOut) return;
+        }
+        Thread.interrupted();
+        throw new InterruptedIOException("Client write blocked for more than " + timeoutNanos / 1_000_000 + "ms");
+    }
+
+    private void check() {
+        synchronized (state) {
+            if (writer != null && !timedOut && System.nanoTime() - writeStartNanos > timeoutNanos) {
+                timedOut = true;
+                writer.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.f9n.altibase.exporter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end concurrent scrape load: runs the exporter ({@link Main}, HTTP server and shared connection included)
+ * in this JVM against a {@link StandInDriver} database, then drives {@code scrapers} concurrent clients that each
+ * request {@code /metrics} {@code requests} times back to back. Reports request latency percentiles, errors, database
+ * statements per executed scrape (requests not answered from a coalesced or stale-served scrape),
+ * coalesced/stale-served scrapes and JVM allocation per request (all threads, clients included).
+ * <p>
+ * The exporter reads its usual environment; {@code WEB_LISTEN_PORT} and {@code ALTIBASE_DATABASE} also tell the
+ * harness where to connect and which stand-in database to install.
+ * Args: {@code <scrapers> <requests per scraper> <tables> <query latency ms> <json output>}. Run via
+ * {@code ./gradlew loadHarness}.
+ */
+public final class LoadHarness {
+
+    private static final int WARMUP_REQUESTS = 20;
+    private static final long READY_TIMEOUT_NANOS = 30_000_000_000L;
+    private static final List<String> EXPORTER_COUNTERS = List.of(
+            "altibase_exporter_scrapes_coalesced_total", "altibase_exporter_scrapes_served_stale_total");
+
+    public static void main(String[] args) throws Exception {
+        int scrapers = Integer.parseInt(args[0]);
+        int requests = Integer.parseInt(args[1]);
+        int tables = Integer.parseInt(args[2]);
+        int latencyMs = Integer.parseInt(args[3]);
+        Path out = Path.of(args[4]);
+        int port = Integer.parseInt(env("WEB_LISTEN_PORT", "9399"));
+        URI metrics = URI.create("http://127.0.0.1:" + port + "/metrics");
+
+        StandInDriver.Database db = StandInDriver.install(env("ALTIBASE_DATABASE", "mydb")).generate("SYS_TABLES_", tables);
+        if (latencyMs > 0) db.latency("", Duration.ofMillis(latencyMs));
+        Thread exporter = Thread.ofPlatform().daemon().name("exporter-main").start(() -> {
+            try {
+                Main.main(new String[0]);
+            } catch (InterruptedException ignored) {}
+        });
+        awaitConnected(metrics, db, exporter);
+        for (int i = 0; i < WARMUP_REQUESTS; i++) get(metrics);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Map<String, Double> countersBefore = exporterCounters(metrics);
+        long statementsBefore = db.statements();
+        long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+        long[][] latencies = new long[scrapers][requests];
+        Map<String, AtomicLong> errors = new TreeMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> clients = new ArrayList<>();
+        for (int s = 0; s < scrapers; s++) {
+            long[] mine = latencies[s];
+            clients.add(Thread.ofPlatform().name("scraper-" + s).start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < requests; i++) {
+                    long t0 = System.nanoTime();
+                    String error = get(metrics);
+                    mine[i] = System.nanoTime() - t0;
+                    if (error != null) {
+                        synchronized (errors) {
+                            errors.computeIfAbsent(error, k -> new AtomicLong()).incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+        long wall = System.nanoTime();
+        start.countDown();
+        for (Thread t : clients) t.join();
+        wall = System.nanoTime() - wall;
+        long allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore;
+        long statements = db.statements() - statementsBefore;
+        Map<String, Double> countersAfter = exporterCounters(metrics);
+
+        int total = scrapers * requests;
+        long[] all = new long[total];
+        for (int s = 0; s < scrapers; s++) System.arraycopy(latencies[s], 0, all, s * requests, requests);
+        Arrays.sort(all);
+        long errorCount = errors.values().stream().mapToLong(AtomicLong::get).sum();
+        Map<String, Double> counters = new LinkedHashMap<>();
+        for (String name : EXPORTER_COUNTERS) {
+            counters.put(name, countersAfter.getOrDefault(name, 0.0) - countersBefore.getOrDefault(name, 0.0));
+        }
+        long scrapes = Math.max(1, total - Math.round(counters.values().stream().mapToDouble(Double::doubleValue).sum()));
+        Map<String, Double> ms = new LinkedHashMap<>();
+        ms.put("p50", percentile(all, 0.50));
+        ms.put("p99", percentile(all, 0.99));
+        ms.put("p999", percentile(all, 0.999));
+        ms.put("max", all[total - 1] / 1e6);
+        ms.put("mean", Arrays.stream(all).average().orElse(0) / 1e6);
+
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"scrapers\":").append(scrapers).append(",\"requests_per_scraper\":").append(requests)
+                .append(",\"tables\":").append(tables).append(",\"query_latency_ms\":").append(latencyMs)
+                .append(",\"requests\":").append(total).append(",\"wall_seconds\":").append(wall / 1e9)
+                .append(",\"requests_per_second\":").append(total / (wall / 1e9))
+                .append(",\"latency_ms\":").append(object(ms))
+                .append(",\"errors\":").append(errorCount).append(",\"errors_by_kind\":{");
+        boolean first = true;
+        for (Map.Entry<String, AtomicLong> e : errors.entrySet()) {
+            if (!first) json.append(',');
+            first = false;
+            json.append('"').append(e.getKey().replace("\"", "'")).append("\":").append(e.getValue().get());
+        }
+        json.append("},\"db_statements\":").append(statements)
+                .append(",\"scrapes_executed\":").append(scrapes)
+                .append(",\"db_statements_per_scrape\":").append((double) statements / scrapes);
+        for (Map.Entry<String, Double> e : counters.entrySet()) {
+            json.append(",\"").append(e.getKey().replace("altibase_exporter_", "").replace("_total", "")).append("\":").append(e.getValue());
+        }
+        json.append(",\"allocated_bytes\":").append(allocated)
+                .append(",\"allocated_bytes_per_request\":").append(allocated / total).append("}\n");
+
+        System.out.printf("%d scrapers x %d requests, %d tables, %dms query latency: %.0f req/s%n",
+                scrapers, requests, tables, latencyMs, total / (wall / 1e9));
+        System.out.printf("latency p50=%.1fms p99=%.1fms p999=%.1fms max=%.1fms errors=%d%n",
+                ms.get("p50"), ms.get("p99"), ms.get("p999"), ms.get("max"), errorCount);
+        System.out.printf("scrapes executed=%d db statements/scrape=%.1f allocated/request=%d bytes%n",
+                scrapes, (double) statements / scrapes, allocated / total);
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        Files.writeString(out, json, StandardCharsets.UTF_8);
+        System.out.println("Wrote " + out);
+        System.exit(errorCount == total ? 1 : 0);
+    }
+
+    private static String env(String key, String def) {
+        String v = System.getenv(key);
+        return (v == null || v.isBlank()) ? def : v.trim();
+    }
+
+    /** Waits until the exporter answers and has opened its connection to the stand-in database. */
+    private static void awaitConnected(URI metrics, StandInDriver.Database db, Thread exporter) throws InterruptedException {
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < READY_TIMEOUT_NANOS) {
+            if (!exporter.isAlive()) throw new IllegalStateException("exporter stopped during startup");
+            if (db.connects() > 0 && get(metrics) == null) return;
+            Thread.sleep(20);
+        }
+        throw new IllegalStateException("exporter not connected within 30s");
+    }
+
+    /** GETs {@code uri} and drains the body; returns null on 200, else a short error kind. */
+    private static String get(URI uri) {
+        try {
+            HttpURLConnection http = (HttpURLConnection) uri.toURL().openConnection();
+            http.setConnectTimeout(5000);
+            http.setReadTimeout(60000);
+            int status = http.getResponseCode();
+            if (status != 200) return "http_" + status;
+            try (InputStream in = http.getInputStream()) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return null;
+        } catch (IOException e) {
+            return e.getClass().getSimpleName();
+        }
+    }
+
+    /** Unlabeled exporter counters from one {@code /metrics} response. */
+    private static Map<String, Double> exporterCounters(URI uri) throws IOException {
+        Map<String, Double> values = new TreeMap<>();
+        HttpURLConnection http = (HttpURLConnection) uri.toURL().openConnection();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(http.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line; (line = in.readLine()) != null; ) {
+                for (String name : EXPORTER_COUNTERS) {
+                    if (line.startsWith(name + " ")) values.put(name, Double.parseDouble(line.substring(name.length() + 1).trim()));
+                }
+            }
+        }
+        return values;
+    }
+
+    /** Nearest-rank percentile of sorted nanosecond samples, in milliseconds. */
+    private static double percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))] / 1e6;
+    }
+
+    private static String object(Map<String, Double> values) {
+        StringBuilder sb = new StringBuilder("{");
+        for (Map.Entry<String, Double> e : values.entrySet()) {
+            if (sb.length() > 1) sb.append(',');
+            sb.append('"').append(e.getKey()).append("\":").append(e.getValue());
+        }
+        return sb.append('}').toString();
+    }
+}
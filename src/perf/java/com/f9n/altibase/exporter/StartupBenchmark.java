@@ -0,0 +1,116 @@
+package com.f9n.altibase.exporter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures time-to-first-{@code /metrics}: starts the exporter JAR {@code runs} times, with and without the AOT
+ * cache, and records the wall time from process start until {@code /metrics} first answers 200 with
+ * {@code altibase_up 1}. Each run starts the exporter through {@link StandInDriver#main} from the JAR, so the
+ * measurement covers JVM and exporter startup, the database connect and the first connected scrape, without a server.
+ * <p>
+ * Args: {@code <jar> <aot cache or "-"> <runs> <json output>}. Run via {@code ./gradlew startupBenchmark}.
+ */
+public final class StartupBenchmark {
+
+    private static final long TIMEOUT_NANOS = 60_000_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        Path jar = Path.of(args[0]);
+        Path aot = args[1].equals("-") ? null : Path.of(args[1]);
+        int runs = Integer.parseInt(args[2]);
+        Path out = Path.of(args[3]);
+        String java = ProcessHandle.current().info().command().orElse("java");
+
+        Map<String, double[]> results = new LinkedHashMap<>();
+        results.put("baseline", measure(java, List.of(), jar, runs));
+        if (aot != null && Files.exists(aot)) {
+            results.put("aot_cache", measure(java, List.of("-XX:AOTCache=" + aot, "-XX:AOTMode=on"), jar, runs));
+        } else {
+            System.out.println("No AOT cache at " + aot + "; measuring baseline only");
+        }
+
+        StringBuilder json = new StringBuilder("{\"runs\":").append(runs).append(",\"time_to_first_metrics_ms\":{");
+        boolean first = true;
+        for (Map.Entry<String, double[]> e : results.entrySet()) {
+            double[] ms = e.getValue();
+            Arrays.sort(ms);
+            System.out.printf("%-10s median=%.0fms min=%.0fms max=%.0fms%n", e.getKey(), ms[ms.length / 2], ms[0], ms[ms.length - 1]);
+            if (!first) json.append(',');
+            first = false;
+            json.append('"').append(e.getKey()).append("\":{\"median\":").append(ms[ms.length / 2])
+                    .append(",\"min\":").append(ms[0]).append(",\"max\":").append(ms[ms.length - 1])
+                    .append(",\"samples\":").append(Arrays.toString(ms)).append('}');
+        }
+        json.append("}}\n");
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        Files.writeString(out, json, StandardCharsets.UTF_8);
+        System.out.println("Wrote " + out);
+    }
+
+    private static double[] measure(String java, List<String> jvmArgs, Path jar, int runs) throws Exception {
+        double[] ms = new double[runs];
+        for (int i = 0; i < runs; i++) ms[i] = timeToFirstMetrics(java, jvmArgs, jar);
+        return ms;
+    }
+
+    private static double timeToFirstMetrics(String java, List<String> jvmArgs, Path jar) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmArgs);
+        command.addAll(List.of("-cp", jar.toString(), StandInDriver.class.getName()));
+        ProcessBuilder pb = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        pb.environment().put("WEB_LISTEN_PORT", String.valueOf(port));
+        pb.environment().put("ALTIBASE_SERVER", "standin");
+        pb.environment().put("ALTIBASE_DATABASE", "startup");
+        pb.environment().put("LOG_LEVEL", "WARN");
+        long start = System.nanoTime();
+        Process process = pb.start();
+        try {
+            URI metrics = URI.create("http://127.0.0.1:" + port + "/metrics");
+            while (System.nanoTime() - start < TIMEOUT_NANOS) {
+                if (!process.isAlive()) throw new IllegalStateException("exporter exited with " + process.exitValue());
+                if (up(metrics)) return (System.nanoTime() - start) / 1e6;
+                Thread.sleep(2);
+            }
+            throw new IllegalStateException("no /metrics response with altibase_up 1 within 60s");
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    /** True once {@code /metrics} answers 200 and reports the database connection up. */
+    private static boolean up(URI uri) {
+        try {
+            HttpURLConnection http = (HttpURLConnection) uri.toURL().openConnection();
+            http.setConnectTimeout(100);
+            if (http.getResponseCode() != 200) return false;
+            String body;
+            try (InputStream in = http.getInputStream()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            return body.lines().anyMatch(line -> line.startsWith("altibase_up ") && Double.parseDouble(line.substring(12).trim()) == 1);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket s = new ServerSocket(0)) {
+            return s.getLocalPort();
+        }
+    }
+}
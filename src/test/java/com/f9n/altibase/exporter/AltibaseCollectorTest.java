@@ -0,0 +1,439 @@
+package com.f9n.altibase.exporter;
+
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AltibaseCollectorTest {
+
+    @AfterEach
+    void uninstall() throws SQLException {
+        StandInDriver.uninstall();
+    }
+
+    /** Stand-in database {@code name} recording its queries; unscripted queries return no rows. */
+    private static StandInDriver.Database database(String name) throws SQLException {
+        return StandInDriver.install(name).recordQueries().defaultRows(0);
+    }
+
+    private static StandInDriver.Database database() throws SQLException {
+        return database("collector");
+    }
+
+    /** Queries completed since the first {@code from} ones. */
+    private static List<String> since(StandInDriver.Database db, int from) {
+        List<String> queries = db.queries();
+        return queries.subList(from, queries.size());
+    }
+
+    /** Waits until a query beyond the first {@code statements} has started, e.g. one waiting on a hold. */
+    private static void awaitQuery(StandInDriver.Database db, long statements) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (db.statements() <= statements) {
+            assertTrue(System.nanoTime() < deadline, "no query started");
+            Thread.sleep(5);
+        }
+    }
+
+    private static double gauge(MetricSnapshots snapshots, String name) {
+        for (MetricSnapshot s : snapshots) {
+            if (s.getMetadata().getName().equals(name)) return ((GaugeSnapshot) s).getDataPoints().get(0).getValue();
+        }
+        throw new AssertionError("missing " + name);
+    }
+
+    private static double gauge(MetricSnapshots snapshots, String name, String label, String value) {
+        for (MetricSnapshot s : snapshots) {
+            if (!s.getMetadata().getName().equals(name)) continue;
+            for (GaugeSnapshot.GaugeDataPointSnapshot p : ((GaugeSnapshot) s).getDataPoints()) {
+                if (value.equals(p.getLabels().get(label))) return p.getValue();
+            }
+        }
+        throw new AssertionError("missing " + name + "{" + label + "=\"" + value + "\"}");
+    }
+
+    private static final String TX_MGR_SQL = "FROM V$TRANSACTION_MGR";
+    private static final List<String> TX_MGR_COLUMNS = List.of("TOTAL_COUNT", "ACTIVE_COUNT");
+    private static final List<Object[]> TX_MGR_ROWS = List.<Object[]>of(new Object[]{7L, 3L});
+
+    @Test
+    void collect_schemaMismatch_isSkippedWithoutTrippingTheBreaker() throws SQLException {
+        StandInDriver.Database db = database().fail(TX_MGR_SQL, "Table or view was not found", "42000");
+        AltibaseCollector collector = new AltibaseCollector(db.connect(), null, TestConfig.builder().breakerFailures(1).build());
+        MetricSnapshots first = collector.collect();
+        assertTrue(db.queries().stream().anyMatch(sql -> sql.contains(TX_MGR_SQL)));
+        assertEquals(1.0, gauge(first, "altibase_exporter_last_scrape_success"));
+        assertEquals(0.0, gauge(first, "altibase_exporter_circuit_breaker_open", "metric", "transaction_manager_count"));
+        assertEquals(0.0, gauge(first, "altibase_exporter_scrape_consecutive_failures", "metric", "transaction_manager_count"));
+
+        int seen = db.queries().size();
+        collector.collect();
+        assertTrue(since(db, seen).stream().anyMatch(sql -> sql.contains(TX_MGR_SQL)), "still tried on the next scrape");
+    }
+
+    @Test
+    void collect_connectionErrorInSchemaTolerantMethod_isAFailureAndTripsTheBreaker() throws SQLException {
+        StandInDriver.Database db = database().fail(TX_MGR_SQL, "Communication link failure", StandInDriver.SQLSTATE_LINK_FAILURE);
+        AltibaseCollector collector = new AltibaseCollector(db.connect(), null, TestConfig.builder().breakerFailures(1).build());
+        MetricSnapshots first = collector.collect();
+        assertEquals(0.0, gauge(first, "altibase_exporter_last_scrape_success"));
+        assertEquals(1.0, gauge(first, "altibase_exporter_scrape_consecutive_failures", "metric", "transaction_manager_count"));
+        MetricSnapshots second = collector.collect();
+        assertEquals(1.0, gauge(second, "altibase_exporter_circuit_breaker_open", "metric", "transaction_manager_count"));
+    }
+
+    @Test
+    void collect_queryTimeout_isSetOnTheStatementAndCountsAsFailureEvenForSchemaTolerantMethods() throws SQLException {
+        StandInDriver.Database db = database().timeOut(TX_MGR_SQL);
+        AltibaseCollector collector = new AltibaseCollector(db.connect(), null,
+                TestConfig.builder().queryTimeoutSeconds(7).breakerFailures(1).build());
+        MetricSnapshots first = collector.collect();
+        assertEquals(List.of(7), db.queryTimeouts());
+        assertEquals(0.0, gauge(first, "altibase_exporter_last_scrape_success"));
+        assertEquals(1.0, gauge(first, "altibase_exporter_scrape_consecutive_failures", "metric", "transaction_manager_count"));
+
+        int seen = db.queries().size();
+        MetricSnapshots second = collector.collect();
+        assertEquals(1.0, gauge(second, "altibase_exporter_circuit_breaker_open", "metric", "transaction_manager_count"));
+        assertTrue(since(db, seen).stream().noneMatch(sql -> sql.contains(TX_MGR_SQL)), "skipped while the breaker is open");
+    }
+
+    @Test
+    void collect_pastScrapeDeadline_skipsTheRemainingMethodsAndReportsFailure() throws SQLException {
+        StandInDriver.Database db = database().latency(TX_MGR_SQL, Duration.ofMillis(1100));
+        AltibaseCollector collector = new AltibaseCollector(db.connect(), null, TestConfig.builder().scrapeTimeoutSeconds(1).build());
+        MetricSnapshots snapshots = collector.collect();
+        assertEquals(0.0, gauge(snapshots, "altibase_exporter_last_scrape_success"));
+        assertEquals(1.0, gauge(snapshots, "altibase_up"));
+        List<String> queries = db.queries();
+        assertTrue(queries.get(queries.size() - 1).contains(TX_MGR_SQL), "no method started after the deadline: " + queries);
+
+        StandInDriver.Database unbounded = database("unbounded");
+        new AltibaseCollector(unbounded.connect(), Set.of(), "test").collect();
+        assertTrue(queries.size() < unbounded.queries().size());
+    }
+
+    @Test
+    void collect_emptyResults_succeeds() throws SQLException {
+        StandInDriver.Database db = database();
+        AltibaseCollector collector = new AltibaseCollector(db.connect(), Set.of(), "test");
+        MetricSnapshots snapshots = collector.collect();
+        assertEquals(1.0, gauge(snapshots, "altibase_exporter_last_scrape_success"));
+        assertEquals(0.0, gauge(snapshots, "altibase_sessions"));
+        assertTrue(db.queries().size() > 50);
+    }
+
+    @Test
+    void collect_failingQueries_reportsFailureWithoutThrowing() throws SQLException {
+        AltibaseCollector collector = new AltibaseCollector(database().fail("", "boom", null).connect(), Set.of(), "test");
+        MetricSnapshots snapshots = collector.collect();
+        assertEquals(0.0, gauge(snapshots, "altibase_exporter_last_scrape_success"));
+    }
+
+    @Test
+    void collect_disabledMetricsAreNotQueried() throws SQLException {
+        StandInDriver.Database db = database();
+        new AltibaseCollector(db.connect(), Set.of("sessions", "statements"), "test").collect();
+        for (String sql : db.queries()) {
+            assertFalse(sql.contains("FROM V$SESSION WHERE ACTIVE_FLAG = 1"), sql);
+            assertFalse(sql.contains("FROM V$STATEMENT WHERE EXECUTE_FLAG = 1)"), sql);
+        }
+    }
+
+    @Test
+    void stream_writesGaugeFamiliesAndReturnsTheRest() throws Exception {
+        AltibaseCollector collector = new AltibaseCollector(database().connect(), Set.of(), "test");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<MetricSnapshot> rest;
+        try (ExpositionSink sink = new ExpositionSink(out, TextEncoder.Format.TEXT, false)) {
+            rest = collector.stream(sink);
+        }
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.contains("# TYPE altibase_up gauge\naltibase_up 1.0\n"), text);
+        assertTrue(text.contains("altibase_exporter_last_scrape_success 1.0\n"), text);
+        assertTrue(text.contains("altibase_sessions{status=\"total\"} 0.0\n"), text);
+        List<String> families = text.lines().filter(l -> l.startsWith("# TYPE ")).toList();
+        assertEquals(families.size(), Set.copyOf(families).size(), text);
+        assertTrue(text.contains("altibase_exporter_build_info{version=\"test\"} 1.0\n"), text);
+        assertTrue(rest.stream().anyMatch(s -> s.getMetadata().getName().equals("altibase_exporter_reconnects")));
+        assertTrue(rest.stream().noneMatch(s -> s instanceof GaugeSnapshot));
+        // second scrape reuses the encoders and produces the same families
+        ByteArrayOutputStream again = new ByteArrayOutputStream();
+        try (ExpositionSink sink = new ExpositionSink(again, TextEncoder.Format.TEXT, false)) {
+            collector.stream(sink);
+        }
+        assertEquals(text.replaceAll("altibase_scrape_duration_seconds .*\n", ""),
+                again.toString(StandardCharsets.UTF_8).replaceAll("altibase_scrape_duration_seconds .*\n", ""));
+    }
+
+    @Test
+    void stream_overlappingRequests_doNotWaitOnTheStream() throws Exception {
+        StandInDriver.Database db = database();
+        AltibaseCollector collector = new AltibaseCollector(db.connect(), null,
+                TestConfig.builder().queryTimeoutSeconds(0).streaming(true).build());
+        MetricSnapshots last = collector.collect();
+
+        CountDownLatch release = new CountDownLatch(1);
+        db.hold("", release);
+        long started = db.statements();
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<MetricSnapshot>> streamed = pool.submit(() -> {
+                try (ExpositionSink sink = new ExpositionSink(new ByteArrayOutputStream(), TextEncoder.Format.TEXT, false)) {
+                    return collector.stream(sink);
+                }
+            });
+            awaitQuery(db, started);
+            ByteArrayOutputStream overlap = new ByteArrayOutputStream();
+            try (ExpositionSink sink = new ExpositionSink(overlap, TextEncoder.Format.TEXT, false)) {
+                assertTrue(collector.stream(sink) == null, "second stream does not start while one runs");
+            }
+            assertEquals(0, overlap.size());
+            long before = db.statements();
+            assertTrue(collector.collect() == last, "overlapping request gets the last completed result");
+            assertEquals(before, db.statements());
+            release.countDown();
+            assertTrue(streamed.get(5, TimeUnit.SECONDS) != null);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, collector.servedStale());
+    }
+
+    @Test
+    void collect_concurrentCallersShareTheScrapeInFlight() throws Exception {
+        StandInDriver.Database db = database();
+        AltibaseCollector collector = new AltibaseCollector(db.connect(), null, TestConfig.builder()
+                .queryTimeoutSeconds(0).scrapeMaxWaiters(1).build());
+        collector.collect();
+        int before = db.queries().size();
+
+        CountDownLatch release = new CountDownLatch(1);
+        db.hold("", release);
+        long started = db.statements();
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            Future<MetricSnapshots> leader = pool.submit(collector::collect);
+            awaitQuery(db, started);
+            Future<MetricSnapshots> second = pool.submit(collector::collect);
+            Future<MetricSnapshots> third = pool.submit(collector::collect);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while ((collector.coalesced() < 1 || collector.servedStale() < 1) && System.nanoTime() < deadline) Thread.sleep(5);
+            release.countDown();
+            MetricSnapshots shared = leader.get(5, TimeUnit.SECONDS);
+            assertTrue(second.get(5, TimeUnit.SECONDS) == shared || third.get(5, TimeUnit.SECONDS) == shared);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, collector.coalesced());
+        assertEquals(1, collector.servedStale());
+        int concurrent = db.queries().size() - before;
+        collector.collect();
+        assertEquals(concurrent, db.queries().size() - before - concurrent, "three callers ran one scrape");
+    }
+
+    @Test
+    void collect_pastMaxWaiters_servesLastCompletedScrapeEvenIfItFailed() throws Exception {
+        StandInDriver.Database db = database().fail("V$MEMSTAT", "V$MEMSTAT unavailable", null);
+        AltibaseCollector collector = new AltibaseCollector(db.connect(), null, TestConfig.builder()
+                .queryTimeoutSeconds(0).scrapeMaxWaiters(0).build());
+        MetricSnapshots failed = collector.collect();
+        assertEquals(0.0, gauge(failed, "altibase_exporter_last_scrape_success"));
+
+        CountDownLatch release = new CountDownLatch(1);
+        db.hold("", release);
+        long started = db.statements();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<MetricSnapshots> leader = pool.submit(collector::collect);
+            awaitQuery(db, started);
+            assertTrue(collector.collect() == failed, "caller past max waiters gets the last completed result");
+            release.countDown();
+            leader.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, collector.servedStale());
+    }
+
+    private static final String FUSED_SQL = " FROM DUAL";
+
+    @Test
+    void collect_scalarQueriesAreFused() throws SQLException {
+        StandInDriver.Database db = database().generate(FUSED_SQL, 1);
+        MetricSnapshots snapshots = new AltibaseCollector(db.connect(), Set.of(), "test").collect();
+        List<String> queries = db.queries();
+        assertEquals(1, queries.stream().filter(sql -> sql.endsWith(FUSED_SQL)).count());
+        assertFalse(queries.contains("SELECT ARCHIVE_MODE FROM V$ARCHIVE"));
+        assertEquals(1.0, gauge(snapshots, "altibase_archive_mode"));
+        assertEquals(1.0, gauge(snapshots, "altibase_sessions"));
+    }
+
+    @Test
+    void collect_failedFusedQuery_fallsBackToIndividualQueries() throws SQLException {
+        StandInDriver.Database db = database().columnNotFound(FUSED_SQL);
+        MetricSnapshots snapshots = new AltibaseCollector(db.connect(), Set.of(), "test").collect();
+        assertEquals(1.0, gauge(snapshots, "altibase_exporter_last_scrape_success"));
+        assertTrue(db.queries().contains("SELECT ARCHIVE_MODE FROM V$ARCHIVE"));
+    }
+
+    @Test
+    void collect_memberFailingOnlyWhenFused_isIsolatedAndTheFailedQueryNotResent() throws SQLException {
+        // only the fused form wraps the member in parentheses; run alone it answers (with no rows)
+        StandInDriver.Database db = database()
+                .fail("(SELECT ARCHIVE_MODE FROM V$ARCHIVE)", "Single-row subquery returns more than one row", null)
+                .generate(FUSED_SQL, 1);
+        AltibaseCollector collector = new AltibaseCollector(db.connect(), Set.of(), "test");
+        MetricSnapshots first = collector.collect();
+        List<String> queries = db.queries();
+        String failedFused = queries.stream().filter(sql -> sql.endsWith(FUSED_SQL)).findFirst().orElseThrow();
+        assertEquals(1.0, gauge(first, "altibase_exporter_last_scrape_success"));
+        assertEquals(1.0, gauge(first, "altibase_sessions"), "members bisected away from the failing one keep their fused values");
+        assertTrue(queries.contains("SELECT ARCHIVE_MODE FROM V$ARCHIVE"));
+
+        MetricSnapshots second = collector.collect();
+        List<String> next = since(db, queries.size());
+        List<String> fused = next.stream().filter(sql -> sql.endsWith(FUSED_SQL)).toList();
+        assertEquals(1, fused.size(), fused.toString());
+        assertFalse(fused.contains(failedFused));
+        assertFalse(fused.get(0).contains("V$ARCHIVE"));
+        assertTrue(next.contains("SELECT ARCHIVE_MODE FROM V$ARCHIVE"));
+        assertEquals(1.0, gauge(second, "altibase_sessions"));
+    }
+
+    @Test
+    void collect_intervalTierMethod_runsOnceAndIsReplayedOnTheNextScrape() throws SQLException {
+        StandInDriver.Database db = database().table(TX_MGR_SQL, TX_MGR_COLUMNS, TX_MGR_ROWS);
+        AltibaseCollector collector = new AltibaseCollector(db.connect(), null,
+                TestConfig.builder().metricIntervals(Map.of("transaction_manager_count", 300)).build());
+        MetricSnapshots first = collector.collect();
+        MetricSnapshots second = collector.collect();
+        List<String> queries = db.queries();
+        assertEquals(1, queries.stream().filter(sql -> sql.contains(TX_MGR_SQL)).count(), "queried once over two scrapes");
+        assertTrue(queries.stream().filter(sql -> sql.contains("FROM V$SESSION WHERE ACTIVE_FLAG = 1")).count() >= 2,
+                "untiered methods still run every scrape");
+        for (MetricSnapshots snapshots : List.of(first, second)) {
+            assertEquals(7.0, gauge(snapshots, "altibase_transaction_manager_count", "status", "total"));
+            assertEquals(3.0, gauge(snapshots, "altibase_transaction_manager_count", "status", "active"));
+            assertEquals(1.0, gauge(snapshots, "altibase_exporter_last_scrape_success"));
+        }
+    }
+
+    @Test
+    void stream_intervalTierMethod_isReplayedFromItsEncoders() throws Exception {
+        StandInDriver.Database db = database().table(TX_MGR_SQL, TX_MGR_COLUMNS, TX_MGR_ROWS);
+        AltibaseCollector collector = new AltibaseCollector(db.connect(), null,
+                TestConfig.builder().metricIntervals(Map.of("transaction_manager_count", 300)).streaming(true).build());
+        for (int i = 0; i < 2; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (ExpositionSink sink = new ExpositionSink(out, TextEncoder.Format.TEXT, false)) {
+                collector.stream(sink);
+            }
+            String text = out.toString(StandardCharsets.UTF_8);
+            assertTrue(text.contains("altibase_transaction_manager_count{status=\"total\"} 7.0\n"), text);
+            assertTrue(text.contains("altibase_transaction_manager_count{status=\"active\"} 3.0\n"), text);
+        }
+        assertEquals(1, db.queries().stream().filter(sql -> sql.contains(TX_MGR_SQL)).count());
+    }
+
+    private static List<String> families(MetricSnapshots snapshots) {
+        List<String> names = new ArrayList<>();
+        for (MetricSnapshot s : snapshots) names.add(s.getMetadata().getName());
+        return names;
+    }
+
+    /** Gauge samples as text lines in output order, without the per-run timing families. */
+    private static List<String> samples(MetricSnapshots snapshots) {
+        List<String> lines = new ArrayList<>();
+        for (MetricSnapshot s : snapshots) {
+            String name = s.getMetadata().getName();
+            if (!(s instanceof GaugeSnapshot g) || name.startsWith("altibase_exporter_scrape_method_") || name.equals("altibase_scrape_duration_seconds")) continue;
+            for (GaugeSnapshot.GaugeDataPointSnapshot p : g.getDataPoints()) {
+                StringBuilder line = new StringBuilder(name).append('{');
+                for (int i = 0; i < p.getLabels().size(); i++) line.append(p.getLabels().getName(i)).append('=').append(p.getLabels().getValue(i)).append(',');
+                lines.add(line.append("} ").append(p.getValue()).toString());
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    void collect_parallel_slicesMergedInDispatchOrder_outputMatchesSerialWhateverOrderMethodsFinish() throws SQLException {
+        StandInDriver.Database db = database().table(TX_MGR_SQL, TX_MGR_COLUMNS, TX_MGR_ROWS)
+                .table("FROM V$LOCK", List.of("TABLE_NAME", "TX_ID", "LOCK_DESC"),
+                        List.<Object[]>of(new Object[]{"T2", 11L, "IX"}, new Object[]{"T1", 12L, "X"}));
+        List<String> serial = samples(new AltibaseCollector(db.connect(), null, TestConfig.defaults()).collect());
+        // an early method finishes after all the later ones
+        db.latency(TX_MGR_SQL, Duration.ofMillis(300));
+        int before = db.queries().size();
+        ConnectionPool pool = new ConnectionPool(db::connect, 4);
+        MetricSnapshots snapshots = new AltibaseCollector(db.connect(), pool,
+                TestConfig.builder().scrapeParallelism(4).build()).collect();
+        List<String> finished = since(db, before);
+        assertTrue(finished.get(finished.size() - 1).contains(TX_MGR_SQL), "slow method finished last");
+        assertEquals(serial, samples(snapshots));
+        assertEquals(1.0, gauge(snapshots, "altibase_exporter_last_scrape_success"));
+        assertEquals(7.0, gauge(snapshots, "altibase_transaction_manager_count", "status", "total"));
+        pool.close();
+    }
+
+    @Test
+    void collect_parallel_failingOrTimedOutMethodLeavesTheOthersIntact() throws SQLException {
+        StandInDriver.Database db = database().table(TX_MGR_SQL, TX_MGR_COLUMNS, TX_MGR_ROWS)
+                .fail("FIRST_UPDATE_TIME", "utrans failed", null)
+                .latency("MEM_CURSOR_FULL_SCAN", Duration.ofSeconds(5));
+        ConnectionPool pool = new ConnectionPool(db::connect, 4);
+        AltibaseCollector collector = new AltibaseCollector(db.connect(), pool,
+                TestConfig.builder().scrapeParallelism(4).scrapeTimeoutSeconds(1).build());
+        long start = System.nanoTime();
+        MetricSnapshots snapshots = collector.collect();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(4), "timed-out method was not waited for");
+        assertEquals(0.0, gauge(snapshots, "altibase_exporter_last_scrape_success"));
+        List<String> names = families(snapshots);
+        assertFalse(names.contains("altibase_utrans_query_count"), names.toString());
+        assertFalse(names.contains("altibase_fullscan_query_count"), names.toString());
+        assertEquals(7.0, gauge(snapshots, "altibase_transaction_manager_count", "status", "total"));
+        assertEquals(3.0, gauge(snapshots, "altibase_transaction_manager_count", "status", "active"));
+        assertTrue(names.contains("altibase_long_run_query_count"), names.toString());
+        assertTrue(names.contains("altibase_sessions"), names.toString());
+        pool.close();
+    }
+
+    @Test
+    void collect_sequenceLookupsAreBatched() throws SQLException {
+        List<Object[]> seqTables = new ArrayList<>();
+        for (int i = 0; i < 45; i++) seqTables.add(new Object[]{"APP", "S" + i + "$SEQ"});
+        // a batch answers one row per index (1-based here, so index 0 of each batch falls back to 0)
+        StandInDriver.Database db = database().generate("LAST_SYNC_SEQ", 45)
+                .table("SYS_REPL_ITEMS_", List.of("LOCAL_USER_NAME", "LOCAL_TABLE_NAME"), seqTables);
+        MetricSnapshots snapshots = new AltibaseCollector(db.connect(), Set.of(), "test").collect();
+        assertEquals(3, db.queries().stream().filter(sql -> sql.contains("LAST_SYNC_SEQ")).count());
+        for (MetricSnapshot s : snapshots) {
+            if (s.getMetadata().getName().equals("altibase_sequence_current_value")) {
+                assertEquals(45, ((GaugeSnapshot) s).getDataPoints().size());
+                return;
+            }
+        }
+        throw new AssertionError("missing altibase_sequence_current_value");
+    }
+}
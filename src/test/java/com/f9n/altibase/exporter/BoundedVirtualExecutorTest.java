@@ -0,0 +1,54 @@
+package com.f9n.altibase.exporter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedVirtualExecutorTest {
+
+    @Test
+    void execute_runsAtMostMaxInFlightAndQueuesTheRest() throws Exception {
+        BoundedVirtualExecutor executor = new BoundedVirtualExecutor("test", 2);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(5);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            executor.execute(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.queued() < 3 && System.nanoTime() < deadline) Thread.sleep(5);
+        assertEquals(3, executor.queued());
+        assertEquals(2, running.get());
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, peak.get());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void execute_unlimited_runsOnVirtualThreads() throws Exception {
+        BoundedVirtualExecutor executor = new BoundedVirtualExecutor("test", 0);
+        CountDownLatch virtual = new CountDownLatch(1);
+        executor.execute(() -> {
+            if (Thread.currentThread().isVirtual() && Thread.currentThread().getName().startsWith("test-")) virtual.countDown();
+        });
+        assertTrue(virtual.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+}
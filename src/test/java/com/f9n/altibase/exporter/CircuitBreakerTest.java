@@ -0,0 +1,53 @@
+package com.f9n.altibase.exporter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    @Test
+    void staysClosedBelowThreshold() {
+        CircuitBreaker b = new CircuitBreaker(3, 10, 100);
+        b.recordFailure(0);
+        b.recordFailure(0);
+        assertTrue(b.allowRequest(0));
+        assertFalse(b.isOpen(0));
+        assertEquals(2, b.consecutiveFailures());
+    }
+
+    @Test
+    void opensAtThresholdAndAllowsTrialAfterBackoff() {
+        CircuitBreaker b = new CircuitBreaker(2, 10, 100);
+        b.recordFailure(0);
+        b.recordFailure(0);
+        assertTrue(b.isOpen(5));
+        assertFalse(b.allowRequest(9));
+        assertTrue(b.allowRequest(10));
+    }
+
+    @Test
+    void backoffDoublesAndIsCapped() {
+        CircuitBreaker b = new CircuitBreaker(1, 10, 25);
+        b.recordFailure(0);
+        assertTrue(b.allowRequest(10));
+        b.recordFailure(10);
+        assertFalse(b.allowRequest(29));
+        assertTrue(b.allowRequest(30));
+        b.recordFailure(30);
+        assertFalse(b.allowRequest(54));
+        assertTrue(b.allowRequest(55));
+    }
+
+    @Test
+    void successResets() {
+        CircuitBreaker b = new CircuitBreaker(1, 10, 100);
+        b.recordFailure(0);
+        b.recordSuccess();
+        assertTrue(b.allowRequest(1));
+        assertFalse(b.isOpen(1));
+        assertEquals(0, b.consecutiveFailures());
+    }
+}
@@ -0,0 +1,83 @@
+package com.f9n.altibase.exporter;
+
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionManagerTest {
+
+    private ConnectionManager manager;
+
+    /** Waits until {@code m} holds a connection and has counted {@code reconnects} reconnects. */
+    private static Connection await(ConnectionManager m, long reconnects) throws InterruptedException {
+        for (int i = 0; i < 200 && (m.current() == null || m.reconnects() < reconnects); i++) Thread.sleep(10);
+        return m.current();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (manager != null) manager.close();
+        StandInDriver.uninstall();
+    }
+
+    @Test
+    void acquire_beforeFirstConnect_returnsNull() throws SQLException {
+        StandInDriver.Database db = StandInDriver.install("manager").refuseConnections(true);
+        manager = new ConnectionManager(db::connect, 1, 1);
+        manager.start();
+        assertNull(manager.acquire());
+        assertTrue(Double.isNaN(manager.lastConnectSeconds()));
+    }
+
+    @Test
+    void acquire_invalidConnection_reconnectsInBackground() throws InterruptedException, SQLException {
+        StandInDriver.Database db = StandInDriver.install("manager");
+        AtomicInteger listenerCalls = new AtomicInteger();
+        manager = new ConnectionManager(db::connect, 1, 1);
+        manager.onReconnect(listenerCalls::incrementAndGet);
+        manager.start();
+        Connection first = await(manager, 0);
+        assertNotNull(first);
+        assertSame(first, manager.acquire());
+        assertEquals(0, manager.reconnects());
+        assertFalse(Double.isNaN(manager.lastConnectSeconds()));
+
+        db.dropConnections();
+        assertNull(manager.acquire());
+        Connection second = await(manager, 1);
+        assertNotNull(second);
+        assertTrue(second != first);
+        assertEquals(1, manager.reconnects());
+        assertEquals(2, db.connects());
+        for (int i = 0; i < 200 && listenerCalls.get() < 1; i++) Thread.sleep(10);
+        assertEquals(1, listenerCalls.get());
+    }
+
+    @Test
+    void collect_databaseDown_reportsUpZero() throws SQLException {
+        StandInDriver.Database db = StandInDriver.install("manager").refuseConnections(true);
+        manager = new ConnectionManager(db::connect, 1, 1);
+        AltibaseCollector collector = new AltibaseCollector(manager, null, TestConfig.defaults());
+        MetricSnapshots snapshots = collector.collect();
+        for (MetricSnapshot s : snapshots) {
+            if (s.getMetadata().getName().equals("altibase_up")) {
+                assertEquals(0.0, ((GaugeSnapshot) s).getDataPoints().get(0).getValue());
+                return;
+            }
+        }
+        throw new AssertionError("missing altibase_up");
+    }
+}
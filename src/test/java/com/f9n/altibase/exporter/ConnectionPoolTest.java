@@ -0,0 +1,72 @@
+package com.f9n.altibase.exporter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolTest {
+
+    @AfterEach
+    void uninstall() throws SQLException {
+        StandInDriver.uninstall();
+    }
+
+    @Test
+    void borrow_reusesReleasedConnection() throws SQLException {
+        StandInDriver.Database db = StandInDriver.install("pool");
+        try (ConnectionPool pool = new ConnectionPool(db::connect, 2)) {
+            Connection first = pool.borrow();
+            pool.release(first);
+            Connection second = pool.borrow();
+            pool.release(second);
+            assertSame(first, second);
+            assertEquals(1, db.connects());
+        }
+    }
+
+    @Test
+    void release_discardsClosedConnection() throws SQLException {
+        StandInDriver.Database db = StandInDriver.install("pool");
+        try (ConnectionPool pool = new ConnectionPool(db::connect, 1)) {
+            Connection c = pool.borrow();
+            c.close();
+            pool.release(c);
+            pool.release(pool.borrow());
+            assertEquals(2, db.connects());
+        }
+    }
+
+    @Test
+    void borrow_failedOpenReturnsPermit() throws SQLException {
+        StandInDriver.Database db = StandInDriver.install("pool").refuseConnections(true);
+        AtomicInteger attempts = new AtomicInteger();
+        try (ConnectionPool pool = new ConnectionPool(() -> {
+            attempts.incrementAndGet();
+            return db.connect();
+        }, 1)) {
+            assertThrows(SQLException.class, pool::borrow);
+            db.refuseConnections(false);
+            pool.release(pool.borrow());
+            assertEquals(2, attempts.get());
+        }
+    }
+
+    @Test
+    void close_closesIdleConnections() throws SQLException {
+        StandInDriver.Database db = StandInDriver.install("pool");
+        ConnectionPool pool = new ConnectionPool(db::connect, 1);
+        Connection c = pool.borrow();
+        pool.release(c);
+        pool.close();
+        assertTrue(c.isClosed());
+        assertThrows(SQLException.class, pool::borrow);
+    }
+}
@@ -0,0 +1,243 @@
+package com.f9n.altibase.exporter;
+
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.HistogramSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CustomQueryCollectorTest {
+
+    @AfterEach
+    void uninstall() throws SQLException {
+        StandInDriver.uninstall();
+    }
+
+    /** The single custom query gauge (per-query stats gauges are skipped). */
+    private static GaugeSnapshot only(MetricSnapshots snapshots) {
+        List<GaugeSnapshot> custom = snapshots.stream()
+                .filter(s -> s.getMetadata().getName().startsWith(CustomQueryCollector.CUSTOM_METRIC_PREFIX))
+                .map(s -> (GaugeSnapshot) s).toList();
+        assertEquals(1, custom.size());
+        return custom.get(0);
+    }
+
+    private static double stat(MetricSnapshots snapshots, String name, String query) {
+        GaugeSnapshot g = (GaugeSnapshot) snapshots.stream().filter(s -> s.getMetadata().getName().equals(name)).findFirst().orElseThrow();
+        return g.getDataPoints().stream().filter(p -> query.equals(p.getLabels().get("query"))).findFirst().orElseThrow().getValue();
+    }
+
+    private static double runRows(MetricSnapshots snapshots, String query) {
+        CounterSnapshot c = (CounterSnapshot) snapshots.stream()
+                .filter(s -> s.getMetadata().getName().equals("altibase_exporter_custom_query_run_rows")).findFirst().orElseThrow();
+        return c.getDataPoints().stream().filter(p -> query.equals(p.getLabels().get("query"))).findFirst().orElseThrow().getValue();
+    }
+
+    private static long runCount(MetricSnapshots snapshots, String query) {
+        HistogramSnapshot h = (HistogramSnapshot) snapshots.stream()
+                .filter(s -> s.getMetadata().getName().equals("altibase_exporter_custom_query_run_duration_seconds")).findFirst().orElseThrow();
+        return h.getDataPoints().stream().filter(p -> query.equals(p.getLabels().get("query"))).findFirst().orElseThrow().getCount();
+    }
+
+    /** Scripts {@code n} rows (NAME r0.., VALUE 0..) for queries containing {@code fragment}. */
+    private static StandInDriver.Database counting(StandInDriver.Database db, String fragment, int n) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < n; i++) rows.add(new Object[]{"r" + i, (long) i});
+        return db.table(fragment, List.of("NAME", "VALUE"), rows);
+    }
+
+    @Test
+    void collect_reusesPreparedStatementAndMapsRows() throws SQLException {
+        StandInDriver.Database db = StandInDriver.install("custom").table("SELECT", List.of("User-Name", "VALUE"),
+                List.of(new Object[]{"SYS", 3L}, new Object[]{null, 4L}));
+        CustomQueryCollector collector = new CustomQueryCollector(db.connect(),
+                List.of(new CustomQueryCollector.QueryDef("sessions", "Sessions per user", "SELECT ...", null)));
+        collector.collect();
+        GaugeSnapshot g = only(collector.collect());
+        assertEquals(1, db.prepares());
+        assertEquals("altibase_custom_sessions", g.getMetadata().getName());
+        assertEquals("SYS", g.getDataPoints().get(0).getLabels().get("user_name"));
+        assertEquals("", g.getDataPoints().get(1).getLabels().get("user_name"));
+        assertEquals(4.0, g.getDataPoints().get(1).getValue());
+    }
+
+    @Test
+    void collect_shapeChange_remapsColumns() throws SQLException {
+        StandInDriver.Database db = StandInDriver.install("custom").table("SELECT", List.of("NAME", "VALUE"), List.<Object[]>of(new Object[]{"a", 1}));
+        CustomQueryCollector collector = new CustomQueryCollector(db.connect(),
+                List.of(new CustomQueryCollector.QueryDef("q", "help", "SELECT ...", null)));
+        collector.collect();
+        db.clearTables().table("SELECT", List.of("VALUE", "NAME"), List.<Object[]>of(new Object[]{2.5, "b"}));
+        GaugeSnapshot g = only(collector.collect());
+        assertEquals(1, db.prepares());
+        assertEquals(2.5, g.getDataPoints().get(0).getValue());
+    }
+
+    @Test
+    void collect_interval_reusesResultWithoutExecuting() throws SQLException {
+        StandInDriver.Database db = counting(StandInDriver.install("custom"), "SELECT", 1);
+        CustomQueryCollector collector = new CustomQueryCollector(db.connect(),
+                List.of(new CustomQueryCollector.QueryDef("slow", "help", "SELECT ...", null, 3600, 0, 0, false, null)));
+        collector.collect();
+        counting(db.clearTables(), "SELECT", 2);
+        GaugeSnapshot g = only(collector.collect());
+        assertEquals(1, db.statements());
+        assertEquals(1, g.getDataPoints().size());
+    }
+
+    @Test
+    void collect_maxRows_truncatesAndReportsStats() throws SQLException {
+        StandInDriver.Database db = counting(StandInDriver.install("custom"), "SELECT", 5);
+        CustomQueryCollector collector = new CustomQueryCollector(ConnectionManager.fixed(db.connect()), null,
+                List.of(new CustomQueryCollector.QueryDef("capped", "help", "SELECT ...", null, 0, 0, 3, false, null),
+                        new CustomQueryCollector.QueryDef("defaulted", "help", "SELECT ...", null)), 10, 100);
+        MetricSnapshots snapshots = collector.collect();
+        assertEquals(3.0, runRows(snapshots, "capped"));
+        assertEquals(1.0, stat(snapshots, "altibase_exporter_custom_query_truncated", "capped"));
+        assertEquals(5.0, runRows(snapshots, "defaulted"));
+        assertEquals(0.0, stat(snapshots, "altibase_exporter_custom_query_truncated", "defaulted"));
+        assertEquals(1, runCount(snapshots, "capped"));
+    }
+
+    @Test
+    void collect_parallelQueries_runOnPooledConnections() throws Exception {
+        StandInDriver.Database main = counting(StandInDriver.install("custom_main"), "SELECT", 1);
+        // both parallel queries are held until they are running at the same time
+        CountDownLatch release = new CountDownLatch(1);
+        StandInDriver.Database pooled = counting(StandInDriver.install("custom_pool"), "SELECT", 2).hold("SELECT", release);
+        Thread releaser = Thread.ofVirtual().start(() -> {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            try {
+                while (pooled.statements() < 2 && System.nanoTime() < deadline) Thread.sleep(5);
+            } catch (InterruptedException ignored) {
+                // release below
+            }
+            release.countDown();
+        });
+        ConnectionPool pool = new ConnectionPool(pooled::connect, 2);
+        CustomQueryCollector collector = new CustomQueryCollector(ConnectionManager.fixed(main.connect()), pool,
+                List.of(new CustomQueryCollector.QueryDef("p1", "help", "SELECT ...", null, 0, 0, 0, true, null),
+                        new CustomQueryCollector.QueryDef("p2", "help", "SELECT ...", null, 0, 0, 0, true, null),
+                        new CustomQueryCollector.QueryDef("serial", "help", "SELECT ...", null)), 0, 0);
+        MetricSnapshots snapshots = collector.collect();
+        releaser.join();
+        assertEquals(2, pooled.maxInFlight(), "parallel queries ran serially");
+        assertEquals(1, main.statements());
+        assertEquals(2.0, runRows(snapshots, "p1"));
+        assertEquals(2.0, runRows(snapshots, "p2"));
+        assertEquals(1.0, runRows(snapshots, "serial"));
+        pool.close();
+    }
+
+    @Test
+    void collect_concurrentRegistryScrapes_neverOverlapStatementsOnSharedConnection() throws Exception {
+        // every query takes a moment, so statements that overlap on the shared connection are seen in flight together
+        StandInDriver.Database db = StandInDriver.install("custom").latency("", Duration.ofMillis(1));
+        ConnectionManager connections = ConnectionManager.fixed(db.connect());
+        PrometheusRegistry registry = new PrometheusRegistry();
+        registry.register(new AltibaseCollector(connections, null, TestConfig.defaults()));
+        registry.register(new CustomQueryCollector(connections, List.of(
+                new CustomQueryCollector.QueryDef("q1", "help", "SELECT 1 ...", null),
+                new CustomQueryCollector.QueryDef("q2", "help", "SELECT 2 ...", null))));
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<MetricSnapshots>> scrapes = new ArrayList<>();
+            for (int i = 0; i < 8; i++) scrapes.add(pool.submit(registry::scrape));
+            for (Future<MetricSnapshots> f : scrapes) f.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertTrue(db.statements() > 0);
+        assertEquals(1, db.maxInFlight(), "overlapping executeQuery calls on the shared connection");
+    }
+
+    @Test
+    void collect_multiMetricQuery_feedsEveryFamilyFromOneExecution() throws SQLException {
+        StandInDriver.Database db = StandInDriver.install("custom").table("SELECT", List.of("USER_NAME", "ACTIVE", "EXECUTIONS"),
+                List.of(new Object[]{"SYS", 2, 40L}, new Object[]{"APP", 5, 900L}));
+        CustomQueryCollector collector = new CustomQueryCollector(db.connect(),
+                List.of(new CustomQueryCollector.QueryDef("sessions", "Sessions", "SELECT ...", null, 0, 0, 0, false, List.of(
+                        new CustomQueryCollector.MetricDef("sessions_active", CustomQueryCollector.MetricType.GAUGE, null, "active", null, null),
+                        new CustomQueryCollector.MetricDef("executions_total", CustomQueryCollector.MetricType.COUNTER, "Executions", "executions", null, null)))));
+        MetricSnapshots snapshots = collector.collect();
+        GaugeSnapshot active = (GaugeSnapshot) snapshots.stream().filter(m -> m.getMetadata().getName().equals("altibase_custom_sessions_active")).findFirst().orElseThrow();
+        CounterSnapshot executions = (CounterSnapshot) snapshots.stream().filter(m -> m.getMetadata().getName().equals("altibase_custom_executions")).findFirst().orElseThrow();
+        assertEquals("Sessions", active.getMetadata().getHelp());
+        assertEquals("APP", active.getDataPoints().get(1).getLabels().get("user_name"));
+        assertEquals(5.0, active.getDataPoints().get(1).getValue());
+        assertEquals(900.0, executions.getDataPoints().get(1).getValue());
+        assertEquals(List.of("altibase_custom_sessions_active", "altibase_custom_executions"), collector.getPrometheusNames().subList(0, 2));
+        assertEquals(1, db.prepares());
+    }
+
+    @Test
+    void collect_histogramFromBucketRows_groupsByLabels() throws SQLException {
+        StandInDriver.Database db = StandInDriver.install("custom").table("SELECT", List.of("TBS", "LE", "N", "TOTAL"),
+                List.of(new Object[]{"a", "0.5", 3L, 1.0}, new Object[]{"a", "1", 2L, 1.5}, new Object[]{"a", "+Inf", 1L, 4.0},
+                        new Object[]{"b", "1", 7L, 3.0}));
+        CustomQueryCollector collector = new CustomQueryCollector(db.connect(),
+                List.of(new CustomQueryCollector.QueryDef("io", "IO latency", "SELECT ...", null, 0, 0, 0, false, List.of(
+                        new CustomQueryCollector.MetricDef("io_wait_seconds", CustomQueryCollector.MetricType.HISTOGRAM, null, "n", "le", "total")))));
+        HistogramSnapshot h = (HistogramSnapshot) collector.collect().stream()
+                .filter(m -> m.getMetadata().getName().equals("altibase_custom_io_wait_seconds")).findFirst().orElseThrow();
+        assertEquals(2, h.getDataPoints().size());
+        HistogramSnapshot.HistogramDataPointSnapshot a = h.getDataPoints().get(0);
+        assertEquals("a", a.getLabels().get("tbs"));
+        assertEquals(3, a.getClassicBuckets().size());
+        assertEquals(6, a.getCount());
+        assertEquals(6.5, a.getSum());
+        HistogramSnapshot.HistogramDataPointSnapshot b = h.getDataPoints().get(1);
+        assertEquals(Double.POSITIVE_INFINITY, b.getClassicBuckets().getUpperBound(1));
+        assertEquals(7, b.getCount());
+    }
+
+    @Test
+    void reload_keepsPlansOfUnchangedQueries() throws SQLException {
+        StandInDriver.Database db = counting(StandInDriver.install("custom"), "SELECT", 1);
+        CustomQueryCollector.QueryDef kept = new CustomQueryCollector.QueryDef("kept", "help", "SELECT 1", null);
+        CustomQueryCollector collector = new CustomQueryCollector(db.connect(),
+                List.of(kept, new CustomQueryCollector.QueryDef("dropped", "help", "SELECT 2", null)));
+        collector.collect();
+        assertEquals(2, db.prepares());
+        collector.reload(List.of(kept, new CustomQueryCollector.QueryDef("added", "help", "SELECT 3", null)));
+        MetricSnapshots snapshots = collector.collect();
+        assertEquals(3, db.prepares());
+        assertTrue(collector.getPrometheusNames().contains("altibase_custom_added"));
+        assertFalse(collector.getPrometheusNames().contains("altibase_custom_dropped"));
+        assertEquals(1.0, runRows(snapshots, "added"));
+        HistogramSnapshot runs = (HistogramSnapshot) snapshots.stream()
+                .filter(m -> m.getMetadata().getName().equals("altibase_exporter_custom_query_run_duration_seconds")).findFirst().orElseThrow();
+        List<String> queries = runs.getDataPoints().stream().map(p -> p.getLabels().get("query")).toList();
+        assertEquals(List.of("added", "kept"), queries, "stats of the dropped query are pruned by the reload");
+        assertEquals(2, runs.getDataPoints().get(1).getCount());
+        CounterSnapshot rows = (CounterSnapshot) snapshots.stream()
+                .filter(m -> m.getMetadata().getName().equals("altibase_exporter_custom_query_run_rows")).findFirst().orElseThrow();
+        assertEquals(2, rows.getDataPoints().size());
+    }
+
+    @Test
+    void validate_rejectsDuplicateAndInvalidNames() {
+        CustomQueryCollector.QueryDef a = new CustomQueryCollector.QueryDef("a", "help", "SELECT 1", null);
+        assertThrows(IllegalArgumentException.class, () -> CustomQueryCollector.validate(List.of(a, a)));
+        assertThrows(IllegalArgumentException.class, () -> CustomQueryCollector.validate(
+                List.of(new CustomQueryCollector.QueryDef("bad-name", "help", "SELECT 1", null))));
+        CustomQueryCollector.validate(List.of(a));
+    }
+}
@@ -0,0 +1,88 @@
+package com.f9n.altibase.exporter;
+
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.Labels;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DeltaEngineTest {
+
+    private static final long SECOND = 1_000_000_000L;
+    private static final Labels READS = Labels.of("name", "reads");
+
+    private static DeltaEngine.Sample sample(double raw, long second) {
+        return new DeltaEngine.Sample("sysstat", READS, raw, second * SECOND);
+    }
+
+    private static double counter(List<MetricSnapshot> out) {
+        return ((CounterSnapshot) out.get(0)).getDataPoints().get(0).getValue();
+    }
+
+    private static double rate(List<MetricSnapshot> out) {
+        GaugeSnapshot g = (GaugeSnapshot) out.get(1);
+        assertEquals("altibase_sysstat_per_second", g.getMetadata().getName());
+        return g.getDataPoints().get(0).getValue();
+    }
+
+    @Test
+    void apply_accumulatesDeltasAndRates() {
+        DeltaEngine engine = new DeltaEngine();
+        List<MetricSnapshot> first = engine.apply(List.of(sample(100, 0)), 10, true, true);
+        assertEquals(100.0, counter(first));
+        assertEquals(1, first.size());
+        List<MetricSnapshot> second = engine.apply(List.of(sample(130, 15)), 25, true, true);
+        assertEquals(130.0, counter(second));
+        assertEquals(2.0, rate(second));
+        assertEquals(0, engine.resets());
+    }
+
+    @Test
+    void apply_serverRestart_continuesCounterInsteadOfDropping() {
+        DeltaEngine engine = new DeltaEngine();
+        engine.apply(List.of(sample(1000, 0)), 500, true, true);
+        List<MetricSnapshot> out = engine.apply(List.of(sample(1200, 10)), 5, true, true);
+        assertEquals(2200.0, counter(out));
+        assertEquals(120.0, rate(out));
+        assertEquals(1, engine.resets());
+    }
+
+    @Test
+    void apply_valueDecrease_isReset() {
+        DeltaEngine engine = new DeltaEngine();
+        engine.apply(List.of(sample(50, 0)), Double.NaN, true, false);
+        assertEquals(60.0, counter(engine.apply(List.of(sample(10, 1)), Double.NaN, true, false)));
+        assertEquals(1, engine.resets());
+    }
+
+    @Test
+    void apply_replayedSample_leavesSeriesUnchanged() {
+        DeltaEngine engine = new DeltaEngine();
+        engine.apply(List.of(sample(10, 0)), Double.NaN, true, true);
+        engine.apply(List.of(sample(20, 5)), Double.NaN, true, true);
+        List<MetricSnapshot> out = engine.apply(List.of(sample(20, 5)), Double.NaN, true, true);
+        assertEquals(20.0, counter(out));
+        assertEquals(2.0, rate(out));
+    }
+
+    @Test
+    void apply_manySeries_growsTableAndKeepsState() {
+        DeltaEngine engine = new DeltaEngine();
+        List<DeltaEngine.Sample> round1 = new ArrayList<>();
+        List<DeltaEngine.Sample> round2 = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            round1.add(new DeltaEngine.Sample("file_io_reads", Labels.of("file_name", "f" + i), i, 0));
+            round2.add(new DeltaEngine.Sample("file_io_reads", Labels.of("file_name", "f" + i), i + 1, SECOND));
+        }
+        engine.apply(round1, Double.NaN, true, false);
+        CounterSnapshot c = (CounterSnapshot) engine.apply(round2, Double.NaN, true, false).get(0);
+        assertEquals(1000, engine.size());
+        for (int i = 0; i < 1000; i++) assertEquals(i + 1.0, c.getDataPoints().get(i).getValue());
+        assertEquals(0, engine.resets());
+    }
+}
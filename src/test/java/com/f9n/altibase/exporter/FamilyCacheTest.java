@@ -0,0 +1,57 @@
+package com.f9n.altibase.exporter;
+
+import io.prometheus.metrics.model.snapshots.Labels;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FamilyCacheTest {
+
+    private static TextEncoder property(String value) {
+        TextEncoder enc = new TextEncoder("altibase_property");
+        enc.sample(Labels.of("name", "LOCK_ESCALATION", "value", value), 1);
+        return enc;
+    }
+
+    private static byte[] write(FamilyCache cache, TextEncoder enc, boolean gzip, String prefix) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExpositionSink sink = new ExpositionSink(out, TextEncoder.Format.TEXT, gzip)) {
+            sink.write(prefix.getBytes(StandardCharsets.UTF_8));
+            cache.write(sink, "property", enc, "Server property.");
+            sink.write("altibase_up 1.0\n".getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    void write_unchangedFamilyIsSplicedFromCache() throws IOException {
+        FamilyCache cache = new FamilyCache();
+        byte[] first = write(cache, property("0"), false, "");
+        byte[] second = write(cache, property("0"), false, "");
+        assertEquals(new String(first, StandardCharsets.UTF_8), new String(second, StandardCharsets.UTF_8));
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+        write(cache, property("1"), false, "");
+        assertEquals(2, cache.misses());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void write_gzipSplicesMembersThatDecodeAsOneStream() throws IOException {
+        FamilyCache cache = new FamilyCache();
+        String plain = new String(write(cache, property("0"), false, "# head\n"), StandardCharsets.UTF_8);
+        write(cache, property("0"), true, "# head\n");
+        byte[] gz = write(cache, property("0"), true, "# head\n");
+        assertEquals(2, cache.misses());
+        assertEquals(1, cache.hits());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gz))) {
+            assertEquals(plain, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -2,9 +2,20 @@ package com.f9n.altibase.exporter;
 
 import org.junit.jupiter.api.Test;
 
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class MainTest {
@@ -39,4 +50,65 @@ class MainTest {
         assertEquals(Set.of("a", "b"), Main.parseDisabledMetrics("a,,b"));
         assertEquals(Set.of("x"), Main.parseDisabledMetrics("  ,  x  ,  "));
     }
+
+    @Test
+    void parseMetricIntervals_blank_returnsEmpty() {
+        assertTrue(Main.parseMetricIntervals(null).isEmpty());
+        assertTrue(Main.parseMetricIntervals("  ").isEmpty());
+    }
+
+    @Test
+    void parseMetricIntervals_pairs() {
+        assertEquals(Map.of("property", 600, "sessions", 0), Main.parseMetricIntervals(" property=600 , sessions = 0 "));
+    }
+
+    @Test
+    void parseMetricIntervals_malformedEntriesSkipped() {
+        assertEquals(Map.of("jobs", 30), Main.parseMetricIntervals("=5,nokey,bad=x,neg=-1,jobs=30"));
+    }
+
+    @Test
+    void parseSeriesBudgets_pairs() {
+        assertEquals(Map.of("lock_table", 200, "sequence", 0), Main.parseSeriesBudgets("lock_table=200, sequence=0, bad=x"));
+        assertTrue(Main.parseSeriesBudgets("").isEmpty());
+    }
+
+    @Test
+    void parseQuery_decodesParameters() {
+        Map<String, String> params = Main.parseQuery("target=db1%3A20300%2Fmydb&module=prod&module=other");
+        assertEquals("db1:20300/mydb", params.get("target"));
+        assertEquals("prod", params.get("module"));
+        assertTrue(Main.parseQuery(null).isEmpty());
+    }
+
+    @Test
+    void connectWithTimeout_hungConnect_timesOutAndCancelsTheTask() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Driver hanging = new Driver() {
+            public Connection connect(String url, Properties info) {
+                if (!acceptsURL(url)) return null;
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return null;
+            }
+            public boolean acceptsURL(String url) { return url.startsWith("jdbc:hang:"); }
+            public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) { return new DriverPropertyInfo[0]; }
+            public int getMajorVersion() { return 1; }
+            public int getMinorVersion() { return 0; }
+            public boolean jdbcCompliant() { return false; }
+            public Logger getParentLogger() { return Logger.getGlobal(); }
+        };
+        DriverManager.registerDriver(hanging);
+        try {
+            SQLException e = assertThrows(SQLException.class,
+                    () -> Main.connectWithTimeout("jdbc:hang://db", new Properties(), 1, "db", 20300, "mydb"));
+            assertTrue(e.getMessage().startsWith("Connection timeout"), e.getMessage());
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        } finally {
+            DriverManager.deregisterDriver(hanging);
+        }
+    }
 }
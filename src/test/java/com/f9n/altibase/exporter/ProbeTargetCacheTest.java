@@ -0,0 +1,100 @@
+package com.f9n.altibase.exporter;
+
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProbeTargetCacheTest {
+
+    private static final ExporterConfig BASE = TestConfig.defaults();
+
+    private final List<String> opened = new ArrayList<>();
+    private final List<Connection> connections = new ArrayList<>();
+    private StandInDriver.Database db;
+    private ProbeTargetCache cache;
+
+    /** Connection to the stand-in database (queries return no rows); records its target. */
+    private Connection open(ExporterConfig config) throws SQLException {
+        opened.add(config.user() + "@" + config.server() + ":" + config.port() + "/" + config.database());
+        Connection c = db.connect();
+        connections.add(c);
+        return c;
+    }
+
+    private ProbeTargetCache cache(int maxTargets) throws SQLException {
+        db = StandInDriver.install("probe").defaultRows(0);
+        Map<String, ProbeModules.Module> modules = Map.of(
+                "default", new ProbeModules.Module("default", "sys", "manager", null, 10, Set.of()),
+                "ro", new ProbeModules.Module("ro", "monitor", "secret", null, 10, Set.of("sessions")));
+        cache = new ProbeTargetCache(BASE, modules, this::open, maxTargets, 300);
+        return cache;
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (cache != null) cache.close();
+        StandInDriver.uninstall();
+    }
+
+    private static double gauge(MetricSnapshots snapshots, String name) {
+        for (MetricSnapshot s : snapshots) {
+            if (s.getMetadata().getName().equals(name)) return ((GaugeSnapshot) s).getDataPoints().get(0).getValue();
+        }
+        throw new AssertionError("missing " + name);
+    }
+
+    @Test
+    void parseTarget_defaultsPortAndDatabase() {
+        assertEquals(new ProbeTargetCache.Target("db1", 20300, "mydb"), ProbeTargetCache.parseTarget("db1", BASE));
+        assertEquals(new ProbeTargetCache.Target("db1.example", 20301, "other"), ProbeTargetCache.parseTarget("db1.example:20301/other", BASE));
+        assertThrows(IllegalArgumentException.class, () -> ProbeTargetCache.parseTarget("db1;x=y", BASE));
+        assertThrows(IllegalArgumentException.class, () -> ProbeTargetCache.parseTarget("", BASE));
+    }
+
+    @Test
+    void probe_reusesWarmConnectionPerTargetAndModule() throws SQLException {
+        ProbeTargetCache probes = cache(10);
+        assertEquals(1.0, gauge(probes.probe("db1:20300/mydb", null), "altibase_exporter_last_scrape_success"));
+        probes.probe("db1:20300/mydb", "default");
+        probes.probe("db1:20300/mydb", "ro");
+        assertEquals(List.of("sys@db1:20300/mydb", "monitor@db1:20300/mydb"), opened);
+    }
+
+    @Test
+    void probe_evictsLeastRecentlyUsedTarget() throws SQLException {
+        ProbeTargetCache probes = cache(2);
+        probes.probe("db1", null);
+        probes.probe("db2", null);
+        probes.probe("db1", null);
+        probes.probe("db3", null);
+        assertEquals(2, probes.size());
+        assertTrue(connections.get(1).isClosed());
+        probes.probe("db1", null);
+        assertEquals(3, opened.size());
+    }
+
+    @Test
+    void probe_unknownModule_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> cache(10).probe("db1", "nope"));
+    }
+
+    @Test
+    void probe_connectFailure_reportsScrapeFailure() throws SQLException {
+        StandInDriver.Database down = StandInDriver.install("probe").refuseConnections(true);
+        cache = new ProbeTargetCache(BASE, ProbeModules.fromConfig(BASE), c -> down.connect(), 10, 300);
+        assertEquals(0.0, gauge(cache.probe("db1", null), "altibase_exporter_last_scrape_success"));
+    }
+}
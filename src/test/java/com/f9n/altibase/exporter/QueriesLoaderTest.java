@@ -100,4 +100,67 @@ class QueriesLoaderTest {
             Files.deleteIfExists(tmp);
         }
     }
+
+    @Test
+    void load_executionOptions() throws IOException {
+        Path tmp = Files.createTempFile("queries", ".yaml");
+        try {
+            String yaml = """
+                queries:
+                  - name: big
+                    help: "Big"
+                    sql: "SELECT 1"
+                    interval: 300
+                    timeout: 30
+                    max_rows: 500
+                    parallel: true
+                  - name: plain
+                    help: "Plain"
+                    sql: "SELECT 1"
+                    interval: soon
+                """;
+            Files.writeString(tmp, yaml);
+            List<CustomQueryCollector.QueryDef> result = QueriesLoader.load(tmp);
+            assertEquals(new CustomQueryCollector.QueryDef("big", "Big", "SELECT 1", null, 300, 30, 500, true, null), result.get(0));
+            assertEquals(new CustomQueryCollector.QueryDef("plain", "Plain", "SELECT 1", null), result.get(1));
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Test
+    void load_metrics() throws IOException {
+        Path tmp = Files.createTempFile("queries", ".yaml");
+        try {
+            String yaml = """
+                queries:
+                  - name: io
+                    help: "IO"
+                    sql: "SELECT ..."
+                    metrics:
+                      - name: io_reads
+                        column: reads
+                        type: counter
+                      - name: io_wait_seconds
+                        type: histogram
+                        column: n
+                        bucket_column: le
+                        sum_column: total
+                        help: "IO wait"
+                      - name: missing_bucket
+                        type: histogram
+                        column: n
+                      - name: bad_type
+                        type: summary
+                        column: n
+                """;
+            Files.writeString(tmp, yaml);
+            List<CustomQueryCollector.MetricDef> metrics = QueriesLoader.load(tmp).get(0).metrics();
+            assertEquals(List.of(
+                    new CustomQueryCollector.MetricDef("io_reads", CustomQueryCollector.MetricType.COUNTER, null, "reads", null, null),
+                    new CustomQueryCollector.MetricDef("io_wait_seconds", CustomQueryCollector.MetricType.HISTOGRAM, "IO wait", "n", "le", "total")), metrics);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
 }
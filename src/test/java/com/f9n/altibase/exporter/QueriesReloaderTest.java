@@ -0,0 +1,68 @@
+package com.f9n.altibase.exporter;
+
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueriesReloaderTest {
+
+    @AfterEach
+    void uninstall() throws SQLException {
+        StandInDriver.uninstall();
+    }
+
+    private static MetricSnapshot find(MetricSnapshots snapshots, String name) {
+        return snapshots.stream().filter(s -> s.getMetadata().getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void reload_appliesChangesAndKeepsQueriesOnInvalidFile() throws IOException, SQLException {
+        Path tmp = Files.createTempFile("queries", ".yaml");
+        CustomQueryCollector collector = new CustomQueryCollector(StandInDriver.install("reloader").connect(), List.of());
+        try (QueriesReloader reloader = new QueriesReloader(tmp, collector)) {
+            Files.writeString(tmp, """
+                queries:
+                  - name: one
+                    help: "One"
+                    sql: "SELECT 1"
+                """);
+            assertTrue(reloader.reload());
+            assertFalse(reloader.reload());
+            assertEquals(1, collector.size());
+
+            Files.writeString(tmp, """
+                queries:
+                  - name: one
+                    help: "One"
+                    sql: "SELECT 1"
+                  - name: one
+                    help: "Duplicate"
+                    sql: "SELECT 2"
+                """);
+            assertFalse(reloader.reload());
+            assertEquals(1, collector.size());
+
+            MetricSnapshots snapshots = reloader.collect();
+            CounterSnapshot reloads = (CounterSnapshot) find(snapshots, "altibase_exporter_queries_reloads");
+            assertEquals(1.0, reloads.getDataPoints().get(0).getValue());
+            assertEquals(1.0, reloads.getDataPoints().get(1).getValue());
+            assertEquals(0.0, ((GaugeSnapshot) find(snapshots, "altibase_exporter_queries_last_reload_success")).getDataPoints().get(0).getValue());
+            assertTrue(((GaugeSnapshot) find(snapshots, "altibase_exporter_queries_last_reload_timestamp_seconds")).getDataPoints().get(0).getValue() > 0);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.f9n.altibase.exporter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SchemaProbeTest {
+
+    @AfterEach
+    void uninstall() throws SQLException {
+        StandInDriver.uninstall();
+    }
+
+    /** Stand-in database whose queries return no rows unless a rule says otherwise. */
+    private static StandInDriver.Database database() throws SQLException {
+        return StandInDriver.install("schema").defaultRows(0);
+    }
+
+    private static Statement statement(StandInDriver.Database db) throws SQLException {
+        return db.connect().createStatement();
+    }
+
+    @Test
+    void probe_allColumnsPresent_pinsPreferredVariants() throws SQLException {
+        SchemaProbe.Capabilities caps = SchemaProbe.probe(statement(database()));
+        assertEquals("peer_detail", caps.get(SchemaProbe.REPLICATION_SENDER).name());
+        assertEquals("remote", caps.get(SchemaProbe.REPLICATION_RECEIVER).name());
+        assertEquals("full", caps.get(SchemaProbe.SEQUENCES).name());
+        assertEquals("full", caps.get(SchemaProbe.TX_MEMORY_VIEW_SCN).name());
+        assertEquals("unknown", caps.version());
+    }
+
+    @Test
+    void probe_missingColumns_fallsBackToNextVariant() throws SQLException {
+        StandInDriver.Database db = database().columnNotFound("XSN").columnNotFound("PEER_IP").columnNotFound("CACHE_SIZE")
+                .columnNotFound("MEMGC");
+        SchemaProbe.Capabilities caps = SchemaProbe.probe(statement(db));
+        assertEquals("remote", caps.get(SchemaProbe.REPLICATION_SENDER).name());
+        assertEquals("no_cache", caps.get(SchemaProbe.SEQUENCES).name());
+        assertEquals("fallback", caps.get(SchemaProbe.TX_MEMORY_VIEW_SCN).name());
+    }
+
+    @Test
+    void probe_missingView_marksCapabilityNone() throws SQLException {
+        SchemaProbe.Capabilities caps = SchemaProbe.probe(statement(database().fail("V$REPRECEIVER", "Table or view was not found", "42000")));
+        assertNull(caps.get(SchemaProbe.REPLICATION_RECEIVER));
+        assertEquals("none", SchemaProbe.describe(caps).get(SchemaProbe.REPLICATION_RECEIVER));
+    }
+
+    @Test
+    void probe_otherErrors_propagate() throws SQLException {
+        Statement stmt = statement(database().fail("V$REPSENDER", "Communication link failure", StandInDriver.SQLSTATE_LINK_FAILURE));
+        assertThrows(SQLException.class, () -> SchemaProbe.probe(stmt));
+    }
+}
@@ -0,0 +1,64 @@
+package com.f9n.altibase.exporter;
+
+import io.prometheus.metrics.model.registry.MultiCollector;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.Labels;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScrapeSchedulerTest {
+
+    private static MultiCollector countingCollector(AtomicInteger calls) {
+        return () -> new MetricSnapshots(GaugeSnapshot.builder()
+                .name("altibase_test")
+                .dataPoint(new GaugeSnapshot.GaugeDataPointSnapshot(calls.incrementAndGet(), Labels.EMPTY, null))
+                .build());
+    }
+
+    private static List<String> names(MetricSnapshots snapshots) {
+        return snapshots.stream().map(s -> s.getMetadata().getName()).toList();
+    }
+
+    @Test
+    void collect_beforeFirstRefresh_returnsEmpty() {
+        try (ScrapeScheduler scheduler = new ScrapeScheduler(List.of(countingCollector(new AtomicInteger())), 60)) {
+            assertEquals(0, scheduler.collect().size());
+        }
+    }
+
+    @Test
+    void collect_servesPublishedSnapshotWithoutScraping() {
+        AtomicInteger calls = new AtomicInteger();
+        try (ScrapeScheduler scheduler = new ScrapeScheduler(List.of(countingCollector(calls)), 60)) {
+            scheduler.refresh();
+            scheduler.collect();
+            MetricSnapshots served = scheduler.collect();
+            assertEquals(1, calls.get());
+            assertTrue(names(served).contains("altibase_test"));
+            assertTrue(names(served).contains("altibase_exporter_snapshot_age_seconds"));
+            for (MetricSnapshot s : served) {
+                if (s.getMetadata().getName().equals("altibase_test")) {
+                    assertEquals(1.0, ((GaugeSnapshot) s).getDataPoints().get(0).getValue());
+                }
+            }
+        }
+    }
+
+    @Test
+    void refresh_failingCollectorDoesNotDropOthers() {
+        MultiCollector failing = () -> {
+            throw new IllegalStateException("boom");
+        };
+        try (ScrapeScheduler scheduler = new ScrapeScheduler(List.of(failing, countingCollector(new AtomicInteger())), 60)) {
+            scheduler.refresh();
+            assertTrue(names(scheduler.collect()).contains("altibase_test"));
+        }
+    }
+}
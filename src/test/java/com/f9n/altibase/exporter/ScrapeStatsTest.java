@@ -0,0 +1,46 @@
+package com.f9n.altibase.exporter;
+
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.HistogramSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScrapeStatsTest {
+
+    private static MetricSnapshot family(List<MetricSnapshot> snapshots, String name) {
+        return snapshots.stream().filter(s -> s.getMetadata().getName().equals(name)).findFirst()
+                .orElseThrow(() -> new AssertionError("missing " + name));
+    }
+
+    @Test
+    void record_countsRunsRowsAndErrorsBySqlState() {
+        ScrapeStats stats = ScrapeStats.forScrapeMethods();
+        assertTrue(stats.snapshots().isEmpty());
+        stats.record("sessions", System.nanoTime(), ScrapeStats.allocatedBytes(), 3, null);
+        stats.record("sessions", System.nanoTime(), -1, 2, new SQLException("Column not found", "42S22"));
+        stats.record("sessions", System.nanoTime(), -1, 0, new IllegalStateException("boom"));
+        List<MetricSnapshot> out = stats.snapshots();
+
+        HistogramSnapshot duration = (HistogramSnapshot) family(out, "altibase_exporter_scrape_method_duration_seconds");
+        assertEquals(3, duration.getDataPoints().get(0).getCount());
+        assertEquals("sessions", duration.getDataPoints().get(0).getLabels().get("metric"));
+        CounterSnapshot samples = (CounterSnapshot) family(out, "altibase_exporter_scrape_method_samples");
+        assertEquals(5.0, samples.getDataPoints().get(0).getValue());
+        CounterSnapshot errors = (CounterSnapshot) family(out, "altibase_exporter_scrape_method_errors");
+        assertEquals(2, errors.getDataPoints().size());
+        assertEquals("42S22", errors.getDataPoints().get(0).getLabels().get("sqlstate"));
+        assertEquals(ScrapeStats.UNKNOWN_SQLSTATE, errors.getDataPoints().get(1).getLabels().get("sqlstate"));
+    }
+
+    @Test
+    void sqlState_usesFirstSqlExceptionInCauseChain() {
+        assertEquals("08S01", ScrapeStats.sqlState(new RuntimeException(new SQLException("lost", "08S01"))));
+        assertEquals(ScrapeStats.UNKNOWN_SQLSTATE, ScrapeStats.sqlState(new SQLException("no state")));
+    }
+}
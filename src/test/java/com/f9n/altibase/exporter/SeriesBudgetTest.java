@@ -0,0 +1,100 @@
+package com.f9n.altibase.exporter;
+
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.Labels;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeriesBudgetTest {
+
+    private static Labels table(String name) {
+        return Labels.of("schema", "APP", "table_name", name);
+    }
+
+    private static Map<String, List<GaugeSnapshot.GaugeDataPointSnapshot>> tables(double... sizes) {
+        List<GaugeSnapshot.GaugeDataPointSnapshot> list = new ArrayList<>();
+        for (int i = 0; i < sizes.length; i++) list.add(new GaugeSnapshot.GaugeDataPointSnapshot(sizes[i], table("T" + i), null));
+        Map<String, List<GaugeSnapshot.GaugeDataPointSnapshot>> points = new LinkedHashMap<>();
+        points.put("table_size_bytes", list);
+        return points;
+    }
+
+    private static double value(List<GaugeSnapshot.GaugeDataPointSnapshot> list, Labels labels) {
+        for (GaugeSnapshot.GaugeDataPointSnapshot p : list) if (p.getLabels().equals(labels)) return p.getValue();
+        return Double.NaN;
+    }
+
+    @Test
+    void enforce_keepsHeaviestAndFoldsRestIntoOther() {
+        SeriesBudget budget = new SeriesBudget(2, Map.of());
+        Map<String, List<GaugeSnapshot.GaugeDataPointSnapshot>> points = tables(10, 500, 20, 300);
+        assertEquals(Map.of("table_size_bytes", 2), budget.enforce(points));
+        List<GaugeSnapshot.GaugeDataPointSnapshot> out = points.get("table_size_bytes");
+        assertEquals(3, out.size());
+        assertEquals(500.0, value(out, table("T1")));
+        assertEquals(300.0, value(out, table("T3")));
+        assertEquals(30.0, value(out, Labels.of("schema", "other", "table_name", "other")));
+    }
+
+    @Test
+    void enforce_membershipStableAcrossScrapes() {
+        SeriesBudget budget = new SeriesBudget(1, Map.of());
+        for (int i = 0; i < 5; i++) budget.enforce(tables(1000, 10));
+        // T1 briefly outweighs T0; the sketch still ranks T0 higher, so T0 stays
+        Map<String, List<GaugeSnapshot.GaugeDataPointSnapshot>> points = tables(1000, 1100);
+        budget.enforce(points);
+        assertEquals(1000.0, value(points.get("table_size_bytes"), table("T0")));
+    }
+
+    @Test
+    void enforce_sequenceGroupSharesMembershipAndFoldsByMax() {
+        SeriesBudget budget = new SeriesBudget(1, Map.of());
+        Labels a = Labels.of("schema", "APP", "sequence", "A");
+        Labels b = Labels.of("schema", "APP", "sequence", "B");
+        Map<String, List<GaugeSnapshot.GaugeDataPointSnapshot>> points = new LinkedHashMap<>();
+        points.put("sequence_current_value", new ArrayList<>(List.of(
+                new GaugeSnapshot.GaugeDataPointSnapshot(900, a, null), new GaugeSnapshot.GaugeDataPointSnapshot(50, b, null))));
+        points.put("sequence_usage_ratio", new ArrayList<>(List.of(
+                new GaugeSnapshot.GaugeDataPointSnapshot(0.1, a, null), new GaugeSnapshot.GaugeDataPointSnapshot(0.95, b, null))));
+        budget.enforce(points);
+        Labels other = Labels.of("schema", "other", "sequence", "other");
+        assertEquals(50.0, value(points.get("sequence_current_value"), b));
+        assertEquals(900.0, value(points.get("sequence_current_value"), other));
+        assertEquals(0.95, value(points.get("sequence_usage_ratio"), b));
+        assertEquals(0.1, value(points.get("sequence_usage_ratio"), other));
+    }
+
+    @Test
+    void enforce_infoSeriesKeepTheFirstInLabelOrderEveryScrape() {
+        SeriesBudget budget = new SeriesBudget(2, Map.of());
+        for (List<String> order : List.of(List.of("T3", "T1", "T0", "T2"), List.of("T2", "T0", "T3", "T1"))) {
+            List<GaugeSnapshot.GaugeDataPointSnapshot> list = new ArrayList<>();
+            for (String name : order) list.add(new GaugeSnapshot.GaugeDataPointSnapshot(1, Labels.of("table_name", name, "lock_desc", "IX"), null));
+            Map<String, List<GaugeSnapshot.GaugeDataPointSnapshot>> points = new LinkedHashMap<>();
+            points.put("lock_table", list);
+            assertEquals(Map.of("lock_table", 2), budget.enforce(points));
+            List<GaugeSnapshot.GaugeDataPointSnapshot> out = points.get("lock_table");
+            assertEquals(1.0, value(out, Labels.of("table_name", "T0", "lock_desc", "IX")));
+            assertEquals(1.0, value(out, Labels.of("table_name", "T1", "lock_desc", "IX")));
+            assertEquals(2.0, value(out, Labels.of("table_name", "other", "lock_desc", "other")));
+        }
+    }
+
+    @Test
+    void enforce_groupOverrideZeroIsUnlimited() {
+        SeriesBudget budget = new SeriesBudget(1, Map.of("table_size_bytes", 0));
+        Map<String, List<GaugeSnapshot.GaugeDataPointSnapshot>> points = tables(1, 2, 3);
+        assertEquals(Map.of("table_size_bytes", 0), budget.enforce(points));
+        assertEquals(3, points.get("table_size_bytes").size());
+        assertTrue(budget.isActive());
+        assertFalse(new SeriesBudget(0, Map.of("lock_table", 0)).isActive());
+    }
+}
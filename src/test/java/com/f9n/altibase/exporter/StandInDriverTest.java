@@ -0,0 +1,145 @@
+package com.f9n.altibase.exporter;
+
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodType;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** End-to-end scrapes through {@link DriverManager} against the {@link StandInDriver}. */
+class StandInDriverTest {
+
+    private static final ExporterConfig CONFIG = TestConfig.builder().server("standin").database("e2e").build();
+
+    private ConnectionManager manager;
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (manager != null) manager.close();
+        StandInDriver.uninstall();
+    }
+
+    private ConnectionManager connect(StandInDriver.Database db) throws InterruptedException {
+        Properties props = new Properties();
+        manager = new ConnectionManager(() -> DriverManager.getConnection(db.url(), props), 1, 1);
+        manager.start();
+        awaitConnected();
+        return manager;
+    }
+
+    private void awaitConnected() throws InterruptedException {
+        for (int i = 0; i < 300 && manager.current() == null; i++) Thread.sleep(10);
+        assertTrue(manager.current() != null, "stand-in connection");
+    }
+
+    private static List<GaugeSnapshot.GaugeDataPointSnapshot> gauge(MetricSnapshots snapshots, String name) {
+        for (MetricSnapshot s : snapshots) {
+            if (s.getMetadata().getName().equals(name)) return ((GaugeSnapshot) s).getDataPoints();
+        }
+        return List.of();
+    }
+
+    private static double value(MetricSnapshots snapshots, String name) {
+        return gauge(snapshots, name).get(0).getValue();
+    }
+
+    @Test
+    void collect_generatedTables_scrapesEveryObject() throws Exception {
+        StandInDriver.Database db = StandInDriver.install("e2e").generate("SYS_TABLES_", 50);
+        AltibaseCollector collector = new AltibaseCollector(connect(db), null, CONFIG);
+        MetricSnapshots snapshots = collector.collect();
+        assertEquals(1.0, value(snapshots, "altibase_up"));
+        assertEquals(1.0, value(snapshots, "altibase_exporter_last_scrape_success"));
+        assertTrue(gauge(snapshots, "altibase_table_size_bytes").size() >= 50);
+        assertTrue(db.statements() > 50, "statements=" + db.statements());
+    }
+
+    @Test
+    void collect_columnNotFound_skipsSchemaMethodAndCountsSqlState() throws Exception {
+        StandInDriver.Database db = StandInDriver.install("e2e").columnNotFound("V$TRANSACTION_MGR");
+        AltibaseCollector collector = new AltibaseCollector(connect(db), null, CONFIG);
+        MetricSnapshots snapshots = collector.collect();
+        assertEquals(1.0, value(snapshots, "altibase_exporter_last_scrape_success"));
+        assertTrue(gauge(snapshots, "altibase_transaction_manager_count").isEmpty());
+        CounterSnapshot errors = (CounterSnapshot) snapshots.stream()
+                .filter(s -> s.getMetadata().getName().equals("altibase_exporter_scrape_method_errors")).findFirst().orElseThrow();
+        assertEquals("42000", errors.getDataPoints().get(0).getLabels().get("sqlstate"));
+    }
+
+    @Test
+    void collect_droppedConnection_reportsDownThenReconnects() throws Exception {
+        StandInDriver.Database db = StandInDriver.install("e2e");
+        AltibaseCollector collector = new AltibaseCollector(connect(db), null, CONFIG);
+        assertEquals(1.0, value(collector.collect(), "altibase_up"));
+        db.dropConnections();
+        assertEquals(0.0, value(collector.collect(), "altibase_up"));
+        awaitConnected();
+        assertEquals(1.0, value(collector.collect(), "altibase_up"));
+        assertEquals(1, manager.reconnects());
+        assertEquals(2, db.connects());
+    }
+
+    @Test
+    void customQuery_scriptedTable() throws Exception {
+        StandInDriver.Database db = StandInDriver.install("e2e")
+                .table("FROM APP_QUEUE", List.of("QUEUE", "DEPTH"), List.of(new Object[]{"orders", 12L}, new Object[]{"mails", 3L}));
+        CustomQueryCollector custom = new CustomQueryCollector(connect(db),
+                List.of(new CustomQueryCollector.QueryDef("queue_depth", "Queue depth.", "SELECT QUEUE, DEPTH FROM APP_QUEUE", List.of("QUEUE"))));
+        List<GaugeSnapshot.GaugeDataPointSnapshot> points = gauge(custom.collect(), "altibase_custom_queue_depth");
+        assertEquals(2, points.size());
+        assertEquals("orders", points.get(0).getLabels().get("queue"));
+        assertEquals(12.0, points.get(0).getValue());
+    }
+
+    @Test
+    void connectWithTimeout_slowServer_timesOut() throws Exception {
+        StandInDriver.Database db = StandInDriver.install("e2e").connectLatency(Duration.ofSeconds(3));
+        SQLException e = assertThrows(SQLException.class,
+                () -> Main.connectWithTimeout(db.url(), new Properties(), 1, "standin", 20300, "e2e"));
+        assertTrue(e.getMessage().startsWith("Connection timeout"), e.getMessage());
+    }
+
+    @Test
+    void collect_concurrentScrapersWithLatency_shareScrapes() throws Exception {
+        StandInDriver.Database db = StandInDriver.install("e2e").latency("V$SESSION", Duration.ofMillis(20));
+        AltibaseCollector collector = new AltibaseCollector(connect(db), null, CONFIG);
+        collector.collect();
+        long perScrape = db.statements();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<MetricSnapshots>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) futures.add(pool.submit(collector::collect));
+            for (Future<MetricSnapshots> f : futures) assertEquals(1.0, value(f.get(30, TimeUnit.SECONDS), "altibase_up"));
+        } finally {
+            pool.shutdownNow();
+        }
+        assertTrue(collector.coalesced() + collector.servedStale() > 0);
+        assertTrue(db.statements() - perScrape < 32 * perScrape, "statements=" + db.statements());
+    }
+
+    @Test
+    void zero_isTheExactWrapperOfEveryPrimitiveReturnType() {
+        for (Class<?> type : List.of(boolean.class, byte.class, short.class, char.class, int.class, long.class, float.class, double.class)) {
+            Object zero = StandInDriver.zero(type);
+            assertEquals(MethodType.methodType(type).wrap().returnType(), zero.getClass(), type.getName());
+        }
+        assertEquals(null, StandInDriver.zero(void.class));
+    }
+}
@@ -0,0 +1,133 @@
+package com.f9n.altibase.exporter;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link ExporterConfig} for tests: Main's defaults except that the circuit breaker is off, so tests set only the
+ * fields they exercise, e.g. {@code TestConfig.builder().queryTimeoutSeconds(0).build()}.
+ */
+final class TestConfig {
+
+    private String server = "127.0.0.1";
+    private int port = 20300;
+    private String user = "sys";
+    private String password = "manager";
+    private String database = "mydb";
+    private int listenPort = 9399;
+    private String queriesFile = "";
+    private int connectTimeoutSeconds = 10;
+    private Set<String> disabledMetrics = Set.of();
+    private int scrapeParallelism = 1;
+    private int scrapeIntervalSeconds;
+    private Map<String, Integer> metricIntervals = Map.of();
+    private int queryTimeoutSeconds = 10;
+    private int scrapeTimeoutSeconds;
+    private int breakerFailures;
+    private int breakerBackoffSeconds = 30;
+    private int sequenceBatchSize = 20;
+    private int sequenceMax = 100;
+    private String modulesFile = "";
+    private int probeMaxTargets = 50;
+    private int probeIdleTimeoutSeconds = 300;
+    private int reconnectBackoffSeconds = 1;
+    private int reconnectMaxBackoffSeconds = 60;
+    private int queryMaxRows = 10000;
+    private int queriesReloadSeconds = 30;
+    private boolean cumulativeCounters;
+    private boolean cumulativeRates;
+    private int seriesBudget;
+    private Map<String, Integer> seriesBudgets = Map.of();
+    private boolean streaming;
+    private int scrapeMaxWaiters = 10;
+    private int webMaxRequests = 16;
+
+    private TestConfig() {}
+
+    static TestConfig builder() {
+        return new TestConfig();
+    }
+
+    /** Defaults only. */
+    static ExporterConfig defaults() {
+        return builder().build();
+    }
+
+    TestConfig server(String server) {
+        this.server = server;
+        return this;
+    }
+
+    TestConfig database(String database) {
+        this.database = database;
+        return this;
+    }
+
+    TestConfig disabledMetrics(Set<String> disabledMetrics) {
+        this.disabledMetrics = disabledMetrics;
+        return this;
+    }
+
+    TestConfig scrapeParallelism(int scrapeParallelism) {
+        this.scrapeParallelism = scrapeParallelism;
+        return this;
+    }
+
+    TestConfig metricIntervals(Map<String, Integer> metricIntervals) {
+        this.metricIntervals = metricIntervals;
+        return this;
+    }
+
+    TestConfig queryTimeoutSeconds(int queryTimeoutSeconds) {
+        this.queryTimeoutSeconds = queryTimeoutSeconds;
+        return this;
+    }
+
+    TestConfig scrapeTimeoutSeconds(int scrapeTimeoutSeconds) {
+        this.scrapeTimeoutSeconds = scrapeTimeoutSeconds;
+        return this;
+    }
+
+    TestConfig breakerFailures(int breakerFailures) {
+        this.breakerFailures = breakerFailures;
+        return this;
+    }
+
+    TestConfig probeMaxTargets(int probeMaxTargets) {
+        this.probeMaxTargets = probeMaxTargets;
+        return this;
+    }
+
+    TestConfig cumulativeCounters(boolean cumulativeCounters) {
+        this.cumulativeCounters = cumulativeCounters;
+        return this;
+    }
+
+    TestConfig seriesBudget(int seriesBudget) {
+        this.seriesBudget = seriesBudget;
+        return this;
+    }
+
+    TestConfig seriesBudgets(Map<String, Integer> seriesBudgets) {
+        this.seriesBudgets = seriesBudgets;
+        return this;
+    }
+
+    TestConfig streaming(boolean streaming) {
+        this.streaming = streaming;
+        return this;
+    }
+
+    TestConfig scrapeMaxWaiters(int scrapeMaxWaiters) {
+        this.scrapeMaxWaiters = scrapeMaxWaiters;
+        return this;
+    }
+
+    ExporterConfig build() {
+        return new ExporterConfig(server, port, user, password, database, listenPort, queriesFile, connectTimeoutSeconds, disabledMetrics, "test",
+                scrapeParallelism, scrapeIntervalSeconds, metricIntervals, queryTimeoutSeconds, scrapeTimeoutSeconds, breakerFailures,
+                breakerBackoffSeconds, sequenceBatchSize, sequenceMax, modulesFile, probeMaxTargets, probeIdleTimeoutSeconds,
+                reconnectBackoffSeconds, reconnectMaxBackoffSeconds, queryMaxRows, queriesReloadSeconds, cumulativeCounters, cumulativeRates,
+                seriesBudget, seriesBudgets, streaming, scrapeMaxWaiters, webMaxRequests);
+    }
+}
@@ -0,0 +1,70 @@
+package com.f9n.altibase.exporter;
+
+import io.prometheus.metrics.model.snapshots.Labels;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TextEncoderTest {
+
+    private static String write(TextEncoder enc, String help) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        enc.writeTo(out, help, TextEncoder.Format.TEXT);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void sample_encodesLabelsAndValuesLikeDoubleToString() throws IOException {
+        TextEncoder enc = new TextEncoder("altibase_table_size_bytes");
+        enc.sample(Labels.of("schema", "APP", "table_name", "T1"), 4096);
+        enc.sample(Labels.EMPTY, 0.25);
+        enc.sample(Labels.EMPTY, 1.5e10);
+        enc.sample(Labels.EMPTY, Double.POSITIVE_INFINITY);
+        enc.sample(Labels.EMPTY, -3);
+        assertEquals("""
+                # HELP altibase_table_size_bytes Size in bytes.\\nPer table.
+                # TYPE altibase_table_size_bytes gauge
+                altibase_table_size_bytes{schema="APP",table_name="T1"} 4096.0
+                altibase_table_size_bytes 0.25
+                altibase_table_size_bytes 1.5E10
+                altibase_table_size_bytes +Inf
+                altibase_table_size_bytes -3.0
+                """, write(enc, "Size in bytes.\nPer table."));
+    }
+
+    @Test
+    void sample_escapesAndUtf8EncodesLabelValues() throws IOException {
+        TextEncoder enc = new TextEncoder("altibase_lock_table");
+        enc.sample(Labels.of("table_name", "a\"b\\c\nd", "lock_desc", "잠금"), 1);
+        String text = write(enc, "h");
+        assertEquals("altibase_lock_table{table_name=\"a\\\"b\\\\c\\nd\",lock_desc=\"잠금\"} 1.0\n", text.substring(text.indexOf("altibase_lock_table{")));
+    }
+
+    @Test
+    void writeTo_openMetricsInfoHeaderUsesFamilyNameAndType() throws IOException {
+        TextEncoder enc = TextEncoder.info("altibase_exporter_build");
+        enc.sample(Labels.of("version", "1.2"), 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        enc.writeTo(out, "Build \"info\".", TextEncoder.Format.OPENMETRICS);
+        assertEquals("""
+                # TYPE altibase_exporter_build info
+                # HELP altibase_exporter_build Build \\"info\\".
+                altibase_exporter_build_info{version="1.2"} 1.0
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void reset_reusesBufferAndEmptyEncoderWritesNothing() throws IOException {
+        TextEncoder enc = new TextEncoder("altibase_up");
+        for (int i = 0; i < 1000; i++) enc.sample(Labels.of("i", String.valueOf(i)), i);
+        enc.reset();
+        assertEquals("", write(enc, "h"));
+        enc.sample(Labels.EMPTY, 1);
+        assertEquals(1, enc.samples());
+        assertEquals("altibase_up 1.0\n".length(), enc.size());
+    }
+}
@@ -0,0 +1,38 @@
+package com.f9n.altibase.exporter;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InterruptedIOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteTimeoutStreamTest {
+
+    @Test
+    void write_stalledReader_failsAfterTimeout() throws Exception {
+        PipedInputStream stalled = new PipedInputStream(1);
+        WriteTimeoutStream out = new WriteTimeoutStream(new PipedOutputStream(stalled), Duration.ofMillis(100));
+        long start = System.nanoTime();
+        assertThrows(InterruptedIOException.class, () -> out.write(new byte[16]));
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+        assertFalse(Thread.currentThread().isInterrupted(), "interrupt is cleared");
+    }
+
+    @Test
+    void write_fastReader_passesBytesThrough() throws Exception {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        try (WriteTimeoutStream out = new WriteTimeoutStream(target, Duration.ofMillis(50))) {
+            out.write(new byte[]{1, 2});
+            Thread.sleep(200);
+            out.write(3);
+        }
+        assertArrayEquals(new byte[]{1, 2, 3}, target.toByteArray());
+    }
+}